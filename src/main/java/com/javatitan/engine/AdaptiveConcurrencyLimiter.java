@@ -0,0 +1,126 @@
+package com.javatitan.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdaptiveConcurrencyLimiter {
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final int BASELINE_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double baselineRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limites de admissao invalidos: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        accepted.increment();
+        return new Permit(System.nanoTime(), current + 1);
+    }
+
+    public void onSuccess(Permit permit) {
+        inFlight.decrementAndGet();
+        sample(System.nanoTime() - permit.startedAt(), permit.inFlight());
+    }
+
+    // Fila cheia: a tarefa nem entrou no pool, libera a vaga e reduz o limite multiplicativamente.
+    public void onDropped(Permit permit) {
+        inFlight.decrementAndGet();
+        backoff();
+    }
+
+    // Timeout ou cancelamento visto pelo chamador: mesmo sinal de sobrecarga, mas a tarefa ainda ocupa um worker, entao
+    // a vaga continua em uso ate o onIgnore no fim da execucao.
+    public void onTimeout(Permit permit) {
+        backoff();
+    }
+
+    private void backoff() {
+        dropped.increment();
+        synchronized (this) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF);
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public void onIgnore(Permit permit) {
+        inFlight.decrementAndGet();
+    }
+
+    public long retryAfterSeconds() {
+        double baseline;
+        synchronized (this) {
+            baseline = baselineRttNanos;
+        }
+        return Math.max(1L, (long) Math.ceil(baseline * RTT_TOLERANCE / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    // Gradiente: baseline/rtt < 1 quando ha fila, o que encolhe o limite; sem fila,
+    // o termo sqrt(limite) faz a sondagem aditiva por mais capacidade.
+    private synchronized void sample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        // Baseline segue o menor RTT; so sobe com amostras sem fila (ou no limite minimo),
+        // senao a propria fila viraria referencia e o limite cresceria sem parar.
+        if (baselineRttNanos == 0 || rttNanos < baselineRttNanos) {
+            baselineRttNanos = rttNanos;
+        } else if (rttNanos <= RTT_TOLERANCE * baselineRttNanos || estimatedLimit <= minLimit) {
+            baselineRttNanos += (rttNanos - baselineRttNanos) / BASELINE_WINDOW;
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * baselineRttNanos / rttNanos));
+        double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    public Snapshot snapshot() {
+        double baseline;
+        synchronized (this) {
+            baseline = baselineRttNanos;
+        }
+        return new Snapshot(limit, inFlight.get(), minLimit, maxLimit, accepted.sum(), rejected.sum(), dropped.sum(),
+            (long) (baseline / TimeUnit.MICROSECONDS.toNanos(1)));
+    }
+
+    public record Permit(long startedAt, int inFlight) {}
+
+    public record Snapshot(
+        int limit,
+        int inFlight,
+        int minLimit,
+        int maxLimit,
+        long accepted,
+        long rejected,
+        long dropped,
+        long baselineRttMicros
+    ) {}
+}
@@ -0,0 +1,94 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+public enum AeadSuite {
+    AES_128_GCM("aes-128-gcm", "AES/GCM/NoPadding", "AES", 16),
+    AES_192_GCM("aes-192-gcm", "AES/GCM/NoPadding", "AES", 24),
+    AES_256_GCM("aes-256-gcm", "AES/GCM/NoPadding", "AES", 32),
+    CHACHA20_POLY1305("chacha20-poly1305", "ChaCha20-Poly1305", "ChaCha20", 32);
+
+    public static final String HEADER = "X-Payload-Cipher";
+    private static final byte[] HKDF_SALT = "javatitan-aead".getBytes(StandardCharsets.US_ASCII);
+    private static final AeadSuite[] SUITES = values();
+
+    private final String id;
+    private final String transformation;
+    private final String keyAlgorithm;
+    private final int keyBytes;
+
+    AeadSuite(String id, String transformation, String keyAlgorithm, int keyBytes) {
+        this.id = id;
+        this.transformation = transformation;
+        this.keyAlgorithm = keyAlgorithm;
+        this.keyBytes = keyBytes;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String transformation() {
+        return transformation;
+    }
+
+    public String keyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    public static AeadSuite from(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("Suite de cifra obrigatoria.");
+        }
+        String value = raw.trim();
+        for (AeadSuite suite : SUITES) {
+            if (suite.id.equalsIgnoreCase(value) || suite.name().equalsIgnoreCase(value)) {
+                return suite;
+            }
+        }
+        throw new IllegalArgumentException("Suite de cifra desconhecida: " + value);
+    }
+
+    // Suite do envelope legado: AES-GCM com a chave configurada, sem derivacao.
+    public static AeadSuite forAesKey(int length) {
+        return switch (length) {
+            case 16 -> AES_128_GCM;
+            case 24 -> AES_192_GCM;
+            case 32 -> AES_256_GCM;
+            default -> throw new IllegalArgumentException("Tamanho de chave AES invalido: " + length);
+        };
+    }
+
+    // A suite padrao usa a chave configurada; as demais recebem chave propria via HKDF-SHA256,
+    // assim a mesma chave nunca e usada por dois algoritmos.
+    public byte[] key(byte[] master) {
+        if (this == forAesKey(master.length)) {
+            return master;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(HKDF_SALT, "HmacSHA256"));
+            byte[] prk = mac.doFinal(master);
+            mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+            mac.update(id.getBytes(StandardCharsets.US_ASCII));
+            mac.update((byte) 1);
+            return Arrays.copyOf(mac.doFinal(), keyBytes);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Falha ao derivar chave " + id + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    public AlgorithmParameterSpec parameters(byte[] iv, int offset) {
+        if (this == CHACHA20_POLY1305) {
+            return new IvParameterSpec(iv, offset, CryptoSession.IV_SIZE);
+        }
+        return new GCMParameterSpec(CryptoSession.TAG_SIZE * 8, iv, offset, CryptoSession.IV_SIZE);
+    }
+}
@@ -1,5 +1,13 @@
 package com.javatitan.engine;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public record AppConfig(
     int port,
     int httpThreads,
@@ -9,8 +17,60 @@ public record AppConfig(
     int maxBodyBytes,
     long processingTimeoutMs,
     int rateLimitPerMinute,
-    boolean metricsEnabled
+    boolean metricsEnabled,
+    boolean virtualThreads,
+    String httpFrontend,
+    int eventLoops,
+    long keepAliveTimeoutMs,
+    int maxBatchItems,
+    long batchTimeoutMs,
+    int streamMaxInFlight,
+    boolean admissionEnabled,
+    int admissionMinLimit,
+    int admissionMaxLimit,
+    int workerQueueCapacity,
+    int idempotencyMaxEntries,
+    long idempotencyTtlMs,
+    long idempotencyPendingTtlMs,
+    Map<Plano, Integer> planWeights,
+    long planMaxWaitMs,
+    int jwtCacheMaxEntries,
+    long jwtNegativeTtlMs,
+    int cryptoThreads,
+    String rateLimitAlgorithm,
+    int rateLimitBurst,
+    int rateLimitMaxKeys,
+    Map<Plano, Integer> rateLimitTenantPlans,
+    Map<Plano, Integer> rateLimitPlans,
+    Map<String, Integer> rateLimitEndpoints,
+    int rateLimitGlobal,
+    int rateLimitIpPerMinute,
+    int clusterPort,
+    String clusterBind,
+    List<String> clusterPeers,
+    long clusterGossipMs,
+    String clusterSecret,
+    int traceSampleEvery,
+    int traceSlowCapacity,
+    long traceSlowMs,
+    long traceWindowMs,
+    boolean jfrAdminEnabled,
+    String jfrDir,
+    boolean logAsync,
+    int logBufferSize,
+    String logOverflow,
+    String logFile,
+    long logFileMaxBytes,
+    int logFileKeep
 ) {
+    public static final String FRONTEND_JDK = "jdk";
+    public static final String FRONTEND_NIO = "nio";
+    public static final String RATE_LIMIT_FIXED = "fixed";
+    public static final String RATE_LIMIT_GCRA = "gcra";
+    public static final String LOG_OVERFLOW_DROP = "drop";
+    public static final String LOG_OVERFLOW_BLOCK = "block";
+    static final int MIN_CLUSTER_SECRET_BYTES = 16;
+
     public static AppConfig fromEnv() {
         int port = envInt("JAVATITAN_PORT", 8080, 1, 65535);
         int httpThreads = envInt("JAVATITAN_HTTP_THREADS", Math.max(4, Runtime.getRuntime().availableProcessors()), 1, 512);
@@ -22,7 +82,160 @@ public record AppConfig(
         long processingTimeout = envLong("JAVATITAN_PROCESS_TIMEOUT_MS", 12000L, 0L, 600000L);
         int rateLimit = envInt("JAVATITAN_RATE_LIMIT_PER_MIN", 120, 0, 100000);
         boolean metricsEnabled = envBool("JAVATITAN_METRICS_ENABLED", true);
-        return new AppConfig(port, httpThreads, workerThreads, delayMs, allowPlain, maxBodyBytes, processingTimeout, rateLimit, metricsEnabled);
+        boolean virtualThreads = envBool("JAVATITAN_VIRTUAL_THREADS", false);
+        if (virtualThreads && !EngineExecutors.virtualThreadsSupported()) {
+            throw new IllegalArgumentException("JAVATITAN_VIRTUAL_THREADS exige JDK 21+ (runtime atual: " + Runtime.version() + ")");
+        }
+        String httpFrontend = envChoice("JAVATITAN_HTTP_FRONTEND", FRONTEND_JDK, FRONTEND_JDK, FRONTEND_NIO);
+        int eventLoops = envInt("JAVATITAN_EVENT_LOOPS", Runtime.getRuntime().availableProcessors(), 1, 256);
+        long keepAliveTimeout = envLong("JAVATITAN_KEEP_ALIVE_TIMEOUT_MS", 60000L, 0L, 3600000L);
+        int maxBatchItems = envInt("JAVATITAN_BATCH_MAX_ITEMS", 500, 1, 10000);
+        long batchTimeout = envLong("JAVATITAN_BATCH_TIMEOUT_MS", 30000L, 0L, 600000L);
+        int streamMaxInFlight = envInt("JAVATITAN_STREAM_MAX_IN_FLIGHT", 256, 1, 100000);
+        boolean admissionEnabled = envBool("JAVATITAN_ADMISSION_ENABLED", true);
+        int admissionMinLimit = envInt("JAVATITAN_ADMISSION_MIN_LIMIT", workerThreads, 1, 100000);
+        int admissionMaxLimit = envInt("JAVATITAN_ADMISSION_MAX_LIMIT", 1000, 1, 100000);
+        if (admissionMinLimit > admissionMaxLimit) {
+            throw new IllegalArgumentException("JAVATITAN_ADMISSION_MIN_LIMIT maior que JAVATITAN_ADMISSION_MAX_LIMIT");
+        }
+        int workerQueueCapacity = envInt("JAVATITAN_WORKER_QUEUE_CAPACITY", 1000, 1, 1000000);
+        int idempotencyMaxEntries = envInt("JAVATITAN_IDEMPOTENCY_MAX_ENTRIES", 10000, 0, 1000000);
+        long idempotencyTtlMs = envLong("JAVATITAN_IDEMPOTENCY_TTL_SECONDS", 3600L, 1L, 604800L) * 1000L;
+        long idempotencyPendingTtlMs = envLong("JAVATITAN_IDEMPOTENCY_PENDING_TTL_SECONDS", 120L, 1L, 86400L) * 1000L;
+        Map<Plano, Integer> planWeights = envPlanWeights("JAVATITAN_PLAN_WEIGHTS", "VIP=8,PRO=4,STARTER=1");
+        long planMaxWaitMs = envLong("JAVATITAN_PLAN_MAX_WAIT_MS", 2000L, 0L, 600000L);
+        int jwtCacheMaxEntries = envInt("JAVATITAN_JWT_CACHE_MAX_ENTRIES", 10000, 0, 1000000);
+        long jwtNegativeTtlMs = envLong("JAVATITAN_JWT_NEGATIVE_TTL_MS", 5000L, 0L, 600000L);
+        int cryptoThreads = envInt("JAVATITAN_CRYPTO_THREADS", 0, 0, 512);
+        String rateLimitAlgorithm = envChoice("JAVATITAN_RATE_LIMIT_ALGORITHM", RATE_LIMIT_FIXED, RATE_LIMIT_FIXED, RATE_LIMIT_GCRA);
+        int rateLimitBurst = envInt("JAVATITAN_RATE_LIMIT_BURST", Math.max(1, rateLimit), 1, 100000);
+        int rateLimitMaxKeys = envInt("JAVATITAN_RATE_LIMIT_MAX_KEYS", 100000, 1, 10000000);
+        Map<Plano, Integer> rateLimitTenantPlans = envPlanMap("JAVATITAN_RATE_LIMIT_TENANT_PLANS", "", 0, 10000000);
+        Map<Plano, Integer> rateLimitPlans = envPlanMap("JAVATITAN_RATE_LIMIT_PLANS", "", 0, 10000000);
+        Map<String, Integer> rateLimitEndpoints = envEndpointLimits("JAVATITAN_RATE_LIMIT_ENDPOINTS");
+        int rateLimitGlobal = envInt("JAVATITAN_RATE_LIMIT_GLOBAL", 0, 0, 10000000);
+        int rateLimitIpPerMinute = envInt("JAVATITAN_RATE_LIMIT_IP_PER_MIN", (int) Math.min(10000000L, rateLimit * 5L), 0, 10000000);
+        int clusterPort = envInt("JAVATITAN_CLUSTER_PORT", 0, 0, 65535);
+        List<String> clusterPeers = envPeers("JAVATITAN_CLUSTER_PEERS");
+        long clusterGossipMs = envLong("JAVATITAN_CLUSTER_GOSSIP_MS", 100L, 10L, 10000L);
+        String clusterSecret = System.getenv("JAVATITAN_CLUSTER_SECRET");
+        if (clusterSecret != null && clusterSecret.isBlank()) {
+            clusterSecret = null;
+        }
+        String clusterBind = System.getenv("JAVATITAN_CLUSTER_BIND");
+        if (clusterBind == null || clusterBind.isBlank()) {
+            clusterBind = "127.0.0.1";
+        }
+        // Sem HMAC qualquer datagrama forjado consumiria a cota de uma chave em todos os nos.
+        if (clusterPort > 0 && !clusterPeers.isEmpty()
+            && (clusterSecret == null || clusterSecret.getBytes(StandardCharsets.UTF_8).length < MIN_CLUSTER_SECRET_BYTES)) {
+            throw new IllegalArgumentException("JAVATITAN_CLUSTER_SECRET obrigatorio no modo cluster (minimo "
+                + MIN_CLUSTER_SECRET_BYTES + " bytes)");
+        }
+        int traceSampleEvery = envInt("JAVATITAN_TRACE_SAMPLE_EVERY", 0, 0, 1000000);
+        int traceSlowCapacity = envInt("JAVATITAN_TRACE_SLOW_CAPACITY", 32, 1, 1024);
+        long traceSlowMs = envLong("JAVATITAN_TRACE_SLOW_MS", 0L, 0L, 600000L);
+        long traceWindowMs = envLong("JAVATITAN_TRACE_WINDOW_SECONDS", 300L, 1L, 86400L) * 1000L;
+        boolean jfrAdminEnabled = envBool("JAVATITAN_JFR_ADMIN_ENABLED", false);
+        String jfrDir = System.getenv("JAVATITAN_JFR_DIR");
+        if (jfrDir == null || jfrDir.isBlank()) {
+            jfrDir = "jfr";
+        }
+        boolean logAsync = envBool("JAVATITAN_LOG_ASYNC", true);
+        int logBufferSize = envInt("JAVATITAN_LOG_BUFFER_SIZE", 8192, 2, 1 << 20);
+        String logOverflow = envChoice("JAVATITAN_LOG_OVERFLOW", LOG_OVERFLOW_DROP, LOG_OVERFLOW_DROP, LOG_OVERFLOW_BLOCK);
+        String logFile = System.getenv("JAVATITAN_LOG_FILE");
+        if (logFile != null && logFile.isBlank()) {
+            logFile = null;
+        }
+        long logFileMaxBytes = envLong("JAVATITAN_LOG_FILE_MAX_MB", 100L, 1L, 102400L) * 1024L * 1024L;
+        int logFileKeep = envInt("JAVATITAN_LOG_FILE_KEEP", 5, 0, 1000);
+        return builder()
+            .port(port)
+            .httpThreads(httpThreads)
+            .workerThreads(workerThreads)
+            .simulatedDelayMs(delayMs)
+            .allowPlainWhenSecure(allowPlain)
+            .maxBodyBytes(maxBodyBytes)
+            .processingTimeoutMs(processingTimeout)
+            .rateLimitPerMinute(rateLimit)
+            .metricsEnabled(metricsEnabled)
+            .virtualThreads(virtualThreads)
+            .httpFrontend(httpFrontend)
+            .eventLoops(eventLoops)
+            .keepAliveTimeoutMs(keepAliveTimeout)
+            .maxBatchItems(maxBatchItems)
+            .batchTimeoutMs(batchTimeout)
+            .streamMaxInFlight(streamMaxInFlight)
+            .admissionEnabled(admissionEnabled)
+            .admissionMinLimit(admissionMinLimit)
+            .admissionMaxLimit(admissionMaxLimit)
+            .workerQueueCapacity(workerQueueCapacity)
+            .idempotencyMaxEntries(idempotencyMaxEntries)
+            .idempotencyTtlMs(idempotencyTtlMs)
+            .idempotencyPendingTtlMs(idempotencyPendingTtlMs)
+            .planWeights(planWeights)
+            .planMaxWaitMs(planMaxWaitMs)
+            .jwtCacheMaxEntries(jwtCacheMaxEntries)
+            .jwtNegativeTtlMs(jwtNegativeTtlMs)
+            .cryptoThreads(cryptoThreads)
+            .rateLimitAlgorithm(rateLimitAlgorithm)
+            .rateLimitBurst(rateLimitBurst)
+            .rateLimitMaxKeys(rateLimitMaxKeys)
+            .rateLimitTenantPlans(rateLimitTenantPlans)
+            .rateLimitPlans(rateLimitPlans)
+            .rateLimitEndpoints(rateLimitEndpoints)
+            .rateLimitGlobal(rateLimitGlobal)
+            .rateLimitIpPerMinute(rateLimitIpPerMinute)
+            .clusterPort(clusterPort)
+            .clusterBind(clusterBind)
+            .clusterPeers(clusterPeers)
+            .clusterGossipMs(clusterGossipMs)
+            .clusterSecret(clusterSecret)
+            .traceSampleEvery(traceSampleEvery)
+            .traceSlowCapacity(traceSlowCapacity)
+            .traceSlowMs(traceSlowMs)
+            .traceWindowMs(traceWindowMs)
+            .jfrAdminEnabled(jfrAdminEnabled)
+            .jfrDir(jfrDir)
+            .logAsync(logAsync)
+            .logBufferSize(logBufferSize)
+            .logOverflow(logOverflow)
+            .logFile(logFile)
+            .logFileMaxBytes(logFileMaxBytes)
+            .logFileKeep(logFileKeep)
+            .build();
+    }
+
+    public AppConfig withVirtualThreads(boolean enabled) {
+        return toBuilder().virtualThreads(enabled).build();
+    }
+
+    public AppConfig withHttpFrontend(String frontend) {
+        return toBuilder().httpFrontend(frontend).build();
+    }
+
+    public boolean gcraRateLimit() {
+        return RATE_LIMIT_GCRA.equals(rateLimitAlgorithm);
+    }
+
+    // Limite por tenant do plano; planos sem valor em JAVATITAN_RATE_LIMIT_TENANT_PLANS usam JAVATITAN_RATE_LIMIT_PER_MIN.
+    public int tenantRateLimit(Plano plano) {
+        return rateLimitTenantPlans.getOrDefault(plano, rateLimitPerMinute);
+    }
+
+    // Modo cluster: porta UDP de gossip definida e ao menos um peer.
+    public boolean clusterEnabled() {
+        return clusterPort > 0 && !clusterPeers.isEmpty();
+    }
+
+    // Tracing por etapa: 1 a cada JAVATITAN_TRACE_SAMPLE_EVERY requisicoes; 0 desliga.
+    public boolean tracingEnabled() {
+        return traceSampleEvery > 0;
+    }
+
+    public boolean nioFrontend() {
+        return FRONTEND_NIO.equals(httpFrontend);
     }
 
     private static int envInt(String name, int defaultValue, int min, int max) {
@@ -57,6 +270,93 @@ public record AppConfig(
         }
     }
 
+    private static String envChoice(String name, String defaultValue, String... allowed) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        String normalized = value.trim().toLowerCase();
+        for (String option : allowed) {
+            if (option.equals(normalized)) {
+                return option;
+            }
+        }
+        throw new IllegalArgumentException(name + " invalido: " + value);
+    }
+
+    // Formato: PLANO=peso separados por virgula; planos omitidos ficam com peso 1.
+    private static Map<Plano, Integer> envPlanWeights(String name, String defaultValue) {
+        return envPlanMap(name, defaultValue, 1, 1000);
+    }
+
+    // Formato: PLANO=valor separados por virgula; vazio = mapa vazio.
+    private static Map<Plano, Integer> envPlanMap(String name, String defaultValue, int min, int max) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            value = defaultValue;
+        }
+        Map<Plano, Integer> values = new EnumMap<>(Plano.class);
+        if (value.isBlank()) {
+            return Collections.unmodifiableMap(values);
+        }
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException(name + " invalido: " + value);
+            }
+            values.put(Plano.from(pair[0]), parseBounded(name, value, part, pair[1], min, max));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    // Formato: /caminho=limite separados por virgula.
+    private static Map<String, Integer> envEndpointLimits(String name) {
+        String value = System.getenv(name);
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return Collections.unmodifiableMap(limits);
+        }
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2 || !pair[0].trim().startsWith("/")) {
+                throw new IllegalArgumentException(name + " invalido: " + value);
+            }
+            limits.put(pair[0].trim(), parseBounded(name, value, part, pair[1], 0, 10000000));
+        }
+        return Collections.unmodifiableMap(limits);
+    }
+
+    // Formato: host:porta separados por virgula.
+    private static List<String> envPeers(String name) {
+        String value = System.getenv(name);
+        List<String> peers = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        for (String part : value.split(",")) {
+            String peer = part.trim();
+            int colon = peer.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException(name + " invalido: " + value);
+            }
+            parseBounded(name, value, peer, peer.substring(colon + 1), 1, 65535);
+            peers.add(peer);
+        }
+        return List.copyOf(peers);
+    }
+
+    private static int parseBounded(String name, String value, String part, String raw, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(raw.trim());
+            if (parsed < min || parsed > max) {
+                throw new IllegalArgumentException(name + " fora do intervalo: " + part.trim());
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " invalido: " + value);
+        }
+    }
+
     private static boolean envBool(String name, boolean defaultValue) {
         String value = System.getenv(name);
         if (value == null) {
@@ -65,4 +365,404 @@ public record AppConfig(
         String normalized = value.trim().toLowerCase();
         return normalized.equals("true") || normalized.equals("1") || normalized.equals("yes");
     }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Copia para alterar so alguns campos (ex.: withVirtualThreads) sem repetir o construtor.
+    public Builder toBuilder() {
+        return builder()
+            .port(port)
+            .httpThreads(httpThreads)
+            .workerThreads(workerThreads)
+            .simulatedDelayMs(simulatedDelayMs)
+            .allowPlainWhenSecure(allowPlainWhenSecure)
+            .maxBodyBytes(maxBodyBytes)
+            .processingTimeoutMs(processingTimeoutMs)
+            .rateLimitPerMinute(rateLimitPerMinute)
+            .metricsEnabled(metricsEnabled)
+            .virtualThreads(virtualThreads)
+            .httpFrontend(httpFrontend)
+            .eventLoops(eventLoops)
+            .keepAliveTimeoutMs(keepAliveTimeoutMs)
+            .maxBatchItems(maxBatchItems)
+            .batchTimeoutMs(batchTimeoutMs)
+            .streamMaxInFlight(streamMaxInFlight)
+            .admissionEnabled(admissionEnabled)
+            .admissionMinLimit(admissionMinLimit)
+            .admissionMaxLimit(admissionMaxLimit)
+            .workerQueueCapacity(workerQueueCapacity)
+            .idempotencyMaxEntries(idempotencyMaxEntries)
+            .idempotencyTtlMs(idempotencyTtlMs)
+            .idempotencyPendingTtlMs(idempotencyPendingTtlMs)
+            .planWeights(planWeights)
+            .planMaxWaitMs(planMaxWaitMs)
+            .jwtCacheMaxEntries(jwtCacheMaxEntries)
+            .jwtNegativeTtlMs(jwtNegativeTtlMs)
+            .cryptoThreads(cryptoThreads)
+            .rateLimitAlgorithm(rateLimitAlgorithm)
+            .rateLimitBurst(rateLimitBurst)
+            .rateLimitMaxKeys(rateLimitMaxKeys)
+            .rateLimitTenantPlans(rateLimitTenantPlans)
+            .rateLimitPlans(rateLimitPlans)
+            .rateLimitEndpoints(rateLimitEndpoints)
+            .rateLimitGlobal(rateLimitGlobal)
+            .rateLimitIpPerMinute(rateLimitIpPerMinute)
+            .clusterPort(clusterPort)
+            .clusterBind(clusterBind)
+            .clusterPeers(clusterPeers)
+            .clusterGossipMs(clusterGossipMs)
+            .clusterSecret(clusterSecret)
+            .traceSampleEvery(traceSampleEvery)
+            .traceSlowCapacity(traceSlowCapacity)
+            .traceSlowMs(traceSlowMs)
+            .traceWindowMs(traceWindowMs)
+            .jfrAdminEnabled(jfrAdminEnabled)
+            .jfrDir(jfrDir)
+            .logAsync(logAsync)
+            .logBufferSize(logBufferSize)
+            .logOverflow(logOverflow)
+            .logFile(logFile)
+            .logFileMaxBytes(logFileMaxBytes)
+            .logFileKeep(logFileKeep);
+    }
+
+    // Campos por nome: o construtor posicional do record so e chamado em build(). Campo novo entra no record, aqui
+    // (campo, setter, build) e em toBuilder; quem so altera um valor usa toBuilder().campo(x).build().
+    public static final class Builder {
+        private int port;
+        private int httpThreads;
+        private int workerThreads;
+        private long simulatedDelayMs;
+        private boolean allowPlainWhenSecure;
+        private int maxBodyBytes;
+        private long processingTimeoutMs;
+        private int rateLimitPerMinute;
+        private boolean metricsEnabled;
+        private boolean virtualThreads;
+        private String httpFrontend;
+        private int eventLoops;
+        private long keepAliveTimeoutMs;
+        private int maxBatchItems;
+        private long batchTimeoutMs;
+        private int streamMaxInFlight;
+        private boolean admissionEnabled;
+        private int admissionMinLimit;
+        private int admissionMaxLimit;
+        private int workerQueueCapacity;
+        private int idempotencyMaxEntries;
+        private long idempotencyTtlMs;
+        private long idempotencyPendingTtlMs;
+        private Map<Plano, Integer> planWeights;
+        private long planMaxWaitMs;
+        private int jwtCacheMaxEntries;
+        private long jwtNegativeTtlMs;
+        private int cryptoThreads;
+        private String rateLimitAlgorithm;
+        private int rateLimitBurst;
+        private int rateLimitMaxKeys;
+        private Map<Plano, Integer> rateLimitTenantPlans;
+        private Map<Plano, Integer> rateLimitPlans;
+        private Map<String, Integer> rateLimitEndpoints;
+        private int rateLimitGlobal;
+        private int rateLimitIpPerMinute;
+        private int clusterPort;
+        private String clusterBind;
+        private List<String> clusterPeers;
+        private long clusterGossipMs;
+        private String clusterSecret;
+        private int traceSampleEvery;
+        private int traceSlowCapacity;
+        private long traceSlowMs;
+        private long traceWindowMs;
+        private boolean jfrAdminEnabled;
+        private String jfrDir;
+        private boolean logAsync;
+        private int logBufferSize;
+        private String logOverflow;
+        private String logFile;
+        private long logFileMaxBytes;
+        private int logFileKeep;
+
+        private Builder() {}
+
+        public Builder port(int value) {
+            this.port = value;
+            return this;
+        }
+
+        public Builder httpThreads(int value) {
+            this.httpThreads = value;
+            return this;
+        }
+
+        public Builder workerThreads(int value) {
+            this.workerThreads = value;
+            return this;
+        }
+
+        public Builder simulatedDelayMs(long value) {
+            this.simulatedDelayMs = value;
+            return this;
+        }
+
+        public Builder allowPlainWhenSecure(boolean value) {
+            this.allowPlainWhenSecure = value;
+            return this;
+        }
+
+        public Builder maxBodyBytes(int value) {
+            this.maxBodyBytes = value;
+            return this;
+        }
+
+        public Builder processingTimeoutMs(long value) {
+            this.processingTimeoutMs = value;
+            return this;
+        }
+
+        public Builder rateLimitPerMinute(int value) {
+            this.rateLimitPerMinute = value;
+            return this;
+        }
+
+        public Builder metricsEnabled(boolean value) {
+            this.metricsEnabled = value;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean value) {
+            this.virtualThreads = value;
+            return this;
+        }
+
+        public Builder httpFrontend(String value) {
+            this.httpFrontend = value;
+            return this;
+        }
+
+        public Builder eventLoops(int value) {
+            this.eventLoops = value;
+            return this;
+        }
+
+        public Builder keepAliveTimeoutMs(long value) {
+            this.keepAliveTimeoutMs = value;
+            return this;
+        }
+
+        public Builder maxBatchItems(int value) {
+            this.maxBatchItems = value;
+            return this;
+        }
+
+        public Builder batchTimeoutMs(long value) {
+            this.batchTimeoutMs = value;
+            return this;
+        }
+
+        public Builder streamMaxInFlight(int value) {
+            this.streamMaxInFlight = value;
+            return this;
+        }
+
+        public Builder admissionEnabled(boolean value) {
+            this.admissionEnabled = value;
+            return this;
+        }
+
+        public Builder admissionMinLimit(int value) {
+            this.admissionMinLimit = value;
+            return this;
+        }
+
+        public Builder admissionMaxLimit(int value) {
+            this.admissionMaxLimit = value;
+            return this;
+        }
+
+        public Builder workerQueueCapacity(int value) {
+            this.workerQueueCapacity = value;
+            return this;
+        }
+
+        public Builder idempotencyMaxEntries(int value) {
+            this.idempotencyMaxEntries = value;
+            return this;
+        }
+
+        public Builder idempotencyTtlMs(long value) {
+            this.idempotencyTtlMs = value;
+            return this;
+        }
+
+        public Builder idempotencyPendingTtlMs(long value) {
+            this.idempotencyPendingTtlMs = value;
+            return this;
+        }
+
+        public Builder planWeights(Map<Plano, Integer> value) {
+            this.planWeights = value;
+            return this;
+        }
+
+        public Builder planMaxWaitMs(long value) {
+            this.planMaxWaitMs = value;
+            return this;
+        }
+
+        public Builder jwtCacheMaxEntries(int value) {
+            this.jwtCacheMaxEntries = value;
+            return this;
+        }
+
+        public Builder jwtNegativeTtlMs(long value) {
+            this.jwtNegativeTtlMs = value;
+            return this;
+        }
+
+        public Builder cryptoThreads(int value) {
+            this.cryptoThreads = value;
+            return this;
+        }
+
+        public Builder rateLimitAlgorithm(String value) {
+            this.rateLimitAlgorithm = value;
+            return this;
+        }
+
+        public Builder rateLimitBurst(int value) {
+            this.rateLimitBurst = value;
+            return this;
+        }
+
+        public Builder rateLimitMaxKeys(int value) {
+            this.rateLimitMaxKeys = value;
+            return this;
+        }
+
+        public Builder rateLimitTenantPlans(Map<Plano, Integer> value) {
+            this.rateLimitTenantPlans = value;
+            return this;
+        }
+
+        public Builder rateLimitPlans(Map<Plano, Integer> value) {
+            this.rateLimitPlans = value;
+            return this;
+        }
+
+        public Builder rateLimitEndpoints(Map<String, Integer> value) {
+            this.rateLimitEndpoints = value;
+            return this;
+        }
+
+        public Builder rateLimitGlobal(int value) {
+            this.rateLimitGlobal = value;
+            return this;
+        }
+
+        public Builder rateLimitIpPerMinute(int value) {
+            this.rateLimitIpPerMinute = value;
+            return this;
+        }
+
+        public Builder clusterPort(int value) {
+            this.clusterPort = value;
+            return this;
+        }
+
+        public Builder clusterBind(String value) {
+            this.clusterBind = value;
+            return this;
+        }
+
+        public Builder clusterPeers(List<String> value) {
+            this.clusterPeers = value;
+            return this;
+        }
+
+        public Builder clusterGossipMs(long value) {
+            this.clusterGossipMs = value;
+            return this;
+        }
+
+        public Builder clusterSecret(String value) {
+            this.clusterSecret = value;
+            return this;
+        }
+
+        public Builder traceSampleEvery(int value) {
+            this.traceSampleEvery = value;
+            return this;
+        }
+
+        public Builder traceSlowCapacity(int value) {
+            this.traceSlowCapacity = value;
+            return this;
+        }
+
+        public Builder traceSlowMs(long value) {
+            this.traceSlowMs = value;
+            return this;
+        }
+
+        public Builder traceWindowMs(long value) {
+            this.traceWindowMs = value;
+            return this;
+        }
+
+        public Builder jfrAdminEnabled(boolean value) {
+            this.jfrAdminEnabled = value;
+            return this;
+        }
+
+        public Builder jfrDir(String value) {
+            this.jfrDir = value;
+            return this;
+        }
+
+        public Builder logAsync(boolean value) {
+            this.logAsync = value;
+            return this;
+        }
+
+        public Builder logBufferSize(int value) {
+            this.logBufferSize = value;
+            return this;
+        }
+
+        public Builder logOverflow(String value) {
+            this.logOverflow = value;
+            return this;
+        }
+
+        public Builder logFile(String value) {
+            this.logFile = value;
+            return this;
+        }
+
+        public Builder logFileMaxBytes(long value) {
+            this.logFileMaxBytes = value;
+            return this;
+        }
+
+        public Builder logFileKeep(int value) {
+            this.logFileKeep = value;
+            return this;
+        }
+
+        public AppConfig build() {
+            return new AppConfig(port, httpThreads, workerThreads, simulatedDelayMs, allowPlainWhenSecure, maxBodyBytes,
+                processingTimeoutMs, rateLimitPerMinute, metricsEnabled, virtualThreads, httpFrontend, eventLoops,
+                keepAliveTimeoutMs, maxBatchItems, batchTimeoutMs, streamMaxInFlight, admissionEnabled,
+                admissionMinLimit, admissionMaxLimit, workerQueueCapacity, idempotencyMaxEntries, idempotencyTtlMs,
+                idempotencyPendingTtlMs, planWeights, planMaxWaitMs, jwtCacheMaxEntries, jwtNegativeTtlMs,
+                cryptoThreads, rateLimitAlgorithm, rateLimitBurst, rateLimitMaxKeys, rateLimitTenantPlans,
+                rateLimitPlans, rateLimitEndpoints, rateLimitGlobal, rateLimitIpPerMinute, clusterPort, clusterBind,
+                clusterPeers, clusterGossipMs, clusterSecret, traceSampleEvery, traceSlowCapacity, traceSlowMs,
+                traceWindowMs, jfrAdminEnabled, jfrDir, logAsync, logBufferSize, logOverflow, logFile, logFileMaxBytes,
+                logFileKeep);
+        }
+    }
 }
@@ -0,0 +1,326 @@
+package com.javatitan.engine;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Appender assincrono do LoggerSaaS: as threads de requisicao so publicam a mensagem num anel limitado (MPSC, uma
+// sequencia por vaga, CAS na cauda) e uma unica thread formata e escreve em lote num FileChannel, stdout ou arquivo
+// rotativo. Sem o lock do PrintStream no caminho quente. Anel cheio: descarta e conta (drop) ou espera vaga (block,
+// que volta a descartar se a thread de escrita morreu).
+public final class AsyncLogAppender implements AutoCloseable {
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MS = 5000L;
+
+    private final Entry[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final boolean block;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int keepFiles;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    // Usados so pela thread de escrita (ou pelo close, depois que ela terminou).
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder line = new StringBuilder(256);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private long head;
+    private FileChannel channel;
+    private long fileBytes;
+    private long droppedReported;
+    // Falha de rotacao ainda nao registrada no proprio log; um aviso por sequencia de falhas, nao por lote.
+    private String failure;
+    private boolean rollFailing;
+
+    private AsyncLogAppender(int capacity, boolean block, Path file, long maxFileBytes, int keepFiles) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.entries = new Entry[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.block = block;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.keepFiles = keepFiles;
+        this.channel = open();
+        this.writer = new Thread(this::writeLoop, "javatitan-log-writer");
+        writer.setDaemon(true);
+    }
+
+    public static AsyncLogAppender start(AppConfig config) throws IOException {
+        return start(config.logBufferSize(), AppConfig.LOG_OVERFLOW_BLOCK.equals(config.logOverflow()),
+            config.logFile() == null ? null : Path.of(config.logFile()), config.logFileMaxBytes(), config.logFileKeep());
+    }
+
+    // capacity e arredondada para potencia de 2; file null escreve no stdout.
+    public static AsyncLogAppender start(int capacity, boolean block, Path file, long maxFileBytes, int keepFiles) throws IOException {
+        AsyncLogAppender appender = new AsyncLogAppender(capacity, block, file, maxFileBytes, keepFiles);
+        appender.writer.start();
+        return appender;
+    }
+
+    // false so depois do close: o LoggerSaaS escreve direto.
+    boolean append(String level, String requestId, String message) {
+        if (closed) {
+            return false;
+        }
+        Entry entry = new Entry(Instant.now(), level, requestId, message);
+        boolean waited = false;
+        while (!offer(entry)) {
+            // Sem a thread de escrita ninguem libera vaga: o modo block tambem descarta.
+            if (!block || !writer.isAlive()) {
+                dropped.increment();
+                return true;
+            }
+            if (closed) {
+                return false;
+            }
+            if (!waited) {
+                blocked.increment();
+                waited = true;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    // Fila limitada de Vyukov: a vaga i esta livre para a posicao t quando sequences[i] == t e publicada quando
+    // sequences[i] == t + 1. O set volatil da sequencia publica a entrada para a thread de escrita.
+    private boolean offer(Entry entry) {
+        while (true) {
+            long t = tail.get();
+            int index = (int) t & mask;
+            long diff = sequences.get(index) - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    entries[index] = entry;
+                    sequences.set(index, t + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    private Entry poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Entry entry = entries[index];
+        entries[index] = null;
+        sequences.set(index, head + entries.length);
+        head++;
+        return entry;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            if (drain() > 0) {
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+            writerParked = true;
+            // Rele depois de marcar: um produtor que publicou antes de ver a marca nao chamou unpark.
+            if (sequences.get((int) head & mask) == head + 1) {
+                writerParked = false;
+                continue;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            writerParked = false;
+        }
+    }
+
+    // Esvazia o anel em lotes de ate BATCH_BYTES; uma escrita no canal por lote.
+    private int drain() {
+        int count = 0;
+        Entry entry;
+        while ((entry = poll()) != null) {
+            format(entry);
+            count++;
+        }
+        long lost = dropped.sum();
+        if (lost > droppedReported) {
+            format(new Entry(Instant.now(), "WARN", null, "[LOG] " + (lost - droppedReported) + " mensagem(ns) descartada(s): anel cheio."));
+            droppedReported = lost;
+        }
+        if (failure != null) {
+            format(new Entry(Instant.now(), "WARN", null, "[LOG] " + failure));
+            failure = null;
+        }
+        flush();
+        return count;
+    }
+
+    private void format(Entry entry) {
+        line.setLength(0);
+        line.append('[').append(LocalDateTime.ofInstant(entry.time(), zone)).append("] [").append(entry.level()).append("] ");
+        if (entry.requestId() != null) {
+            line.append('[').append(entry.requestId()).append("] ");
+        }
+        line.append(entry.message()).append(System.lineSeparator());
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+        if (bytes.length > buffer.remaining()) {
+            write(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+        written.increment();
+    }
+
+    private void flush() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            if (!channel.isOpen()) {
+                channel = open();
+            }
+            if (file != null && fileBytes > 0 && fileBytes + bytes.remaining() > maxFileBytes) {
+                try {
+                    roll();
+                    rollFailing = false;
+                } catch (IOException ex) {
+                    // Sem rotacao o lote vai para o arquivo atual; a proxima escrita tenta de novo.
+                    writeFailures.increment();
+                    if (!rollFailing) {
+                        rollFailing = true;
+                        failure = "Falha ao rotacionar " + file + ": " + ex;
+                    }
+                }
+            }
+            int size = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            fileBytes += size;
+            batches.increment();
+        } catch (IOException ex) {
+            // Sem onde registrar a falha do proprio log: conta e segue com o proximo lote.
+            writeFailures.increment();
+            bytes.position(bytes.limit());
+        }
+    }
+
+    // app.log -> app.log.1 -> ... -> app.log.<keep>; o mais antigo e apagado. O canal e reaberto mesmo se um
+    // move falhar (no arquivo atual, em append); se nem isso der, write() tenta abrir de novo no proximo lote.
+    private void roll() throws IOException {
+        channel.close();
+        try {
+            if (keepFiles == 0) {
+                Files.deleteIfExists(file);
+            } else {
+                Files.deleteIfExists(sibling(keepFiles));
+                for (int i = keepFiles - 1; i >= 1; i--) {
+                    if (Files.exists(sibling(i))) {
+                        Files.move(sibling(i), sibling(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(file, sibling(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            channel = open();
+        }
+    }
+
+    private Path sibling(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private FileChannel open() throws IOException {
+        if (file == null) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = opened.size();
+        return opened;
+    }
+
+    public Snapshot snapshot() {
+        long t = tail.get();
+        long pending = Math.max(0, t - head);
+        return new Snapshot(entries.length, block ? AppConfig.LOG_OVERFLOW_BLOCK : AppConfig.LOG_OVERFLOW_DROP,
+            file == null ? "stdout" : file.toString(), Math.min(pending, entries.length), written.sum(), dropped.sum(),
+            blocked.sum(), batches.sum(), writeFailures.sum());
+    }
+
+    // Escreve o que ja foi publicado antes de voltar. Mensagem publicada durante o close pode se perder; o LoggerSaaS
+    // ja desinstalou este appender antes de chamar close, entao so corridas com esse instante chegam aqui.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            drain();
+        }
+        try {
+            if (file != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException ex) {
+            writeFailures.increment();
+        }
+    }
+
+    private record Entry(Instant time, String level, String requestId, String message) {}
+
+    // pending: mensagens no anel ainda nao escritas (leitura aproximada, fora da thread de escrita).
+    public record Snapshot(int capacity, String overflow, String target, long pending, long written, long dropped,
+                           long blocked, long batches, long writeFailures) {}
+}
@@ -0,0 +1,64 @@
+package com.javatitan.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+final class BenchmarkSupport {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    static volatile Object sink;
+
+    private BenchmarkSupport() {}
+
+    static Measurement measure(String name, int warmup, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = operation.run();
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = operation.run();
+        }
+        long durationNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new Measurement(name, iterations, durationNanos, allocatedBefore < 0 ? -1 : allocated);
+    }
+
+    static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " invalido: " + value);
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean sunThreads && sunThreads.isThreadAllocatedMemorySupported()) {
+            return sunThreads.getCurrentThreadAllocatedBytes();
+        }
+        return -1L;
+    }
+
+    @FunctionalInterface
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    record Measurement(String name, int iterations, long durationNanos, long allocatedBytes) {
+        double nanosPerOp() {
+            return (double) durationNanos / iterations;
+        }
+
+        double opsPerSecond() {
+            return iterations / (durationNanos / 1_000_000_000.0);
+        }
+
+        double bytesPerOp() {
+            return allocatedBytes < 0 ? -1 : (double) allocatedBytes / iterations;
+        }
+
+        String csv() {
+            return String.format(java.util.Locale.ROOT, "%s,%d,%.1f,%.0f,%.1f",
+                name, iterations, nanosPerOp(), opsPerSecond(), bytesPerOp());
+        }
+    }
+}
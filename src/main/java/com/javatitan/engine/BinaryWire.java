@@ -0,0 +1,189 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+// Frame: [u32 tamanho do restante][u8 versao][u32 keyId][IV 12][ciphertext + tag 16], big-endian.
+// Tamanho, versao e keyId entram como AAD: a tag cobre o cabecalho inteiro (o IV ja e autenticado como nonce).
+public final class BinaryWire {
+    public static final String CONTENT_TYPE = "application/vnd.javatitan+binary";
+    // Versao 2: cabecalho autenticado. Frames da versao 1 (sem AAD) sao recusados pela versao, nao pela tag.
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 4 + 1 + 4 + CryptoSession.IV_SIZE;
+    public static final int IV_OFFSET = HEADER_SIZE - CryptoSession.IV_SIZE;
+    private static final int MONEY_SIZE = 1 + 8;
+    public static final int REQUEST_SIZE = 16 + MONEY_SIZE + 1;
+    private static final int MAX_STATUS_LENGTH = 255;
+    private static final Plano[] PLANOS = Plano.values();
+
+    private BinaryWire() {}
+
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.toLowerCase().contains(CONTENT_TYPE);
+    }
+
+    // Primeiros 4 bytes do SHA-256 da chave: identifica a chave sem expor material dela.
+    public static int keyId(byte[] key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key);
+            return readInt(digest, 0);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponivel: " + ex.getMessage(), ex);
+        }
+    }
+
+    public static int frameSize(int plaintextLength) {
+        return HEADER_SIZE + CryptoSession.encryptedSize(plaintextLength);
+    }
+
+    // Escreve tamanho, versao e keyId; o IV e o ciphertext ficam a cargo de quem cifra.
+    public static void writeHeader(byte[] frame, int offset, int plaintextLength, int keyId) {
+        writeInt(frame, offset, frameSize(plaintextLength) - 4);
+        frame[offset + 4] = (byte) VERSION;
+        writeInt(frame, offset + 5, keyId);
+    }
+
+    // Valida o cabecalho e retorna o tamanho do ciphertext (com tag), que comeca em offset + HEADER_SIZE.
+    public static int checkFrame(byte[] frame, int offset, int length, int expectedKeyId) {
+        if (length < HEADER_SIZE + CryptoSession.TAG_SIZE || readInt(frame, offset) != length - 4) {
+            throw new IllegalArgumentException("Frame binario invalido");
+        }
+        int version = frame[offset + 4] & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versao de frame nao suportada: " + version);
+        }
+        if (readInt(frame, offset + 5) != expectedKeyId) {
+            throw new IllegalArgumentException("Chave do frame desconhecida");
+        }
+        return length - HEADER_SIZE;
+    }
+
+    // Decifra o frame para um buffer do pool; o chamador fecha o buffer.
+    static PooledBuffer open(CryptoSession crypto, AeadSuite suite, byte[] frame, int offset, int length) {
+        int sealed = checkFrame(frame, offset, length, crypto.keyId());
+        PooledBuffer plain = BufferPool.heap().acquire(sealed);
+        try {
+            plain.length(crypto.decrypt(suite, frame, offset + IV_OFFSET, frame, offset + HEADER_SIZE, sealed, plain.array(), 0,
+                frame, offset, IV_OFFSET));
+            return plain;
+        } catch (RuntimeException ex) {
+            plain.close();
+            throw ex;
+        }
+    }
+
+    // Cifra plain[offset, offset+length) em um frame completo num buffer do pool; o chamador fecha o buffer.
+    static PooledBuffer seal(CryptoSession crypto, AeadSuite suite, byte[] plain, int offset, int length) {
+        PooledBuffer frame = BufferPool.heap().acquire(frameSize(length));
+        byte[] out = frame.array();
+        writeHeader(out, 0, length, crypto.keyId());
+        int sealed = crypto.encrypt(suite, plain, offset, length, out, IV_OFFSET, out, HEADER_SIZE, out, 0, IV_OFFSET);
+        frame.length(HEADER_SIZE + sealed);
+        return frame;
+    }
+
+    static int writeRequest(PropostaRequest request, byte[] out, int offset) {
+        int pos = writeUuid(out, offset, request.idCliente());
+        pos = writeMoney(out, pos, request.valorBruto());
+        out[pos++] = (byte) request.plano().ordinal();
+        return pos - offset;
+    }
+
+    static PropostaRequest readRequest(byte[] in, int offset, int length) {
+        if (length != REQUEST_SIZE) {
+            throw new IllegalArgumentException("Proposta binaria com tamanho invalido: " + length);
+        }
+        UUID idCliente = readUuid(in, offset);
+        BigDecimal valorBruto = readMoney(in, offset + 16);
+        int plano = in[offset + 16 + MONEY_SIZE] & 0xFF;
+        if (plano >= PLANOS.length) {
+            throw new IllegalArgumentException("Plano invalido: " + plano);
+        }
+        return new PropostaRequest(idCliente, valorBruto, PLANOS[plano]);
+    }
+
+    static int responseSize(PropostaResponse response) {
+        return 16 + MONEY_SIZE * 2 + 1 + statusBytes(response.status()).length;
+    }
+
+    static int writeResponse(PropostaResponse response, byte[] out, int offset) {
+        int pos = writeUuid(out, offset, response.idProposta());
+        pos = writeMoney(out, pos, response.valorLiquido());
+        pos = writeMoney(out, pos, response.taxaAplicada());
+        byte[] status = statusBytes(response.status());
+        out[pos++] = (byte) status.length;
+        System.arraycopy(status, 0, out, pos, status.length);
+        return pos + status.length - offset;
+    }
+
+    static PropostaResponse readResponse(byte[] in, int offset, int length) {
+        int fixed = 16 + MONEY_SIZE * 2 + 1;
+        if (length < fixed || length != fixed + (in[offset + fixed - 1] & 0xFF)) {
+            throw new IllegalArgumentException("Resposta binaria com tamanho invalido: " + length);
+        }
+        UUID idProposta = readUuid(in, offset);
+        BigDecimal valorLiquido = readMoney(in, offset + 16);
+        BigDecimal taxaAplicada = readMoney(in, offset + 16 + MONEY_SIZE);
+        String status = new String(in, offset + fixed, length - fixed, StandardCharsets.UTF_8);
+        return new PropostaResponse(idProposta, valorLiquido, taxaAplicada, status);
+    }
+
+    private static byte[] statusBytes(String status) {
+        byte[] bytes = (status == null ? "" : status).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STATUS_LENGTH) {
+            throw new IllegalArgumentException("Status longo demais para o formato binario");
+        }
+        return bytes;
+    }
+
+    private static int writeUuid(byte[] out, int offset, UUID value) {
+        writeLong(out, offset, value.getMostSignificantBits());
+        writeLong(out, offset + 8, value.getLeastSignificantBits());
+        return offset + 16;
+    }
+
+    private static UUID readUuid(byte[] in, int offset) {
+        return new UUID(readLong(in, offset), readLong(in, offset + 8));
+    }
+
+    // Valor monetario = escala (i8) + valor sem escala (i64).
+    private static int writeMoney(byte[] out, int offset, BigDecimal value) {
+        int scale = value.scale();
+        BigInteger unscaled = value.unscaledValue();
+        if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE || unscaled.bitLength() > 63) {
+            throw new IllegalArgumentException("Valor fora do intervalo do formato binario: " + value.toPlainString());
+        }
+        out[offset] = (byte) scale;
+        writeLong(out, offset + 1, unscaled.longValue());
+        return offset + MONEY_SIZE;
+    }
+
+    private static BigDecimal readMoney(byte[] in, int offset) {
+        return BigDecimal.valueOf(readLong(in, offset + 1), in[offset]);
+    }
+
+    private static void writeInt(byte[] out, int offset, int value) {
+        out[offset] = (byte) (value >>> 24);
+        out[offset + 1] = (byte) (value >>> 16);
+        out[offset + 2] = (byte) (value >>> 8);
+        out[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] in, int offset) {
+        return (in[offset] & 0xFF) << 24 | (in[offset + 1] & 0xFF) << 16
+            | (in[offset + 2] & 0xFF) << 8 | in[offset + 3] & 0xFF;
+    }
+
+    private static void writeLong(byte[] out, int offset, long value) {
+        writeInt(out, offset, (int) (value >>> 32));
+        writeInt(out, offset + 4, (int) value);
+    }
+
+    private static long readLong(byte[] in, int offset) {
+        return (long) readInt(in, offset) << 32 | readInt(in, offset + 4) & 0xFFFFFFFFL;
+    }
+}
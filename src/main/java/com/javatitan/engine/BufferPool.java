@@ -0,0 +1,96 @@
+package com.javatitan.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class BufferPool {
+    private static final BufferPool HEAP = new BufferPool("heap", false, 512, 256 * 1024, 64);
+    private static final BufferPool DIRECT = new BufferPool("direct", true, 4 * 1024, 256 * 1024, 64);
+
+    private final String name;
+    private final boolean direct;
+    private final int minClassBytes;
+    private final int maxClassBytes;
+    // So os ByteBuffer livres; o handle (PooledBuffer) e de cada acquire.
+    private final List<ArrayBlockingQueue<ByteBuffer>> classes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder oversize = new LongAdder();
+    private final AtomicLong outstanding = new AtomicLong();
+
+    BufferPool(String name, boolean direct, int minClassBytes, int maxClassBytes, int maxPerClass) {
+        if (Integer.bitCount(minClassBytes) != 1 || Integer.bitCount(maxClassBytes) != 1 || minClassBytes > maxClassBytes) {
+            throw new IllegalArgumentException("Classes de buffer devem ser potencias de 2");
+        }
+        this.name = name;
+        this.direct = direct;
+        this.minClassBytes = minClassBytes;
+        this.maxClassBytes = maxClassBytes;
+        int count = Integer.numberOfTrailingZeros(maxClassBytes) - Integer.numberOfTrailingZeros(minClassBytes) + 1;
+        List<ArrayBlockingQueue<ByteBuffer>> queues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            queues.add(new ArrayBlockingQueue<>(maxPerClass));
+        }
+        this.classes = List.copyOf(queues);
+    }
+
+    public static BufferPool heap() {
+        return HEAP;
+    }
+
+    public static BufferPool direct() {
+        return DIRECT;
+    }
+
+    public PooledBuffer acquire(int minCapacity) {
+        outstanding.incrementAndGet();
+        if (minCapacity > maxClassBytes) {
+            oversize.increment();
+            misses.increment();
+            return new PooledBuffer(this, allocate(minCapacity), -1);
+        }
+        int index = classIndex(minCapacity);
+        ByteBuffer buffer = classes.get(index).poll();
+        if (buffer != null) {
+            hits.increment();
+            buffer.clear();
+            return new PooledBuffer(this, buffer, index);
+        }
+        misses.increment();
+        return new PooledBuffer(this, allocate(minClassBytes << index), index);
+    }
+
+    void release(ByteBuffer buffer, int sizeClass) {
+        outstanding.decrementAndGet();
+        if (sizeClass >= 0) {
+            classes.get(sizeClass).offer(buffer);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long pooled = 0;
+        long pooledBytes = 0;
+        for (int i = 0; i < classes.size(); i++) {
+            int size = classes.get(i).size();
+            pooled += size;
+            pooledBytes += (long) size * (minClassBytes << i);
+        }
+        return new Snapshot(name, direct, hits.sum(), misses.sum(), oversize.sum(), outstanding.get(), pooled, pooledBytes);
+    }
+
+    private int classIndex(int capacity) {
+        int rounded = Math.max(minClassBytes, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        return Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(minClassBytes);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    public record Snapshot(String name, boolean direct, long hits, long misses, long oversize,
+                           long outstanding, long pooled, long pooledBytes) {}
+}
@@ -0,0 +1,324 @@
+package com.javatitan.engine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Rate limit aproximadamente global entre nos, sem store externo: a cada JAVATITAN_CLUSTER_GOSSIP_MS cada no envia
+// por UDP aos peers o consumo que aceitou localmente (deltas por camada e chave) e soma o que recebe dos outros.
+// Erro: cada no so enxerga o consumo alheio com atraso de uma rodada, entao o excesso por chave fica limitado a
+// ~ limite/min * (gossipMs + latencia) * (nos - 1), mais o que se perder em pacotes descartados.
+public final class ClusterGossip implements AutoCloseable {
+    private static final int MAGIC = 0x4A544753;
+    private static final byte VERSION = 1;
+    // Cabe num unico datagrama sem fragmentar em MTU 1500.
+    private static final int MAX_PACKET = 1200;
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 2;
+    private static final int MAC_SIZE = 16;
+    private static final int MAX_KEY_BYTES = 512;
+    private static final int MAX_KNOWN_NODES = 1024;
+    // Cada reinicio gera nodeId novo: remetente calado por mais que isso (ou o mais antigo, com a tabela cheia) sai.
+    private static final long SENDER_IDLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long MAX_DELTA = 1_000_000L;
+    private static final TieredRateLimiter.Layer[] LAYERS = TieredRateLimiter.Layer.values();
+
+    private final TieredRateLimiter limiter;
+    private final List<Peer> peers;
+    private final long intervalMs;
+    private final String bind;
+    private final SecretKeySpec key;
+    private final long nodeId = new SecureRandom().nextLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Sender> senders = new ConcurrentHashMap<>();
+    private final DatagramChannel channel;
+    private final ScheduledExecutorService sender;
+    private final Thread receiver;
+    private final LongAdder packetsSent = new LongAdder();
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder packetsRejected = new LongAdder();
+    private final LongAdder deltasSent = new LongAdder();
+    private final LongAdder deltasApplied = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    // Usados so pela thread de envio.
+    private final ByteBuffer out = ByteBuffer.allocate(MAX_PACKET);
+    private Mac sendMac;
+    private int entries;
+
+    private ClusterGossip(AppConfig config, TieredRateLimiter limiter) throws IOException {
+        this.limiter = limiter;
+        this.intervalMs = config.clusterGossipMs();
+        this.bind = config.clusterBind() + ":" + config.clusterPort();
+        if (config.clusterSecret() == null) {
+            throw new IllegalStateException("Gossip do cluster exige JAVATITAN_CLUSTER_SECRET");
+        }
+        this.key = new SecretKeySpec(config.clusterSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        List<Peer> parsed = new ArrayList<>();
+        for (String peer : config.clusterPeers()) {
+            int colon = peer.lastIndexOf(':');
+            parsed.add(new Peer(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+        }
+        this.peers = List.copyOf(parsed);
+        this.channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(config.clusterBind(), config.clusterPort()));
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-gossip-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.receiver = new Thread(this::receiveLoop, "cluster-gossip-recv");
+        receiver.setDaemon(true);
+    }
+
+    public static ClusterGossip start(AppConfig config, TieredRateLimiter limiter) throws IOException {
+        ClusterGossip gossip = new ClusterGossip(config, limiter);
+        limiter.enableCluster();
+        gossip.receiver.start();
+        gossip.sender.scheduleWithFixedDelay(gossip::flush, gossip.intervalMs, gossip.intervalMs, TimeUnit.MILLISECONDS);
+        LoggerSaaS.log("INFO", "[CLUSTER] Gossip UDP em " + gossip.bind + " com " + gossip.peers.size() + " peer(s) e HMAC.");
+        return gossip;
+    }
+
+    private void flush() {
+        try {
+            beginPacket();
+            limiter.drainDeltas(this::append);
+            if (entries > 0) {
+                sendPacket();
+            }
+        } catch (RuntimeException ex) {
+            LoggerSaaS.log("WARN", "[CLUSTER] Falha no envio do gossip: " + ex.getMessage());
+        }
+    }
+
+    private void append(TieredRateLimiter.Layer layer, int plan, String key, long count) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            return;
+        }
+        int size = 1 + 1 + 2 + keyBytes.length + 4;
+        if (out.position() + size > MAX_PACKET - MAC_SIZE) {
+            sendPacket();
+            beginPacket();
+        }
+        out.put((byte) layer.ordinal())
+            .put((byte) plan)
+            .putShort((short) keyBytes.length)
+            .put(keyBytes)
+            .putInt((int) Math.min(count, MAX_DELTA));
+        entries++;
+        deltasSent.increment();
+    }
+
+    private void beginPacket() {
+        out.clear();
+        out.putInt(MAGIC).put(VERSION).putLong(nodeId).putLong(sequence.incrementAndGet()).putShort((short) 0);
+        entries = 0;
+    }
+
+    private void sendPacket() {
+        out.putShort(HEADER_SIZE - 2, (short) entries);
+        out.put(sign(senderMac(), out.array(), out.position()), 0, MAC_SIZE);
+        out.flip();
+        for (Peer peer : peers) {
+            try {
+                channel.send(out.duplicate(), peer.address());
+                packetsSent.increment();
+            } catch (IOException | UnresolvedAddressException ex) {
+                sendFailures.increment();
+            }
+        }
+    }
+
+    private Mac senderMac() {
+        if (sendMac == null) {
+            sendMac = newMac();
+        }
+        return sendMac;
+    }
+
+    private void receiveLoop() {
+        ByteBuffer in = ByteBuffer.allocate(MAX_PACKET);
+        Mac mac = newMac();
+        while (channel.isOpen()) {
+            in.clear();
+            try {
+                SocketAddress from = channel.receive(in);
+                if (from == null) {
+                    continue;
+                }
+            } catch (ClosedChannelException ex) {
+                return;
+            } catch (IOException ex) {
+                LoggerSaaS.log("WARN", "[CLUSTER] Falha na leitura do gossip: " + ex.getMessage());
+                continue;
+            }
+            in.flip();
+            packetsReceived.increment();
+            if (!apply(in, mac)) {
+                packetsRejected.increment();
+            }
+        }
+    }
+
+    // Cabecalho, HMAC e sequencia sao conferidos antes de aplicar qualquer delta.
+    private boolean apply(ByteBuffer in, Mac mac) {
+        int length = in.remaining();
+        int bodyLength = length - MAC_SIZE;
+        if (bodyLength < HEADER_SIZE || in.getInt() != MAGIC || in.get() != VERSION) {
+            return false;
+        }
+        if (!validMac(sign(mac, in.array(), bodyLength), in.array(), bodyLength)) {
+            return false;
+        }
+        long sender = in.getLong();
+        long seq = in.getLong();
+        int count = in.getShort() & 0xFFFF;
+        if (sender == nodeId || !fresh(sender, seq)) {
+            return false;
+        }
+        in.limit(bodyLength);
+        for (int i = 0; i < count; i++) {
+            if (in.remaining() < 4) {
+                return false;
+            }
+            int layer = in.get();
+            int plan = in.get();
+            int keyLength = in.getShort() & 0xFFFF;
+            if (layer < 0 || layer >= LAYERS.length || keyLength > MAX_KEY_BYTES || in.remaining() < keyLength + 4) {
+                return false;
+            }
+            String deltaKey = new String(in.array(), in.position(), keyLength, StandardCharsets.UTF_8);
+            in.position(in.position() + keyLength);
+            long delta = in.getInt();
+            if (delta > 0 && limiter.absorb(LAYERS[layer], plan, deltaKey, delta)) {
+                deltasApplied.increment();
+            }
+        }
+        return true;
+    }
+
+    // Descarta replay e pacote fora de ordem; cada no reinicia com nodeId novo.
+    private boolean fresh(long sender, long seq) {
+        long now = System.nanoTime();
+        Sender known = senders.get(sender);
+        if (known == null) {
+            if (senders.size() >= MAX_KNOWN_NODES) {
+                evict(now);
+            }
+            known = senders.computeIfAbsent(sender, id -> new Sender());
+        }
+        AtomicLong last = known.sequence;
+        long previous;
+        do {
+            previous = last.get();
+            if (seq <= previous) {
+                return false;
+            }
+        } while (!last.compareAndSet(previous, seq));
+        known.seenAt = now;
+        return true;
+    }
+
+    // So roda com a tabela cheia (uma thread de recepcao): tira os ociosos e, se nenhum estiver, o visto ha mais tempo.
+    private void evict(long now) {
+        Long oldest = null;
+        long oldestAt = now;
+        for (Map.Entry<Long, Sender> entry : senders.entrySet()) {
+            long seenAt = entry.getValue().seenAt;
+            if (now - seenAt > SENDER_IDLE_NANOS) {
+                senders.remove(entry.getKey());
+            } else if (oldest == null || seenAt - oldestAt < 0) {
+                oldest = entry.getKey();
+                oldestAt = seenAt;
+            }
+        }
+        if (senders.size() >= MAX_KNOWN_NODES && oldest != null) {
+            senders.remove(oldest);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 indisponivel: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static boolean validMac(byte[] expected, byte[] packet, int offset) {
+        int result = 0;
+        for (int i = 0; i < MAC_SIZE; i++) {
+            result |= expected[i] ^ packet[offset + i];
+        }
+        return result == 0;
+    }
+
+    private static byte[] sign(Mac mac, byte[] data, int length) {
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(Long.toHexString(nodeId), bind, peers.size(), intervalMs, packetsSent.sum(),
+            packetsReceived.sum(), packetsRejected.sum(), sendFailures.sum(), deltasSent.sum(), deltasApplied.sum());
+    }
+
+    @Override
+    public void close() {
+        sender.shutdown();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // encerrando
+        }
+    }
+
+    // Ultima sequencia aceita de um no e quando ele foi ouvido pela ultima vez.
+    private static final class Sender {
+        private final AtomicLong sequence = new AtomicLong();
+        private volatile long seenAt = System.nanoTime();
+    }
+
+    // Endereco resolvido de novo enquanto o DNS do peer nao responder.
+    private static final class Peer {
+        private final String host;
+        private final int port;
+        private InetSocketAddress address;
+
+        Peer(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        InetSocketAddress address() {
+            if (address == null || address.isUnresolved()) {
+                address = new InetSocketAddress(host, port);
+            }
+            return address;
+        }
+    }
+
+    public record Snapshot(String nodeId, String bind, int peers, long intervalMs, long packetsSent,
+                           long packetsReceived, long packetsRejected, long sendFailures, long deltasSent,
+                           long deltasApplied) {}
+}
@@ -0,0 +1,72 @@
+package com.javatitan.engine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contador com rotulos. labels() resolve uma combinacao de valores para um Counter e aloca a chave: chamar no boot
+// ou no primeiro uso da combinacao e guardar o handle. O caminho quente so incrementa o LongAdder do handle.
+public final class CounterFamily {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, Counter> children = new ConcurrentHashMap<>();
+
+    CounterFamily(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames.clone();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Counter labels(String... values) {
+        if (values.length != labelNames.length) {
+            throw new IllegalArgumentException(name + " espera " + labelNames.length + " rotulo(s), recebeu " + values.length);
+        }
+        return children.computeIfAbsent(List.of(values), this::create);
+    }
+
+    private Counter create(List<String> values) {
+        String[] pairs = new String[labelNames.length * 2];
+        for (int i = 0; i < labelNames.length; i++) {
+            pairs[i * 2] = labelNames[i];
+            pairs[i * 2 + 1] = values.get(i);
+        }
+        return new Counter(pairs);
+    }
+
+    void write(PrometheusWriter out) {
+        if (children.isEmpty()) {
+            return;
+        }
+        out.family(name, "counter", help);
+        for (Counter counter : children.values()) {
+            out.sample(name, counter.sum(), counter.labels);
+        }
+    }
+
+    public static final class Counter {
+        private final String[] labels;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String[] labels) {
+            this.labels = labels;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long sum() {
+            return value.sum();
+        }
+    }
+}
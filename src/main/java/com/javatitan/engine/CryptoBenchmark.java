@@ -0,0 +1,99 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+public class CryptoBenchmark {
+    private static final String RESPOSTA = "{\"idProposta\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorLiquido\":850.00,\"taxaAplicada\":150.00,\"status\":\"PROCESSADO_ASYNC\"}";
+    private static final String PROPOSTA = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = 200_000;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = BenchmarkSupport.parseInt("--iterations", arg.substring("--iterations=".length()));
+            } else if ("--help".equals(arg)) {
+                System.out.println("Uso: java -cp out com.javatitan.engine.CryptoBenchmark [--iterations=N]");
+                System.exit(0);
+            }
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        CryptoSession session = new CryptoSession(new CryptoConfig(true, key));
+        byte[] plain = RESPOSTA.getBytes(StandardCharsets.UTF_8);
+        byte[] iv = new byte[CryptoSession.IV_SIZE];
+        byte[] sealed = new byte[CryptoSession.encryptedSize(plain.length)];
+        CryptoUtils.EncryptedPayload payload = CryptoUtils.encrypt(RESPOSTA, key);
+        byte[] envelope = CryptoUtils.writePayload(CryptoUtils.encrypt(PROPOSTA, key)).getBytes(StandardCharsets.UTF_8);
+        int warmup = Math.max(10_000, iterations / 4);
+
+        System.out.println("cenario,iteracoes,nsPorOp,opsPorSeg,bytesPorOp");
+        print(BenchmarkSupport.measure("encrypt-legado", warmup, iterations, () -> Legado.encrypt(plain, key)));
+        print(BenchmarkSupport.measure("encrypt-session", warmup, iterations,
+            () -> session.encrypt(plain, 0, plain.length, iv, sealed, 0)));
+        print(BenchmarkSupport.measure("decrypt-legado", warmup, iterations, () -> CryptoUtils.decrypt(payload, key)));
+        print(BenchmarkSupport.measure("decrypt-session", warmup, iterations, () -> {
+            try (PooledBuffer buffer = session.decrypt(payload)) {
+                return buffer.length();
+            }
+        }));
+        print(BenchmarkSupport.measure("envelope-string", warmup, iterations, () -> {
+            String json = new String(envelope, StandardCharsets.UTF_8);
+            String plainJson = CryptoUtils.decrypt(CryptoUtils.readPayload(json), key);
+            return JsonBinders.propostaRequest(JsonCursor.of(plainJson));
+        }));
+        print(BenchmarkSupport.measure("envelope-bytes", warmup, iterations, () -> {
+            try (PooledBuffer buffer = session.open(session.defaultSuite(), envelope, 0, envelope.length)) {
+                return JsonBinders.propostaRequest(JsonCursor.of(buffer.array(), 0, buffer.length()));
+            }
+        }));
+
+        // Comparacao entre suites: resposta tipica (~130 B) e payload de 16 KB (lote grande).
+        byte[] grande = new byte[16 * 1024];
+        new SecureRandom().nextBytes(grande);
+        int grandeIterations = Math.max(1_000, iterations / 20);
+        for (AeadSuite suite : AeadSuite.values()) {
+            compararSuite(session, suite, "130B", plain, warmup, iterations);
+            compararSuite(session, suite, "16KB", grande, Math.max(1_000, grandeIterations / 4), grandeIterations);
+        }
+    }
+
+    private static void compararSuite(CryptoSession session, AeadSuite suite, String label, byte[] plain,
+                                      int warmup, int iterations) throws Exception {
+        byte[] iv = new byte[CryptoSession.IV_SIZE];
+        byte[] sealed = new byte[CryptoSession.encryptedSize(plain.length)];
+        byte[] opened = new byte[sealed.length];
+        print(BenchmarkSupport.measure(suite.id() + "-encrypt-" + label, warmup, iterations,
+            () -> session.encrypt(suite, plain, 0, plain.length, iv, 0, sealed, 0)));
+        // Dois envelopes alternados: o ChaCha20 do JDK recria o Cipher quando a mesma chave+nonce se repete.
+        byte[][] ivs = new byte[2][CryptoSession.IV_SIZE];
+        byte[][] envelopes = new byte[2][sealed.length];
+        int length = session.encrypt(suite, plain, 0, plain.length, ivs[0], 0, envelopes[0], 0);
+        session.encrypt(suite, plain, 0, plain.length, ivs[1], 0, envelopes[1], 0);
+        int[] next = new int[1];
+        print(BenchmarkSupport.measure(suite.id() + "-decrypt-" + label, warmup, iterations, () -> {
+            int i = next[0]++ & 1;
+            return session.decrypt(suite, ivs[i], 0, envelopes[i], 0, length, opened, 0);
+        }));
+    }
+
+    private static void print(BenchmarkSupport.Measurement measurement) {
+        System.out.println(measurement.csv());
+    }
+
+    // Copia do caminho anterior de CryptoUtils.encryptTo, mantida apenas para comparacao.
+    private static final class Legado {
+        static byte[] encrypt(byte[] plain, byte[] key) throws Exception {
+            byte[] iv = new byte[12];
+            new SecureRandom().nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(128, iv));
+            return cipher.doFinal(plain);
+        }
+    }
+}
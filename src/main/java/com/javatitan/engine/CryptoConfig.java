@@ -1,8 +1,15 @@
 package com.javatitan.engine;
 
 import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public record CryptoConfig(boolean secureMode, byte[] aesKey, Set<AeadSuite> suites) {
+    public CryptoConfig(boolean secureMode, byte[] aesKey) {
+        this(secureMode, aesKey, Collections.unmodifiableSet(EnumSet.allOf(AeadSuite.class)));
+    }
 
-public record CryptoConfig(boolean secureMode, byte[] aesKey) {
     public static CryptoConfig fromEnv() {
         String keyBase64 = env("JAVATITAN_AES_KEY");
         boolean secureMode = envBool("JAVATITAN_SECURE_MODE", keyBase64 != null);
@@ -15,7 +22,28 @@ public record CryptoConfig(boolean secureMode, byte[] aesKey) {
         if (keyBase64 != null && !keyBase64.isBlank()) {
             key = decodeKey(keyBase64.trim());
         }
-        return new CryptoConfig(secureMode, key);
+        return new CryptoConfig(secureMode, key, envSuites("JAVATITAN_CRYPTO_SUITES", key));
+    }
+
+    // A suite da propria chave fica sempre liberada: e o que clientes sem negociacao usam.
+    private static Set<AeadSuite> envSuites(String name, byte[] key) {
+        String value = env(name);
+        if (value == null || value.isBlank()) {
+            return Collections.unmodifiableSet(EnumSet.allOf(AeadSuite.class));
+        }
+        EnumSet<AeadSuite> suites = EnumSet.noneOf(AeadSuite.class);
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                suites.add(AeadSuite.from(item));
+            }
+        }
+        if (key != null) {
+            AeadSuite padrao = AeadSuite.forAesKey(key.length);
+            if (!suites.contains(padrao)) {
+                throw new IllegalArgumentException(name + " deve incluir " + padrao.id() + " (suite da chave configurada)");
+            }
+        }
+        return Collections.unmodifiableSet(suites);
     }
 
     private static byte[] decodeKey(String value) {
@@ -0,0 +1,325 @@
+package com.javatitan.engine;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+public final class CryptoSession {
+    public static final int IV_SIZE = 12;
+    public static final int TAG_SIZE = 16;
+    private static final int IV_BLOCK = 4096;
+    private static final AeadSuite[] SUITES = AeadSuite.values();
+
+    private final boolean secureMode;
+    private final AeadSuite defaultSuite;
+    private final SecretKey[] keys = new SecretKey[SUITES.length];
+    private final SuiteStats[] stats = new SuiteStats[SUITES.length];
+    private final String allowedList;
+    private final int keyId;
+    private final int ivPrefix;
+    private final AtomicLong ivCounter;
+    private final ThreadLocal<State> local = ThreadLocal.withInitial(State::new);
+    private final ConcurrentLinkedQueue<State> pool = new ConcurrentLinkedQueue<>();
+
+    public CryptoSession(CryptoConfig config) {
+        this.secureMode = config != null && config.secureMode();
+        byte[] master = config == null ? null : config.aesKey();
+        this.defaultSuite = master == null ? AeadSuite.AES_256_GCM : AeadSuite.forAesKey(master.length);
+        this.keyId = master == null ? 0 : BinaryWire.keyId(master);
+        Set<AeadSuite> allowed = config == null ? Set.of() : config.suites();
+        List<String> ids = new ArrayList<>();
+        if (master != null) {
+            for (AeadSuite suite : SUITES) {
+                if (suite == defaultSuite || allowed.contains(suite)) {
+                    keys[suite.ordinal()] = new SecretKeySpec(suite.key(master), suite.keyAlgorithm());
+                    stats[suite.ordinal()] = new SuiteStats();
+                    ids.add(suite.id());
+                }
+            }
+        }
+        this.allowedList = String.join(", ", ids);
+        // IV = prefixo aleatorio de 32 bits + contador de 64 bits com inicio aleatorio:
+        // unico dentro da sessao e sem colisao pratica entre processos com a mesma chave.
+        SecureRandom random = new SecureRandom();
+        this.ivPrefix = random.nextInt();
+        this.ivCounter = new AtomicLong(random.nextLong());
+    }
+
+    public boolean secureMode() {
+        return secureMode;
+    }
+
+    public boolean hasKey() {
+        return keys[defaultSuite.ordinal()] != null;
+    }
+
+    public int keyId() {
+        return keyId;
+    }
+
+    public AeadSuite defaultSuite() {
+        return defaultSuite;
+    }
+
+    public static int encryptedSize(int plaintextLength) {
+        return plaintextLength + TAG_SIZE;
+    }
+
+    // Valor do header X-Payload-Cipher -> suite; ausente = suite da chave configurada.
+    public AeadSuite negotiate(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return defaultSuite;
+        }
+        AeadSuite suite = AeadSuite.from(requested);
+        if (keys[suite.ordinal()] == null) {
+            throw new IllegalArgumentException("Suite de cifra nao permitida: " + suite.id() + " (permitidas: " + allowedList + ")");
+        }
+        return suite;
+    }
+
+    // Cifra in[offset, offset+length) em out a partir de outOffset; o IV gerado vai para iv[0..12).
+    public int encrypt(byte[] in, int offset, int length, byte[] iv, byte[] out, int outOffset) {
+        return encrypt(defaultSuite, in, offset, length, iv, 0, out, outOffset);
+    }
+
+    public int encrypt(AeadSuite suite, byte[] in, int offset, int length, byte[] iv, int ivOffset, byte[] out, int outOffset) {
+        return encrypt(suite, in, offset, length, iv, ivOffset, out, outOffset, null, 0, 0);
+    }
+
+    // aad (pode ser null): bytes autenticados pela tag sem serem cifrados, como o cabecalho do frame binario.
+    public int encrypt(AeadSuite suite, byte[] in, int offset, int length, byte[] iv, int ivOffset, byte[] out, int outOffset,
+                       byte[] aad, int aadOffset, int aadLength) {
+        SecretKey key = key(suite);
+        SuiteStats suiteStats = stats[suite.ordinal()];
+        State state = acquire();
+        try {
+            state.nextIv(iv, ivOffset);
+            Cipher cipher = state.encryptor(suite);
+            cipher.init(Cipher.ENCRYPT_MODE, key, suite.parameters(iv, ivOffset));
+            if (aad != null) {
+                cipher.updateAAD(aad, aadOffset, aadLength);
+            }
+            int written = cipher.doFinal(in, offset, length, out, outOffset);
+            suiteStats.encrypted.increment();
+            suiteStats.bytes.add(length);
+            return written;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Falha ao criptografar payload: " + ex.getMessage(), ex);
+        } finally {
+            release(state);
+        }
+    }
+
+    public int decrypt(byte[] iv, byte[] in, int offset, int length, byte[] out, int outOffset) {
+        if (iv.length != IV_SIZE) {
+            throw new IllegalArgumentException("Payload criptografado invalido");
+        }
+        return decrypt(defaultSuite, iv, 0, in, offset, length, out, outOffset);
+    }
+
+    public int decrypt(AeadSuite suite, byte[] iv, int ivOffset, byte[] in, int offset, int length, byte[] out, int outOffset) {
+        return decrypt(suite, iv, ivOffset, in, offset, length, out, outOffset, null, 0, 0);
+    }
+
+    public int decrypt(AeadSuite suite, byte[] iv, int ivOffset, byte[] in, int offset, int length, byte[] out, int outOffset,
+                       byte[] aad, int aadOffset, int aadLength) {
+        if (iv.length - ivOffset < IV_SIZE || length < TAG_SIZE) {
+            throw new IllegalArgumentException("Payload criptografado invalido");
+        }
+        SecretKey key = key(suite);
+        SuiteStats suiteStats = stats[suite.ordinal()];
+        State state = acquire();
+        try {
+            Cipher cipher = state.initDecrypt(suite, key, iv, ivOffset);
+            if (aad != null) {
+                cipher.updateAAD(aad, aadOffset, aadLength);
+            }
+            int written = cipher.doFinal(in, offset, length, out, outOffset);
+            suiteStats.decrypted.increment();
+            suiteStats.bytes.add(written);
+            return written;
+        } catch (AEADBadTagException ex) {
+            suiteStats.failures.increment();
+            throw new IllegalStateException("Falha ao descriptografar payload: " + ex.getMessage(), ex);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Falha ao descriptografar payload: " + ex.getMessage(), ex);
+        } finally {
+            release(state);
+        }
+    }
+
+    // Abre o envelope {"iv","data"} direto dos bytes da requisicao: Base64 decodificado para um buffer do pool
+    // e decifrado no proprio buffer. Nenhuma String e criada; o chamador fecha o buffer.
+    public PooledBuffer open(AeadSuite suite, byte[] envelope, int offset, int length) {
+        JsonCursor cursor = JsonCursor.of(envelope, offset, length);
+        byte[] iv = new byte[IV_SIZE];
+        int ivLength = -1;
+        int dataLength = -1;
+        PooledBuffer buffer = BufferPool.heap().acquire(Math.max(TAG_SIZE, length / 4 * 3 + 3));
+        try {
+            cursor.beginObject();
+            while (cursor.nextField()) {
+                if (cursor.fieldIs("iv") && cursor.isString()) {
+                    ivLength = cursor.readBase64(iv, 0);
+                } else if (cursor.fieldIs("data") && cursor.isString()) {
+                    dataLength = cursor.readBase64(buffer.array(), 0);
+                } else {
+                    cursor.skipValue();
+                }
+            }
+            if (ivLength < 0 || dataLength < 0) {
+                throw new IllegalArgumentException("Campo obrigatorio: " + (ivLength < 0 ? "iv" : "data"));
+            }
+            if (ivLength != IV_SIZE) {
+                throw new IllegalArgumentException("Payload criptografado invalido");
+            }
+            buffer.length(decrypt(suite, iv, 0, buffer.array(), 0, dataLength, buffer.array(), 0));
+            return buffer;
+        } catch (RuntimeException ex) {
+            buffer.close();
+            throw ex;
+        }
+    }
+
+    // Decifra o envelope para um buffer do pool; o chamador fecha o buffer.
+    public PooledBuffer decrypt(CryptoUtils.EncryptedPayload payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload criptografado vazio");
+        }
+        byte[] iv;
+        byte[] data;
+        try {
+            iv = Base64.getDecoder().decode(payload.iv());
+            data = Base64.getDecoder().decode(payload.data());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Falha ao descriptografar payload: Base64 invalido", ex);
+        }
+        PooledBuffer plain = BufferPool.heap().acquire(Math.max(1, data.length));
+        try {
+            plain.length(decrypt(iv, data, 0, data.length, plain.array(), 0));
+            return plain;
+        } catch (RuntimeException ex) {
+            plain.close();
+            throw ex;
+        }
+    }
+
+    // Substitui o JSON em claro do writer pelo envelope {"iv","data"} cifrado.
+    public JsonWriter encryptTo(AeadSuite suite, JsonWriter json) {
+        byte[] iv = new byte[IV_SIZE];
+        try (PooledBuffer sealed = BufferPool.heap().acquire(encryptedSize(json.size()))) {
+            int length = encrypt(suite, json.buffer(), 0, json.size(), iv, 0, sealed.array(), 0);
+            return json.reset()
+                .beginObject()
+                .name("iv").base64Value(iv)
+                .name("data").base64Value(sealed.array(), 0, length)
+                .endObject();
+        }
+    }
+
+    public Snapshot snapshot() {
+        List<SuiteSnapshot> suites = new ArrayList<>();
+        for (AeadSuite suite : SUITES) {
+            SuiteStats suiteStats = stats[suite.ordinal()];
+            if (suiteStats != null) {
+                suites.add(new SuiteSnapshot(suite, suiteStats.encrypted.sum(), suiteStats.decrypted.sum(),
+                    suiteStats.failures.sum(), suiteStats.bytes.sum()));
+            }
+        }
+        return new Snapshot(defaultSuite, suites);
+    }
+
+    private SecretKey key(AeadSuite suite) {
+        SecretKey key = keys[suite.ordinal()];
+        if (key == null) {
+            throw new IllegalStateException(hasKey() ? "Suite de cifra nao permitida: " + suite.id() : "Criptografia nao configurada");
+        }
+        return key;
+    }
+
+    // Mesmo criterio do JsonWriter: ThreadLocal em threads de plataforma, pool em virtual threads.
+    private State acquire() {
+        if (!EngineExecutors.currentThreadVirtual()) {
+            return local.get();
+        }
+        State state = pool.poll();
+        return state != null ? state : new State();
+    }
+
+    private void release(State state) {
+        if (EngineExecutors.currentThreadVirtual()) {
+            pool.offer(state);
+        }
+    }
+
+    private static final class SuiteStats {
+        private final LongAdder encrypted = new LongAdder();
+        private final LongAdder decrypted = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    public record SuiteSnapshot(AeadSuite suite, long encrypted, long decrypted, long failures, long bytes) {}
+
+    public record Snapshot(AeadSuite defaultSuite, List<SuiteSnapshot> suites) {}
+
+    // Cipher criado sob demanda por suite: threads que so usam AES-GCM nunca instanciam ChaCha20.
+    private final class State {
+        private final Cipher[] encryptors = new Cipher[SUITES.length];
+        private final Cipher[] decryptors = new Cipher[SUITES.length];
+        private long next;
+        private long end;
+
+        private Cipher encryptor(AeadSuite suite) throws GeneralSecurityException {
+            Cipher cipher = encryptors[suite.ordinal()];
+            if (cipher == null) {
+                cipher = Cipher.getInstance(suite.transformation());
+                encryptors[suite.ordinal()] = cipher;
+            }
+            return cipher;
+        }
+
+        private Cipher initDecrypt(AeadSuite suite, SecretKey key, byte[] iv, int ivOffset) throws GeneralSecurityException {
+            Cipher cipher = decryptors[suite.ordinal()];
+            if (cipher != null) {
+                try {
+                    cipher.init(Cipher.DECRYPT_MODE, key, suite.parameters(iv, ivOffset));
+                    return cipher;
+                } catch (InvalidKeyException ex) {
+                    // O ChaCha20 do JDK recusa reinit com a mesma chave+nonce ate para decifrar (ex.: retry identico).
+                }
+            }
+            cipher = Cipher.getInstance(suite.transformation());
+            cipher.init(Cipher.DECRYPT_MODE, key, suite.parameters(iv, ivOffset));
+            decryptors[suite.ordinal()] = cipher;
+            return cipher;
+        }
+
+        // Cada estado reserva blocos de contador, entao o AtomicLong e tocado uma vez a cada IV_BLOCK IVs.
+        private void nextIv(byte[] iv, int offset) {
+            if (next == end) {
+                next = ivCounter.getAndAdd(IV_BLOCK);
+                end = next + IV_BLOCK;
+            }
+            long counter = next++;
+            iv[offset] = (byte) (ivPrefix >>> 24);
+            iv[offset + 1] = (byte) (ivPrefix >>> 16);
+            iv[offset + 2] = (byte) (ivPrefix >>> 8);
+            iv[offset + 3] = (byte) ivPrefix;
+            for (int i = 0; i < 8; i++) {
+                iv[offset + 4 + i] = (byte) (counter >>> (56 - 8 * i));
+            }
+        }
+    }
+}
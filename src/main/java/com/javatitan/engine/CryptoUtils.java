@@ -4,16 +4,19 @@ import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.Base64;
 import javax.crypto.Cipher;
-import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 public final class CryptoUtils {
     private static final int IV_SIZE = 12;
-    private static final int TAG_BITS = 128;
 
     private CryptoUtils() {}
 
     public static EncryptedPayload encrypt(String plaintext, byte[] key) {
+        return encrypt(plaintext, key, AeadSuite.forAesKey(key.length));
+    }
+
+    // Com suite diferente da padrao, o servidor espera o header X-Payload-Cipher com suite.id().
+    public static EncryptedPayload encrypt(String plaintext, byte[] key, AeadSuite suite) {
         if (plaintext == null) {
             throw new IllegalArgumentException("Payload vazio");
         }
@@ -21,9 +24,9 @@ public final class CryptoUtils {
             byte[] iv = new byte[IV_SIZE];
             new SecureRandom().nextBytes(iv);
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            SecretKeySpec keySpec = new SecretKeySpec(key, "AES");
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(TAG_BITS, iv));
+            Cipher cipher = Cipher.getInstance(suite.transformation());
+            SecretKeySpec keySpec = new SecretKeySpec(suite.key(key), suite.keyAlgorithm());
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, suite.parameters(iv, 0));
 
             byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
             return new EncryptedPayload(base64(iv), base64(encrypted));
@@ -33,16 +36,23 @@ public final class CryptoUtils {
     }
 
     public static String decrypt(EncryptedPayload payload, byte[] key) {
+        return decrypt(payload, key, AeadSuite.forAesKey(key.length));
+    }
+
+    public static String decrypt(EncryptedPayload payload, byte[] key, AeadSuite suite) {
         if (payload == null) {
             throw new IllegalArgumentException("Payload criptografado vazio");
         }
         try {
             byte[] iv = Base64.getDecoder().decode(payload.iv());
             byte[] data = Base64.getDecoder().decode(payload.data());
+            if (iv.length != IV_SIZE) {
+                throw new IllegalArgumentException("IV invalido: " + iv.length + " bytes");
+            }
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            SecretKeySpec keySpec = new SecretKeySpec(key, "AES");
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(TAG_BITS, iv));
+            Cipher cipher = Cipher.getInstance(suite.transformation());
+            SecretKeySpec keySpec = new SecretKeySpec(suite.key(key), suite.keyAlgorithm());
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, suite.parameters(iv, 0));
 
             byte[] decrypted = cipher.doFinal(data);
             return new String(decrypted, StandardCharsets.UTF_8);
@@ -51,10 +61,54 @@ public final class CryptoUtils {
         }
     }
 
+    // Frame binario (application/vnd.javatitan+binary) com o layout de BinaryWire.
+    public static byte[] encryptFrame(byte[] plaintext, byte[] key) {
+        return encryptFrame(plaintext, key, AeadSuite.forAesKey(key.length));
+    }
+
+    public static byte[] encryptFrame(byte[] plaintext, byte[] key, AeadSuite suite) {
+        if (plaintext == null) {
+            throw new IllegalArgumentException("Payload vazio");
+        }
+        try {
+            byte[] frame = new byte[BinaryWire.frameSize(plaintext.length)];
+            BinaryWire.writeHeader(frame, 0, plaintext.length, BinaryWire.keyId(key));
+            byte[] iv = new byte[IV_SIZE];
+            new SecureRandom().nextBytes(iv);
+            System.arraycopy(iv, 0, frame, BinaryWire.IV_OFFSET, IV_SIZE);
+
+            Cipher cipher = Cipher.getInstance(suite.transformation());
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(suite.key(key), suite.keyAlgorithm()), suite.parameters(iv, 0));
+            cipher.updateAAD(frame, 0, BinaryWire.IV_OFFSET);
+            cipher.doFinal(plaintext, 0, plaintext.length, frame, BinaryWire.HEADER_SIZE);
+            return frame;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Falha ao criptografar payload: " + ex.getMessage(), ex);
+        }
+    }
+
+    public static byte[] decryptFrame(byte[] frame, byte[] key) {
+        return decryptFrame(frame, key, AeadSuite.forAesKey(key.length));
+    }
+
+    public static byte[] decryptFrame(byte[] frame, byte[] key, AeadSuite suite) {
+        if (frame == null) {
+            throw new IllegalArgumentException("Payload criptografado vazio");
+        }
+        int sealed = BinaryWire.checkFrame(frame, 0, frame.length, BinaryWire.keyId(key));
+        try {
+            Cipher cipher = Cipher.getInstance(suite.transformation());
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(suite.key(key), suite.keyAlgorithm()),
+                suite.parameters(frame, BinaryWire.IV_OFFSET));
+            cipher.updateAAD(frame, 0, BinaryWire.IV_OFFSET);
+            return cipher.doFinal(frame, BinaryWire.HEADER_SIZE, sealed);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Falha ao descriptografar payload: " + ex.getMessage(), ex);
+        }
+    }
+
     public static EncryptedPayload readPayload(String json) {
-        String iv = JsonUtils.readRequiredString(json, "iv");
-        String data = JsonUtils.readRequiredString(json, "data");
-        return new EncryptedPayload(iv, data);
+        return JsonBinders.encryptedPayload(JsonCursor.of(json));
     }
 
     public static String writePayload(EncryptedPayload payload) {
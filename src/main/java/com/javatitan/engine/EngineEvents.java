@@ -0,0 +1,187 @@
+package com.javatitan.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Eventos JFR do motor, para cruzar GC, locks e CPU com o que as requisicoes estavam fazendo. Os de duracao usam
+// begin()/commit() do proprio JFR (inicio e fim da requisicao, da etapa, da verificacao JWT, da gravacao).
+// Sem gravacao ativa as fabricas devolvem null depois de ler uma flag do EventType: nada e alocado.
+public final class EngineEvents {
+    private static final EventType REQUEST = EventType.getEventType(Request.class);
+    private static final EventType STAGE = EventType.getEventType(Stage.class);
+    private static final EventType JWT = EventType.getEventType(JwtVerification.class);
+    private static final EventType REPOSITORY = EventType.getEventType(RepositoryWrite.class);
+    private static final EventType RATE_LIMIT = EventType.getEventType(RateLimitRejected.class);
+
+    private EngineEvents() {}
+
+    static Request request(String endpoint, String requestId) {
+        if (!REQUEST.isEnabled()) {
+            return null;
+        }
+        Request event = new Request();
+        event.endpoint = endpoint;
+        event.requestId = requestId;
+        event.begin();
+        return event;
+    }
+
+    static Stage stage(String stage) {
+        if (!STAGE.isEnabled()) {
+            return null;
+        }
+        Stage event = new Stage();
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    static JwtVerification jwt(String requestId) {
+        if (!JWT.isEnabled()) {
+            return null;
+        }
+        JwtVerification event = new JwtVerification();
+        event.requestId = requestId;
+        event.begin();
+        return event;
+    }
+
+    static RepositoryWrite repository(String requestId, Plano plano, int items) {
+        if (!REPOSITORY.isEnabled()) {
+            return null;
+        }
+        RepositoryWrite event = new RepositoryWrite();
+        event.requestId = requestId;
+        event.plan = plan(plano);
+        event.items = items;
+        event.begin();
+        return event;
+    }
+
+    static void rateLimited(String endpoint, String requestId, Plano plano, String tenant, String layer) {
+        if (!RATE_LIMIT.isEnabled()) {
+            return;
+        }
+        RateLimitRejected event = new RateLimitRejected();
+        event.endpoint = endpoint;
+        event.requestId = requestId;
+        event.plan = plan(plano);
+        event.tenant = tenant;
+        event.layer = layer;
+        event.commit();
+    }
+
+    static String plan(Plano plano) {
+        return plano == null ? null : plano.name();
+    }
+
+    @Name("javatitan.Request")
+    @Label("Request")
+    @Category("JavaTitan")
+    @Description("Requisicao de calculo, do handle() ate a resposta")
+    @StackTrace(false)
+    public static final class Request extends Event {
+        @Label("Endpoint")
+        String endpoint;
+        @Label("Request Id")
+        String requestId;
+        @Label("Plan")
+        String plan;
+        @Label("Status")
+        int status;
+
+        void end(int httpStatus, Plano plano) {
+            status = httpStatus;
+            plan = plan(plano);
+            commit();
+        }
+    }
+
+    @Name("javatitan.Stage")
+    @Label("Pipeline Stage")
+    @Category("JavaTitan")
+    @Description("Uma etapa do RequestPipeline, incluindo a espera na fila do executor dela")
+    @StackTrace(false)
+    public static final class Stage extends Event {
+        @Label("Endpoint")
+        String endpoint;
+        @Label("Request Id")
+        String requestId;
+        @Label("Plan")
+        String plan;
+        @Label("Stage")
+        String stage;
+        @Label("Outcome")
+        String outcome;
+
+        void end(String endpointPath, String id, String planName, String stageOutcome) {
+            endpoint = endpointPath;
+            requestId = id;
+            plan = planName;
+            outcome = stageOutcome;
+            commit();
+        }
+    }
+
+    @Name("javatitan.JwtVerification")
+    @Label("JWT Verification")
+    @Category("JavaTitan")
+    @StackTrace(false)
+    public static final class JwtVerification extends Event {
+        @Label("Request Id")
+        String requestId;
+        @Label("Plan")
+        String plan;
+        @Label("Valid")
+        boolean valid;
+
+        void end(Plano plano) {
+            plan = plan(plano);
+            valid = plano != null;
+            commit();
+        }
+    }
+
+    @Name("javatitan.RepositoryWrite")
+    @Label("Repository Write")
+    @Category("JavaTitan")
+    @Description("salvar ou salvarLote no OrcamentoRepository")
+    @StackTrace(false)
+    public static final class RepositoryWrite extends Event {
+        @Label("Request Id")
+        String requestId;
+        @Label("Plan")
+        String plan;
+        @Label("Items")
+        int items;
+        @Label("Success")
+        boolean success;
+
+        void end(boolean ok) {
+            success = ok;
+            commit();
+        }
+    }
+
+    @Name("javatitan.RateLimitRejected")
+    @Label("Rate Limit Rejected")
+    @Category("JavaTitan")
+    @StackTrace(false)
+    public static final class RateLimitRejected extends Event {
+        @Label("Endpoint")
+        String endpoint;
+        @Label("Request Id")
+        String requestId;
+        @Label("Plan")
+        String plan;
+        @Label("Tenant")
+        String tenant;
+        @Label("Layer")
+        String layer;
+    }
+}
@@ -0,0 +1,98 @@
+package com.javatitan.engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class EngineExecutors {
+    public static final String MODE_FIXED = "fixed";
+    public static final String MODE_VIRTUAL = "virtual";
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private EngineExecutors() {}
+
+    public static InstrumentedExecutor http(AppConfig config) {
+        return create("http", config.httpThreads(), 0, config.virtualThreads());
+    }
+
+    public static InstrumentedExecutor worker(AppConfig config) {
+        return create("worker", config.workerThreads(), config.workerQueueCapacity(), config.virtualThreads());
+    }
+
+    // Executor opcional para decifrar/cifrar fora da thread HTTP; null quando JAVATITAN_CRYPTO_THREADS=0.
+    public static InstrumentedExecutor crypto(AppConfig config) {
+        if (config.cryptoThreads() <= 0) {
+            return null;
+        }
+        return create("crypto", config.cryptoThreads(), 0, config.virtualThreads());
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public static boolean currentThreadVirtual() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable ex) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        if (!virtualThreadsSupported()) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    // queueCapacity <= 0 mantem a fila sem limite; com limite, o excesso gera RejectedExecutionException.
+    private static InstrumentedExecutor create(String name, int threads, int queueCapacity, boolean virtualThreads) {
+        if (virtualThreads) {
+            return new InstrumentedExecutor(name, MODE_VIRTUAL, virtualPerTask("javatitan-" + name + "-vt-"));
+        }
+        if (queueCapacity <= 0) {
+            return new InstrumentedExecutor(name, MODE_FIXED, Executors.newFixedThreadPool(threads, namedFactory("javatitan-" + name + "-")));
+        }
+        ExecutorService pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), namedFactory("javatitan-" + name + "-"));
+        return new InstrumentedExecutor(name, MODE_FIXED, pool);
+    }
+
+    private static ThreadFactory namedFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + counter.incrementAndGet());
+    }
+
+    // O projeto compila em JDK 17; a API de virtual threads (JDK 21) e resolvida em runtime.
+    private static ExecutorService virtualPerTask(String prefix) {
+        if (!virtualThreadsSupported()) {
+            throw new IllegalStateException("Virtual threads exigem JDK 21+");
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Falha ao criar executor de virtual threads: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.javatitan.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FixedWindowLimiter implements RequestLimiter {
+    private final int maxPerWindow;
+    private final long windowMs;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public FixedWindowLimiter(int maxPerWindow, long windowMs) {
+        this.maxPerWindow = maxPerWindow;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public boolean enabled() {
+        return maxPerWindow > 0;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        if (!enabled()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        boolean allowed;
+        synchronized (window) {
+            if (now - window.windowStart >= windowMs) {
+                window.windowStart = now;
+                window.count = 0;
+            }
+            allowed = window.count < maxPerWindow;
+            if (allowed) {
+                window.count++;
+            }
+        }
+        if (!allowed && now - window.windowStart > windowMs * 2 && windows.remove(key, window)) {
+            evicted.increment();
+        }
+        (allowed ? allowedCount : rejectedCount).increment();
+        return allowed;
+    }
+
+    @Override
+    public void refund(String key) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return;
+        }
+        synchronized (window) {
+            if (window.count > 0) {
+                window.count--;
+            }
+        }
+        allowedCount.decrement();
+    }
+
+    @Override
+    public void absorb(String key, long count) {
+        if (!enabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        synchronized (window) {
+            if (now - window.windowStart >= windowMs) {
+                window.windowStart = now;
+                window.count = 0;
+            }
+            // A janela nunca passa de cheia: o bloqueio dura no maximo ate o fim dela.
+            window.count = (int) Math.min(maxPerWindow, window.count + count);
+        }
+    }
+
+    // Sem limite de chaves: entradas so saem pelo caminho de recusa.
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(AppConfig.RATE_LIMIT_FIXED, windows.size(), 0, allowedCount.sum(), rejectedCount.sum(), evicted.sum(), 0L);
+    }
+
+    private static class Window {
+        private long windowStart;
+        private int count;
+
+        Window(long windowStart) {
+            this.windowStart = windowStart;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.javatitan.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+// Uma gravacao JFR por vez, controlada por /admin/jfr. Usa as configuracoes do JDK ("default", ~1% de overhead, ou
+// "profile") e liga os eventos de EngineEvents sem limiar de duracao. Cada dump vira um arquivo novo em
+// JAVATITAN_JFR_DIR; sem gravacao ativa os eventos do motor ficam desligados e as fabricas devolvem null.
+public final class FlightRecorderControl implements AutoCloseable {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final Class<?>[] ENGINE_EVENTS = {
+        EngineEvents.Request.class, EngineEvents.Stage.class, EngineEvents.JwtVerification.class,
+        EngineEvents.RepositoryWrite.class, EngineEvents.RateLimitRejected.class
+    };
+
+    private final Path dir;
+    private Recording recording;
+    private String settings;
+    private Path lastDump;
+
+    public FlightRecorderControl(Path dir) {
+        this.dir = dir;
+    }
+
+    public static FlightRecorderControl create(AppConfig config) {
+        return new FlightRecorderControl(Path.of(config.jfrDir()));
+    }
+
+    // maxAgeSeconds > 0 limita o buffer em disco do JFR; 0 guarda tudo ate o stop.
+    public synchronized Status start(String settingsName, long maxAgeSeconds) throws IOException {
+        if (recording != null) {
+            throw new IllegalStateException("Gravacao JFR ja ativa");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (ParseException ex) {
+            throw new IOException("Configuracao JFR invalida: " + settingsName, ex);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Configuracao JFR desconhecida: " + settingsName);
+        }
+        Recording started = new Recording(configuration);
+        started.setName("javatitan");
+        started.setToDisk(true);
+        if (maxAgeSeconds > 0) {
+            started.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+        }
+        for (Class<?> event : ENGINE_EVENTS) {
+            started.enable(event.getName()).withoutThreshold();
+        }
+        started.start();
+        recording = started;
+        settings = settingsName;
+        LoggerSaaS.log("INFO", "Gravacao JFR iniciada (" + settingsName + ")");
+        return status();
+    }
+
+    // Copia o que foi gravado ate agora sem parar a gravacao.
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Nenhuma gravacao JFR ativa");
+        }
+        return dumpTo(recording);
+    }
+
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Nenhuma gravacao JFR ativa");
+        }
+        Recording stopping = recording;
+        recording = null;
+        settings = null;
+        try {
+            stopping.stop();
+            return dumpTo(stopping);
+        } finally {
+            stopping.close();
+        }
+    }
+
+    private Path dumpTo(Recording source) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve("javatitan-" + FILE_TIME.format(Instant.now()) + ".jfr");
+        source.dump(file);
+        lastDump = file.toAbsolutePath();
+        LoggerSaaS.log("INFO", "Gravacao JFR salva em " + lastDump);
+        return lastDump;
+    }
+
+    public synchronized Status status() {
+        Recording current = recording;
+        boolean active = current != null && current.getState() == RecordingState.RUNNING;
+        return new Status(active, settings, active ? current.getStartTime() : null, active ? current.getSize() : 0L,
+            lastDump == null ? null : lastDump.toString());
+    }
+
+    // No shutdown nao perde a gravacao em andamento.
+    @Override
+    public synchronized void close() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            stop();
+        } catch (IOException | RuntimeException ex) {
+            LoggerSaaS.log("ERROR", "Falha ao salvar gravacao JFR: " + ex.getMessage());
+        }
+    }
+
+    public record Status(boolean active, String settings, Instant startedAt, long bytes, String lastDump) {}
+}
@@ -0,0 +1,197 @@
+package com.javatitan.engine;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// GCRA (equivale a um token bucket): o estado de cada chave e um unico long com o TAT (instante teorico da proxima
+// chegada, em nanoTime), atualizado por CAS. Sem lock, sem relogio de parede e sem reset de janela.
+public final class GcraLimiter implements RequestLimiter {
+    // Em media 1 a cada SWEEP_INTERVAL chamadas varre ate SWEEP_BUDGET entradas atras de chaves ociosas.
+    private static final int SWEEP_INTERVAL = 1024;
+    private static final int SWEEP_BUDGET = 256;
+
+    private final int limit;
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final long ceilingNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private Iterator<Map.Entry<String, AtomicLong>> cursor;
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    public GcraLimiter(int limit, int burst, long periodMs, int maxKeys) {
+        this.limit = limit;
+        this.emissionNanos = emissionNanos(limit, periodMs);
+        this.toleranceNanos = toleranceNanos(emissionNanos, burst);
+        this.ceilingNanos = ceilingNanos(toleranceNanos, periodMs);
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    @Override
+    public boolean enabled() {
+        return limit > 0;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        if (!enabled()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = track(key, now);
+        }
+        // Tabela cheia: a chave nova passa sem cota propria (fail-open, contado em overflow). As camadas de plano,
+        // endpoint, global e IP continuam valendo; um balde compartilhado deixaria todo cliente novo na cota de um so.
+        boolean allowed = bucket == null || acquire(bucket, now, emissionNanos, toleranceNanos);
+        (allowed ? allowedCount : rejectedCount).increment();
+        if (ThreadLocalRandom.current().nextInt(SWEEP_INTERVAL) == 0) {
+            sweep(now, SWEEP_BUDGET);
+        }
+        return allowed;
+    }
+
+    // Chave que passou pelo fail-open nao tem balde: so o contador volta.
+    @Override
+    public void refund(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-emissionNanos);
+        }
+        allowedCount.decrement();
+    }
+
+    @Override
+    public void absorb(String key, long count) {
+        if (!enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = track(key, now);
+        }
+        if (bucket != null) {
+            consume(bucket, now, emissionNanos * count, ceilingNanos);
+        }
+    }
+
+    // Intervalo entre chegadas (T) e tolerancia de rajada (T * (burst - 1)), compartilhados com TieredRateLimiter.
+    static long emissionNanos(int limit, long periodMs) {
+        return limit > 0 ? Math.max(1L, periodMs * 1_000_000L / limit) : 0L;
+    }
+
+    static long toleranceNanos(long emissionNanos, int burst) {
+        return emissionNanos * (Math.max(1, burst) - 1);
+    }
+
+    // Teto do TAT vindo de peer: a chave fica bloqueada no maximo por um periodo alem da rajada.
+    static long ceilingNanos(long toleranceNanos, long periodMs) {
+        return toleranceNanos + periodMs * 1_000_000L;
+    }
+
+    static boolean acquire(AtomicLong bucket, long now, long emissionNanos, long toleranceNanos) {
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            if (base - now > toleranceNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, base + emissionNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // Avanca o TAT sem conferir a tolerancia: o consumo ja aconteceu em outro no. Nunca passa de now + ceilingNanos,
+    // entao um delta inflado (ou forjado) nao trava a chave alem de um periodo.
+    static void consume(AtomicLong bucket, long now, long nanos, long ceilingNanos) {
+        long limit = now + ceilingNanos;
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            long next = base + nanos;
+            if (next - limit > 0) {
+                next = limit;
+            }
+            if (next - tat <= 0 || bucket.compareAndSet(tat, next)) {
+                return;
+            }
+        }
+    }
+
+    // O contador e reservado antes do put, entao o teto de chaves nunca e ultrapassado, nem sob corrida. null quando
+    // a tabela continua cheia depois da varredura.
+    private AtomicLong track(String key, long now) {
+        if (!reserve()) {
+            sweep(now, SWEEP_BUDGET);
+            if (!reserve()) {
+                overflow.increment();
+                return null;
+            }
+        }
+        AtomicLong created = new AtomicLong(now);
+        AtomicLong existing = buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            tracked.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int current = tracked.get();
+            if (current >= maxKeys) {
+                return false;
+            }
+            if (tracked.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Chave com TAT <= agora tem o balde cheio: remove-la nao muda nenhuma decisao futura. Uma aquisicao que corra
+    // com a remocao perde no maximo um token, dentro da tolerancia do algoritmo.
+    private void sweep(long now, int budget) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int visited = 0; visited < budget; visited++) {
+                if (cursor == null || !cursor.hasNext()) {
+                    cursor = buckets.entrySet().iterator();
+                    if (!cursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, AtomicLong> entry = cursor.next();
+                AtomicLong bucket = entry.getValue();
+                if (bucket.get() - now <= 0 && buckets.remove(entry.getKey(), bucket)) {
+                    tracked.decrementAndGet();
+                    evicted.increment();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(AppConfig.RATE_LIMIT_GCRA, tracked.get(), maxKeys, allowedCount.sum(), rejectedCount.sum(),
+            evicted.sum(), overflow.sum());
+    }
+}
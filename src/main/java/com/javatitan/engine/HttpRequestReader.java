@@ -2,47 +2,81 @@ package com.javatitan.engine;
 
 import com.sun.net.httpserver.HttpExchange;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 public final class HttpRequestReader {
+    private static final int DEFAULT_BODY_BYTES = 4096;
+    private static final int MAX_PRESIZE_BYTES = 1024 * 1024;
+
     private HttpRequestReader() {}
 
     public static String readBodyLimited(HttpExchange exchange, int maxBytes) throws IOException {
-        if (maxBytes <= 0) {
-            return readAll(exchange.getRequestBody());
-        }
-        String lengthHeader = exchange.getRequestHeaders().getFirst("Content-Length");
-        if (lengthHeader != null && !lengthHeader.isBlank()) {
-            try {
-                long length = Long.parseLong(lengthHeader.trim());
-                if (length > maxBytes) {
-                    throw new RequestValidationException(413, "Payload maior que o limite permitido");
-                }
-            } catch (NumberFormatException ex) {
-                throw new RequestValidationException(400, "Content-Length invalido");
-            }
+        try (PooledBuffer body = readBodyPooled(exchange, maxBytes)) {
+            return new String(body.array(), 0, body.length(), StandardCharsets.UTF_8);
         }
+    }
 
-        byte[] buffer = new byte[4096];
-        int read;
+    // O chamador deve fechar o buffer para devolve-lo ao pool.
+    public static PooledBuffer readBodyPooled(HttpExchange exchange, int maxBytes) throws IOException {
+        long declared = declaredLength(exchange);
+        if (maxBytes > 0 && declared > maxBytes) {
+            throw new RequestValidationException(413, "Payload maior que o limite permitido");
+        }
+        long presize = maxBytes > 0 ? maxBytes + 1L : MAX_PRESIZE_BYTES;
+        int initial = declared >= 0 ? (int) Math.min(declared + 1, presize) : DEFAULT_BODY_BYTES;
+        BufferPool pool = BufferPool.heap();
+        PooledBuffer body = pool.acquire(initial);
         int total = 0;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (InputStream is = exchange.getRequestBody()) {
-            while ((read = is.read(buffer)) != -1) {
+            while (true) {
+                if (total == body.capacity()) {
+                    PooledBuffer grown = pool.acquire(total << 1);
+                    System.arraycopy(body.array(), 0, grown.array(), 0, total);
+                    body.close();
+                    body = grown;
+                }
+                int read = is.read(body.array(), total, body.capacity() - total);
+                if (read == -1) {
+                    break;
+                }
                 total += read;
-                if (total > maxBytes) {
+                if (maxBytes > 0 && total > maxBytes) {
                     throw new RequestValidationException(413, "Payload maior que o limite permitido");
                 }
-                baos.write(buffer, 0, read);
+            }
+            body.length(total);
+            return body;
+        } catch (IOException | RuntimeException ex) {
+            body.close();
+            throw ex;
+        }
+    }
+
+    public static boolean isBlank(byte[] body, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            byte b = body[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return false;
             }
         }
-        return baos.toString(StandardCharsets.UTF_8);
+        return true;
     }
 
-    private static String readAll(InputStream is) throws IOException {
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    private static long declaredLength(HttpExchange exchange) {
+        String lengthHeader = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (lengthHeader == null || lengthHeader.isBlank()) {
+            return -1L;
+        }
+        try {
+            long length = Long.parseLong(lengthHeader.trim());
+            if (length < 0) {
+                throw new RequestValidationException(400, "Content-Length invalido");
+            }
+            return length;
+        } catch (NumberFormatException ex) {
+            throw new RequestValidationException(400, "Content-Length invalido");
+        }
     }
 }
@@ -3,38 +3,79 @@ package com.javatitan.engine;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Map;
 
 public final class HttpResponses {
-    private static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
+    static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
 
     private HttpResponses() {}
 
     public static void sendJson(HttpExchange exchange, int status, String json, String requestId) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+        sendJson(exchange, status, JsonWriter.local().raw(json), requestId);
+    }
+
+    public static void sendJson(HttpExchange exchange, int status, JsonWriter json, String requestId) throws IOException {
+        try {
+            send(exchange, status, CONTENT_TYPE_JSON, json.buffer(), json.size(), requestId);
+        } finally {
+            json.release();
+        }
+    }
+
+    public static void sendError(HttpExchange exchange, int status, String message, String requestId) throws IOException {
+        sendJson(exchange, status, writeError(JsonWriter.local(), status, message, requestId), requestId);
+    }
+
+    public static void sendBytes(HttpExchange exchange, int status, String contentType, byte[] body, int length, String requestId) throws IOException {
+        send(exchange, status, contentType, body, length, requestId);
+    }
+
+    public static void sendUnavailable(HttpExchange exchange, long retryAfterSeconds, String message, String requestId) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+        sendError(exchange, 503, message, requestId);
+    }
+
+    public static String errorJson(int status, String message, String requestId) {
+        return writeError(new JsonWriter(256), status, message, requestId).toString();
+    }
+
+    public static JsonWriter writeError(JsonWriter json, int status, String message, String requestId) {
+        return json.beginObject()
+            .name("status").value(status)
+            .name("error").value(statusLabel(status))
+            .name("message").value(message == null ? "" : message)
+            .name("requestId").value(requestId == null ? "" : requestId)
+            .name("timestamp").value(Instant.now().toString())
+            .endObject();
+    }
+
+    // Resposta com Transfer-Encoding chunked; o chamador escreve e fecha o stream.
+    public static OutputStream startStream(HttpExchange exchange, int status, String contentType, String requestId) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
         applySecurityHeaders(exchange);
         if (requestId != null) {
             exchange.getResponseHeaders().set("X-Request-Id", requestId);
         }
-        byte[] responseBytes = json.getBytes(StandardCharsets.UTF_8);
-        exchange.sendResponseHeaders(status, responseBytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(responseBytes);
-        }
+        exchange.sendResponseHeaders(status, 0);
+        return exchange.getResponseBody();
     }
 
-    public static String errorJson(int status, String message, String requestId) {
-        String error = statusLabel(status);
-        String timestamp = Instant.now().toString();
-        return "{" +
-            "\"status\":" + status + "," +
-            "\"error\":\"" + JsonUtils.escapeJson(error) + "\"," +
-            "\"message\":\"" + JsonUtils.escapeJson(message) + "\"," +
-            "\"requestId\":\"" + JsonUtils.escapeJson(requestId) + "\"," +
-            "\"timestamp\":\"" + timestamp + "\"" +
-            "}";
+    public static void sendReplay(HttpExchange exchange, IdempotencyCache.CachedResponse cached, String requestId) throws IOException {
+        exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+        send(exchange, cached.status(), cached.contentType(), cached.body(), cached.body().length, requestId);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body, int length, String requestId) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        applySecurityHeaders(exchange);
+        if (requestId != null) {
+            exchange.getResponseHeaders().set("X-Request-Id", requestId);
+        }
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body, 0, length);
+        }
     }
 
     public static Map<String, String> errorBody(int status, String message) {
@@ -53,10 +94,13 @@ public final class HttpResponses {
             case 404 -> "Not Found";
             case 405 -> "Method Not Allowed";
             case 413 -> "Payload Too Large";
+            case 409 -> "Conflict";
             case 415 -> "Unsupported Media Type";
+            case 422 -> "Unprocessable Entity";
             case 429 -> "Too Many Requests";
             case 504 -> "Gateway Timeout";
             case 500 -> "Internal Server Error";
+            case 503 -> "Service Unavailable";
             default -> "Error";
         };
     }
@@ -0,0 +1,181 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+public class IdempotencyCache {
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+    private static final ThreadLocal<MessageDigest> LOCAL_DIGEST = ThreadLocal.withInitial(IdempotencyCache::newDigest);
+    private static final ConcurrentLinkedQueue<MessageDigest> DIGEST_POOL = new ConcurrentLinkedQueue<>();
+
+    private final int maxEntries;
+    private final long ttlMs;
+    // Prazo de uma chave em voo: se o dono sumir sem concluir nem abandonar, a chave volta a ficar livre.
+    private final long pendingTtlMs;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyCache(int maxEntries, long ttlMs, long pendingTtlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.pendingTtlMs = pendingTtlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    // Chave do cache: endpoint, token e Idempotency-Key. O token entra so como SHA-256, nunca em claro.
+    public static String key(String path, String token, String idempotencyKey) {
+        MessageDigest digest = acquireDigest();
+        try {
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return path + '\n' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '\n' + idempotencyKey;
+        } finally {
+            releaseDigest(digest);
+        }
+    }
+
+    // Impressao digital do corpo: SHA-256 de variant (1 byte) + corpo. Um CRC colidiria com corpos diferentes e
+    // devolveria a resposta de outra requisicao em vez do 422.
+    public static byte[] fingerprint(int variant, byte[] body, int offset, int length) {
+        MessageDigest digest = acquireDigest();
+        try {
+            digest.update((byte) variant);
+            digest.update(body, offset, length);
+            return digest.digest();
+        } finally {
+            releaseDigest(digest);
+        }
+    }
+
+    // Mesmo criterio do JwtVerifier: ThreadLocal em threads de plataforma, pool em virtual threads.
+    private static MessageDigest acquireDigest() {
+        if (!EngineExecutors.currentThreadVirtual()) {
+            return LOCAL_DIGEST.get();
+        }
+        MessageDigest digest = DIGEST_POOL.poll();
+        return digest != null ? digest : newDigest();
+    }
+
+    private static void releaseDigest(MessageDigest digest) {
+        if (EngineExecutors.currentThreadVirtual()) {
+            DIGEST_POOL.offer(digest);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponivel", ex);
+        }
+    }
+
+    // Reserva a chave para o primeiro pedido; os demais recebem a resposta pronta ou esperam a do primeiro.
+    public Lookup reserve(String key, byte[] fingerprint) {
+        long now = System.currentTimeMillis();
+        Entry created;
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.expired(now)) {
+                entries.remove(key);
+                // Dono pendente alem do prazo: quem ainda espera por ele recebe erro em vez de ficar preso.
+                existing.response.completeExceptionally(new IllegalStateException("Requisicao original expirou"));
+                existing = null;
+            }
+            if (existing != null) {
+                if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                    conflicts.increment();
+                    return new Lookup(Outcome.CONFLICT, existing);
+                }
+                if (existing.response.isDone()) {
+                    hits.increment();
+                    return new Lookup(Outcome.HIT, existing);
+                }
+                coalesced.increment();
+                return new Lookup(Outcome.PENDING, existing);
+            }
+            created = new Entry(key, fingerprint, now + pendingTtlMs);
+            entries.put(key, created);
+        }
+        misses.increment();
+        return new Lookup(Outcome.OWNER, created);
+    }
+
+    public Snapshot snapshot() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Snapshot(size, maxEntries, hits.sum(), misses.sum(), coalesced.sum(), conflicts.sum());
+    }
+
+    public enum Outcome { OWNER, HIT, PENDING, CONFLICT }
+
+    public record Lookup(Outcome outcome, Entry entry) {}
+
+    public record CachedResponse(int status, String contentType, byte[] body) {}
+
+    public final class Entry {
+        private final String key;
+        private final byte[] fingerprint;
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+        private long expiresAt;
+
+        private Entry(String key, byte[] fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        public CompletableFuture<CachedResponse> response() {
+            return response;
+        }
+
+        // Resposta 2xx do dono: fica no cache pelo TTL e e entregue a quem esta esperando.
+        public void complete(int status, String contentType, byte[] body, int length) {
+            byte[] copy = new byte[length];
+            System.arraycopy(body, 0, copy, 0, length);
+            synchronized (entries) {
+                expiresAt = System.currentTimeMillis() + ttlMs;
+            }
+            response.complete(new CachedResponse(status, contentType, copy));
+        }
+
+        // Dono terminou sem resposta 2xx (recusa, erro, timeout): libera a chave para um retry. Sem efeito depois do
+        // complete, entao pode ser chamado sempre no fim do pipeline.
+        public void abandon() {
+            if (response.isDone()) {
+                return;
+            }
+            synchronized (entries) {
+                entries.remove(key, this);
+            }
+            response.completeExceptionally(new IllegalStateException("Requisicao original nao respondeu"));
+        }
+
+        private boolean expired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public record Snapshot(int size, int maxEntries, long hits, long misses, long coalesced, long conflicts) {}
+}
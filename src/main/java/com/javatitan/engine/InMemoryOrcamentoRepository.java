@@ -11,4 +11,10 @@ public class InMemoryOrcamentoRepository implements OrcamentoRepository {
         tabela.add(orcamento);
         LoggerSaaS.log("INFO", "[DB-JAVA] Registro arquivado em memoria: " + orcamento.idProposta());
     }
+
+    @Override
+    public void salvarLote(List<Orcamento> orcamentos) {
+        tabela.addAll(orcamentos);
+        LoggerSaaS.log("INFO", "[DB-JAVA] Lote arquivado em memoria: " + orcamentos.size() + " registros");
+    }
 }
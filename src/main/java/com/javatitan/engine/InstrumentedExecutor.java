@@ -0,0 +1,116 @@
+package com.javatitan.engine;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InstrumentedExecutor extends AbstractExecutorService {
+    private final String name;
+    private final String mode;
+    private final ExecutorService delegate;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    public InstrumentedExecutor(String name, String mode, ExecutorService delegate) {
+        this.name = name;
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String mode() {
+        return mode;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        try {
+            delegate.execute(() -> run(command));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw ex;
+        }
+    }
+
+    private void run(Runnable command) {
+        started.increment();
+        updatePeak(active.incrementAndGet());
+        try {
+            command.run();
+        } catch (RuntimeException | Error ex) {
+            failed.increment();
+            throw ex;
+        } finally {
+            active.decrementAndGet();
+            completed.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long submittedCount = submitted.sum();
+        long rejectedCount = rejected.sum();
+        long startedCount = started.sum();
+        long queued = Math.max(0L, submittedCount - rejectedCount - startedCount);
+        return new Snapshot(name, mode, submittedCount, completed.sum(), failed.sum(), rejectedCount, active.get(), peakActive.get(), queued);
+    }
+
+    private void updatePeak(int value) {
+        int current;
+        do {
+            current = peakActive.get();
+            if (value <= current) {
+                return;
+            }
+        } while (!peakActive.compareAndSet(current, value));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    public record Snapshot(
+        String name,
+        String mode,
+        long submitted,
+        long completed,
+        long failed,
+        long rejected,
+        int active,
+        int peakActive,
+        long queued
+    ) {}
+}
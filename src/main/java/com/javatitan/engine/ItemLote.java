@@ -0,0 +1,4 @@
+package com.javatitan.engine;
+
+// Item de um lote ja lido: a proposta, ou o erro que invalidou so este item.
+record ItemLote(PropostaRequest request, String erro) {}
@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.List;
 
 public class JdbcOrcamentoRepository implements OrcamentoRepository {
     private final DbConfig config;
@@ -16,22 +17,15 @@ public class JdbcOrcamentoRepository implements OrcamentoRepository {
         inicializarSchema();
     }
 
+    private static final String INSERT_SQL = "INSERT INTO orcamentos (" +
+        "id_proposta, id_cliente, plano, valor_bruto, taxa_aplicada, valor_liquido, status, criado_em" +
+        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Override
     public void salvar(Orcamento orcamento) {
-        String sql = "INSERT INTO orcamentos (" +
-            "id_proposta, id_cliente, plano, valor_bruto, taxa_aplicada, valor_liquido, status, criado_em" +
-            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
         try (Connection conn = abrirConexao();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, orcamento.idProposta().toString());
-            stmt.setString(2, orcamento.idCliente().toString());
-            stmt.setString(3, orcamento.plano().name());
-            stmt.setBigDecimal(4, orcamento.valorBruto());
-            stmt.setBigDecimal(5, orcamento.taxaAplicada());
-            stmt.setBigDecimal(6, orcamento.valorLiquido());
-            stmt.setString(7, orcamento.status());
-            stmt.setTimestamp(8, Timestamp.from(orcamento.criadoEm()));
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            preencher(stmt, orcamento);
             stmt.executeUpdate();
             LoggerSaaS.log("INFO", "[DB-JAVA] Registro gravado no banco: " + orcamento.idProposta());
         } catch (SQLException ex) {
@@ -39,6 +33,44 @@ public class JdbcOrcamentoRepository implements OrcamentoRepository {
         }
     }
 
+    @Override
+    public void salvarLote(List<Orcamento> orcamentos) {
+        if (orcamentos.isEmpty()) {
+            return;
+        }
+        try (Connection conn = abrirConexao()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (Orcamento orcamento : orcamentos) {
+                    preencher(stmt, orcamento);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            LoggerSaaS.log("INFO", "[DB-JAVA] Lote gravado no banco: " + orcamentos.size() + " registros");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Falha ao persistir lote no banco: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static void preencher(PreparedStatement stmt, Orcamento orcamento) throws SQLException {
+        stmt.setString(1, orcamento.idProposta().toString());
+        stmt.setString(2, orcamento.idCliente().toString());
+        stmt.setString(3, orcamento.plano().name());
+        stmt.setBigDecimal(4, orcamento.valorBruto());
+        stmt.setBigDecimal(5, orcamento.taxaAplicada());
+        stmt.setBigDecimal(6, orcamento.valorLiquido());
+        stmt.setString(7, orcamento.status());
+        stmt.setTimestamp(8, Timestamp.from(orcamento.criadoEm()));
+    }
+
     private void inicializarSchema() {
         String sql = "CREATE TABLE IF NOT EXISTS orcamentos (" +
             "id_proposta VARCHAR(36) PRIMARY KEY," +
@@ -0,0 +1,99 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class JsonBenchmark {
+    private static final String PROPOSTA = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
+    private static final String CLAIMS = "{\"sub\":\"benchmark\",\"plan\":\"PRO\",\"exp\":1893456000," +
+        "\"iss\":\"javatitan\",\"aud\":\"javatitan-api\"}";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = 200_000;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = BenchmarkSupport.parseInt("--iterations", arg.substring("--iterations=".length()));
+            } else if ("--help".equals(arg)) {
+                System.out.println("Uso: java -cp out com.javatitan.engine.JsonBenchmark [--iterations=N]");
+                System.exit(0);
+            }
+        }
+        byte[] propostaBytes = PROPOSTA.getBytes(StandardCharsets.UTF_8);
+        byte[] claimsBytes = CLAIMS.getBytes(StandardCharsets.UTF_8);
+        int warmup = Math.max(10_000, iterations / 4);
+
+        System.out.println("cenario,iteracoes,nsPorOp,opsPorSeg,bytesPorOp");
+        print(BenchmarkSupport.measure("proposta-regex", warmup, iterations, () -> RegexLegado.proposta(PROPOSTA)));
+        print(BenchmarkSupport.measure("proposta-cursor-string", warmup, iterations,
+            () -> JsonBinders.propostaRequest(JsonCursor.of(PROPOSTA))));
+        print(BenchmarkSupport.measure("proposta-cursor-bytes", warmup, iterations,
+            () -> JsonBinders.propostaRequest(JsonCursor.of(propostaBytes))));
+        print(BenchmarkSupport.measure("claims-regex", warmup, iterations, () -> RegexLegado.claims(CLAIMS)));
+        print(BenchmarkSupport.measure("claims-cursor-bytes", warmup, iterations,
+            () -> JsonBinders.jwtClaims(JsonCursor.of(claimsBytes), true, true)));
+
+        PropostaResponse resposta = new PropostaResponse(UUID.fromString("e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1"),
+            new BigDecimal("850.00"), new BigDecimal("150.00"), "PROCESSADO_ASYNC");
+        print(BenchmarkSupport.measure("sucesso-format", warmup, iterations,
+            () -> RegexLegado.sucesso(resposta).getBytes(StandardCharsets.UTF_8)));
+        print(BenchmarkSupport.measure("sucesso-writer", warmup, iterations,
+            () -> MotorFinanceiro.CalculoHandler.jsonSucesso(JsonWriter.local(), resposta)));
+        print(BenchmarkSupport.measure("erro-concat", warmup, iterations,
+            () -> RegexLegado.erro(400, "Campo obrigatorio: plano", "req-1").getBytes(StandardCharsets.UTF_8)));
+        print(BenchmarkSupport.measure("erro-writer", warmup, iterations,
+            () -> HttpResponses.writeError(JsonWriter.local(), 400, "Campo obrigatorio: plano", "req-1")));
+    }
+
+    private static void print(BenchmarkSupport.Measurement measurement) {
+        System.out.println(measurement.csv());
+    }
+
+    // Copia dos caminhos anteriores (regex, String.format e concatenacao), mantida apenas para comparacao.
+    private static final class RegexLegado {
+        static PropostaRequest proposta(String json) {
+            UUID id = UUID.fromString(string(json, "idCliente"));
+            BigDecimal valor = new BigDecimal(number(json, "valorBruto"));
+            Plano plano = Plano.from(string(json, "plano"));
+            return new PropostaRequest(id, valor, plano);
+        }
+
+        static JwtClaims claims(String json) {
+            return new JwtClaims(string(json, "sub"), string(json, "plan"), Long.valueOf(number(json, "exp")),
+                string(json, "iss"), string(json, "aud"));
+        }
+
+        static String sucesso(PropostaResponse response) {
+            return String.format(
+                "{\"idProposta\":\"%s\",\"valorLiquido\":%.2f,\"taxaAplicada\":%.2f,\"status\":\"%s\"}",
+                response.idProposta(), response.valorLiquido(), response.taxaAplicada(), response.status()
+            );
+        }
+
+        static String erro(int status, String message, String requestId) {
+            return "{" +
+                "\"status\":" + status + "," +
+                "\"error\":\"" + JsonUtils.escapeJson("Bad Request") + "\"," +
+                "\"message\":\"" + JsonUtils.escapeJson(message) + "\"," +
+                "\"requestId\":\"" + JsonUtils.escapeJson(requestId) + "\"," +
+                "\"timestamp\":\"" + java.time.Instant.now() + "\"" +
+                "}";
+        }
+
+        private static String string(String json, String key) {
+            Pattern pattern = Pattern.compile("\\\"" + Pattern.quote(key) + "\\\"\\s*:\\s*\\\"([^\\\"]*)\\\"");
+            Matcher matcher = pattern.matcher(json);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        private static String number(String json, String key) {
+            Pattern pattern = Pattern.compile("\\\"" + Pattern.quote(key)
+                + "\\\"\\s*:\\s*([-+]?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?)");
+            Matcher matcher = pattern.matcher(json);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+    }
+}
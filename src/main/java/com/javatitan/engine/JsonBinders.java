@@ -0,0 +1,147 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class JsonBinders {
+    private static final Plano[] PLANOS = Plano.values();
+
+    private JsonBinders() {}
+
+    static PropostaRequest propostaRequest(JsonCursor cursor) {
+        UUID idCliente = null;
+        BigDecimal valorBruto = null;
+        Plano plano = null;
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            if (cursor.fieldIs("idCliente") && cursor.isString()) {
+                idCliente = readUuid(cursor, "idCliente");
+            } else if (cursor.fieldIs("valorBruto") && cursor.isNumber()) {
+                valorBruto = cursor.readBigDecimal();
+            } else if (cursor.fieldIs("plano") && cursor.isString()) {
+                int mark = cursor.mark();
+                plano = cursor.readEnumIgnoreCase(PLANOS);
+                if (plano == null) {
+                    cursor.reset(mark);
+                    plano = Plano.from(cursor.readString());
+                }
+            } else {
+                cursor.skipValue();
+            }
+        }
+        require(idCliente, "idCliente");
+        require(valorBruto, "valorBruto");
+        require(plano, "plano");
+        return new PropostaRequest(idCliente, valorBruto, plano);
+    }
+
+    // Itens invalidos viram erro no proprio item; so JSON estruturalmente quebrado invalida o lote.
+    static List<ItemLote> propostaLote(JsonCursor cursor, int maxItems) {
+        List<ItemLote> itens = new ArrayList<>();
+        cursor.beginArray();
+        while (cursor.nextElement()) {
+            if (itens.size() >= maxItems) {
+                throw new RequestValidationException(413, "Lote excede o limite de " + maxItems + " itens");
+            }
+            int mark = cursor.mark();
+            try {
+                itens.add(new ItemLote(propostaRequest(cursor), null));
+            } catch (IllegalArgumentException ex) {
+                cursor.reset(mark);
+                cursor.skipValue();
+                itens.add(new ItemLote(null, ex.getMessage()));
+            }
+        }
+        if (itens.isEmpty()) {
+            throw new IllegalArgumentException("Lote vazio");
+        }
+        return itens;
+    }
+
+    static CryptoUtils.EncryptedPayload encryptedPayload(JsonCursor cursor) {
+        String iv = null;
+        String data = null;
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            if (cursor.fieldIs("iv") && cursor.isString()) {
+                iv = cursor.readString();
+            } else if (cursor.fieldIs("data") && cursor.isString()) {
+                data = cursor.readString();
+            } else {
+                cursor.skipValue();
+            }
+        }
+        require(iv, "iv");
+        require(data, "data");
+        return new CryptoUtils.EncryptedPayload(iv, data);
+    }
+
+    // Confere alg == HS256 sem materializar o valor como String.
+    static boolean jwtHs256(JsonCursor cursor) {
+        boolean hs256 = false;
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            if (cursor.fieldIs("alg")) {
+                hs256 = cursor.stringEqualsIgnoreCase("HS256");
+                if (!hs256) {
+                    cursor.skipValue();
+                }
+            } else {
+                cursor.skipValue();
+            }
+        }
+        return hs256;
+    }
+
+    // Caminho de verificacao: le so plan, exp, sub/user (tenant das cotas) e, quando configurados, iss/aud.
+    static JwtClaims jwtClaims(JsonCursor cursor, boolean issuer, boolean audience) {
+        String subject = null;
+        String user = null;
+        String plan = null;
+        Long exp = null;
+        String iss = null;
+        String aud = null;
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            if (cursor.fieldIs("plan") && cursor.isString()) {
+                plan = cursor.readString();
+            } else if (cursor.fieldIs("exp") && cursor.isNumber()) {
+                exp = cursor.readLong();
+            } else if (issuer && cursor.fieldIs("iss") && cursor.isString()) {
+                iss = cursor.readString();
+            } else if (audience && cursor.fieldIs("aud") && cursor.isString()) {
+                aud = cursor.readString();
+            } else if (cursor.fieldIs("sub") && cursor.isString()) {
+                subject = cursor.readString();
+            } else if (cursor.fieldIs("user") && cursor.isString()) {
+                user = cursor.readString();
+            } else {
+                cursor.skipValue();
+            }
+        }
+        return new JwtClaims(subject != null ? subject : user, plan, exp, iss, aud);
+    }
+
+    private static UUID readUuid(JsonCursor cursor, String key) {
+        int mark = cursor.mark();
+        try {
+            return cursor.readUuid();
+        } catch (IllegalArgumentException ex) {
+            cursor.reset(mark);
+            String raw = cursor.readString();
+            try {
+                return UUID.fromString(raw);
+            } catch (IllegalArgumentException invalid) {
+                throw new IllegalArgumentException("UUID invalido para " + key + ": " + raw);
+            }
+        }
+    }
+
+    private static void require(Object value, String key) {
+        if (value == null) {
+            throw new IllegalArgumentException("Campo obrigatorio: " + key);
+        }
+    }
+}
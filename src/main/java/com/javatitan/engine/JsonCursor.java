@@ -0,0 +1,592 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+public final class JsonCursor {
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final byte[] BASE64 = base64Table();
+
+    private final byte[] bytes;
+    private final CharSequence chars;
+    private final int end;
+    private int pos;
+    private int keyStart;
+    private int keyEnd;
+    private boolean keyEscaped;
+    private int valueStart;
+    private int valueEnd;
+    private boolean valueEscaped;
+    private boolean firstMember;
+
+    private JsonCursor(byte[] bytes, CharSequence chars, int start, int end) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.pos = start;
+        this.end = end;
+    }
+
+    public static JsonCursor of(byte[] bytes) {
+        return of(bytes, 0, bytes.length);
+    }
+
+    public static JsonCursor of(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Faixa invalida para JSON");
+        }
+        return new JsonCursor(bytes, null, offset, offset + length);
+    }
+
+    public static JsonCursor of(CharSequence json) {
+        if (json == null) {
+            throw new IllegalArgumentException("JSON vazio");
+        }
+        return new JsonCursor(null, json, 0, json.length());
+    }
+
+    public int mark() {
+        return pos;
+    }
+
+    public void reset(int mark) {
+        pos = mark;
+    }
+
+    public void beginObject() {
+        expect('{');
+        firstMember = true;
+    }
+
+    public boolean nextField() {
+        skipWhitespace();
+        int c = peek();
+        if (c == '}') {
+            pos++;
+            firstMember = false;
+            return false;
+        }
+        if (!firstMember) {
+            expect(',');
+            skipWhitespace();
+        }
+        firstMember = false;
+        if (peek() != '"') {
+            throw error("chave esperada");
+        }
+        pos++;
+        keyStart = pos;
+        keyEscaped = false;
+        while (true) {
+            int ch = next();
+            if (ch == '"') {
+                break;
+            }
+            if (ch == '\\') {
+                keyEscaped = true;
+                next();
+            }
+        }
+        keyEnd = pos - 1;
+        expect(':');
+        skipWhitespace();
+        return true;
+    }
+
+    public void beginArray() {
+        expect('[');
+        firstMember = true;
+    }
+
+    public boolean nextElement() {
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            firstMember = false;
+            return false;
+        }
+        if (!firstMember) {
+            expect(',');
+            skipWhitespace();
+        }
+        firstMember = false;
+        return true;
+    }
+
+    public boolean fieldIs(String key) {
+        if (keyEscaped) {
+            return key.equals(fieldName());
+        }
+        int length = keyEnd - keyStart;
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (at(keyStart + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String fieldName() {
+        return decodeString(keyStart, keyEnd, keyEscaped);
+    }
+
+    public boolean isNull() {
+        skipWhitespace();
+        return matchesLiteral("null");
+    }
+
+    public boolean isString() {
+        skipWhitespace();
+        return pos < end && at(pos) == '"';
+    }
+
+    public boolean isNumber() {
+        skipWhitespace();
+        if (pos >= end) {
+            return false;
+        }
+        int c = at(pos);
+        return c == '-' || c == '+' || (c >= '0' && c <= '9');
+    }
+
+    public String readString() {
+        skipWhitespace();
+        if (matchesLiteral("null")) {
+            pos += 4;
+            return null;
+        }
+        scanString();
+        return decodeString(valueStart, valueEnd, valueEscaped);
+    }
+
+    // Decodifica a string Base64 (padrao ou URL-safe) direto em dst, sem String intermediaria; retorna os bytes escritos.
+    public int readBase64(byte[] dst, int offset) {
+        skipWhitespace();
+        if (peek() != '"') {
+            throw error("string esperada");
+        }
+        pos++;
+        int out = offset;
+        int bits = 0;
+        int count = 0;
+        boolean padding = false;
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                if (next() != '/') {
+                    throw error("escape invalido em Base64");
+                }
+                c = '/';
+            }
+            if (c == '=') {
+                padding = true;
+                continue;
+            }
+            int value = c < 128 ? BASE64[c] : -1;
+            if (value < 0 || padding) {
+                throw error("Base64 invalido");
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                if (out + 3 > dst.length) {
+                    throw error("Base64 maior que o esperado");
+                }
+                dst[out++] = (byte) (bits >> 16);
+                dst[out++] = (byte) (bits >> 8);
+                dst[out++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 1 || out + count - 1 > dst.length) {
+            throw error("Base64 invalido");
+        }
+        if (count == 2) {
+            dst[out++] = (byte) (bits >> 4);
+        } else if (count == 3) {
+            dst[out++] = (byte) (bits >> 10);
+            dst[out++] = (byte) (bits >> 2);
+        }
+        return out - offset;
+    }
+
+    public boolean stringEqualsIgnoreCase(String expected) {
+        skipWhitespace();
+        if (peek() != '"') {
+            return false;
+        }
+        int start = pos + 1;
+        int length = expected.length();
+        if (start + length >= end || at(start + length) != '"') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int c = at(start + i);
+            if (c == '\\' || Character.toUpperCase((char) c) != Character.toUpperCase(expected.charAt(i))) {
+                return false;
+            }
+        }
+        pos = start + length + 1;
+        return true;
+    }
+
+    public <E extends Enum<E>> E readEnumIgnoreCase(E[] constants) {
+        for (E constant : constants) {
+            if (stringEqualsIgnoreCase(constant.name())) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    public UUID readUuid() {
+        skipWhitespace();
+        if (peek() != '"') {
+            throw error("string esperada");
+        }
+        int start = pos + 1;
+        if (start + 36 >= end || at(start + 36) != '"') {
+            throw error("UUID invalido");
+        }
+        long msb = 0L;
+        long lsb = 0L;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            int c = at(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    throw error("UUID invalido");
+                }
+                continue;
+            }
+            int nibble = hexDigit(c);
+            if (nibble < 0) {
+                throw error("UUID invalido");
+            }
+            if (digits < 16) {
+                msb = (msb << 4) | nibble;
+            } else {
+                lsb = (lsb << 4) | nibble;
+            }
+            digits++;
+        }
+        pos = start + 37;
+        return new UUID(msb, lsb);
+    }
+
+    // Gramatica de numero do JSON: -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?. Sem '+' inicial, zeros a
+    // esquerda, ponto ou expoente sem digitos.
+    public BigDecimal readBigDecimal() {
+        skipWhitespace();
+        int start = pos;
+        boolean negative = pos < end && at(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        if (pos >= end || !isDigit(at(pos))) {
+            throw error("numero esperado");
+        }
+        long unscaled = 0L;
+        int digits = 0;
+        int scale = 0;
+        if (at(pos) == '0') {
+            pos++;
+            digits++;
+            if (pos < end && isDigit(at(pos))) {
+                throw error("numero invalido");
+            }
+        } else {
+            while (pos < end && isDigit(at(pos))) {
+                if (digits < MAX_FAST_DIGITS) {
+                    unscaled = unscaled * 10 + (at(pos) - '0');
+                }
+                digits++;
+                pos++;
+            }
+        }
+        if (pos < end && at(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            while (pos < end && isDigit(at(pos))) {
+                if (digits < MAX_FAST_DIGITS) {
+                    unscaled = unscaled * 10 + (at(pos) - '0');
+                }
+                digits++;
+                scale++;
+                pos++;
+            }
+            if (pos == fractionStart) {
+                throw error("numero invalido");
+            }
+        }
+        boolean exponent = pos < end && (at(pos) == 'e' || at(pos) == 'E');
+        if (exponent) {
+            pos++;
+            if (pos < end && (at(pos) == '+' || at(pos) == '-')) {
+                pos++;
+            }
+            int exponentStart = pos;
+            while (pos < end && isDigit(at(pos))) {
+                pos++;
+            }
+            if (pos == exponentStart) {
+                throw error("numero invalido");
+            }
+        }
+        if (!exponent && digits <= MAX_FAST_DIGITS) {
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+        }
+        return new BigDecimal(numberChars(start, pos));
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // So [0-9a-fA-F]: Character.digit aceitaria digitos Unicode de outros alfabetos.
+    private static int hexDigit(int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    public String readNumberText() {
+        skipWhitespace();
+        int start = pos;
+        readBigDecimal();
+        return new String(numberChars(start, pos));
+    }
+
+    public long readLong() {
+        BigDecimal value = readBigDecimal();
+        try {
+            return value.longValueExact();
+        } catch (ArithmeticException ex) {
+            throw error("inteiro esperado");
+        }
+    }
+
+    public boolean readBoolean() {
+        skipWhitespace();
+        if (matchesLiteral("true")) {
+            pos += 4;
+            return true;
+        }
+        if (matchesLiteral("false")) {
+            pos += 5;
+            return false;
+        }
+        throw error("booleano esperado");
+    }
+
+    public void skipValue() {
+        skipWhitespace();
+        int c = peek();
+        switch (c) {
+            case '"' -> scanString();
+            case '{', '[' -> skipContainer();
+            case 't' -> skipLiteral("true");
+            case 'f' -> skipLiteral("false");
+            case 'n' -> skipLiteral("null");
+            default -> readBigDecimal();
+        }
+        firstMember = false;
+    }
+
+    private void skipContainer() {
+        int depth = 0;
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                pos--;
+                scanString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void skipLiteral(String literal) {
+        if (!matchesLiteral(literal)) {
+            throw error("valor invalido");
+        }
+        pos += literal.length();
+    }
+
+    private void scanString() {
+        if (peek() != '"') {
+            throw error("string esperada");
+        }
+        pos++;
+        valueStart = pos;
+        valueEscaped = false;
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                valueEnd = pos - 1;
+                return;
+            }
+            if (c == '\\') {
+                valueEscaped = true;
+                next();
+            } else if (c < 0x20) {
+                throw error("caractere de controle em string");
+            }
+        }
+    }
+
+    private String decodeString(int start, int stop, boolean escaped) {
+        if (!escaped) {
+            if (bytes != null) {
+                return new String(bytes, start, stop - start, StandardCharsets.UTF_8);
+            }
+            return chars.subSequence(start, stop).toString();
+        }
+        StringBuilder sb = new StringBuilder(stop - start);
+        int segment = start;
+        int i = start;
+        while (i < stop) {
+            int c = at(i);
+            if (c != '\\') {
+                i++;
+                continue;
+            }
+            appendRaw(sb, segment, i);
+            int escape = at(i + 1);
+            switch (escape) {
+                case '"' -> sb.append('"');
+                case '\\' -> sb.append('\\');
+                case '/' -> sb.append('/');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 6 > stop) {
+                        throw error("escape unicode invalido");
+                    }
+                    int code = 0;
+                    for (int k = 2; k < 6; k++) {
+                        int nibble = hexDigit(at(i + k));
+                        if (nibble < 0) {
+                            throw error("escape unicode invalido");
+                        }
+                        code = (code << 4) | nibble;
+                    }
+                    sb.append((char) code);
+                    i += 4;
+                }
+                default -> throw error("escape invalido");
+            }
+            i += 2;
+            segment = i;
+        }
+        appendRaw(sb, segment, stop);
+        return sb.toString();
+    }
+
+    private void appendRaw(StringBuilder sb, int start, int stop) {
+        if (stop <= start) {
+            return;
+        }
+        if (bytes != null) {
+            sb.append(new String(bytes, start, stop - start, StandardCharsets.UTF_8));
+        } else {
+            sb.append(chars, start, stop);
+        }
+    }
+
+    private char[] numberChars(int start, int stop) {
+        char[] out = new char[stop - start];
+        for (int i = start; i < stop; i++) {
+            out[i - start] = (char) at(i);
+        }
+        return out;
+    }
+
+    private boolean matchesLiteral(String literal) {
+        if (pos + literal.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (at(pos + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (pos >= end || at(pos) != expected) {
+            throw error("'" + expected + "' esperado");
+        }
+        pos++;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            int c = at(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private int peek() {
+        if (pos >= end) {
+            throw error("fim inesperado");
+        }
+        return at(pos);
+    }
+
+    private int next() {
+        if (pos >= end) {
+            throw error("fim inesperado");
+        }
+        return at(pos++);
+    }
+
+    private int at(int index) {
+        return bytes != null ? bytes[index] & 0xFF : chars.charAt(index);
+    }
+
+    private static byte[] base64Table() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = (byte) i;
+        }
+        table['+'] = 62;
+        table['-'] = 62;
+        table['/'] = 63;
+        table['_'] = 63;
+        return table;
+    }
+
+    private IllegalArgumentException error(String detail) {
+        return new IllegalArgumentException("JSON invalido: " + detail + " (posicao " + pos + ")");
+    }
+}
@@ -2,8 +2,6 @@ package com.javatitan.engine;
 
 import java.math.BigDecimal;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public final class JsonUtils {
     private JsonUtils() {}
@@ -17,12 +15,11 @@ public final class JsonUtils {
     }
 
     public static String readString(String json, String key) {
-        Pattern pattern = Pattern.compile("\\\"" + Pattern.quote(key) + "\\\"\\s*:\\s*\\\"([^\\\"]*)\\\"");
-        Matcher matcher = pattern.matcher(json);
-        if (matcher.find()) {
-            return matcher.group(1);
+        JsonCursor cursor = seek(json, key);
+        if (cursor == null || !cursor.isString()) {
+            return null;
         }
-        return null;
+        return cursor.readString();
     }
 
     public static BigDecimal readRequiredBigDecimal(String json, String key) {
@@ -54,13 +51,11 @@ public final class JsonUtils {
     }
 
     public static String readNumber(String json, String key) {
-        Pattern pattern = Pattern.compile("\\\"" + Pattern.quote(key)
-            + "\\\"\\s*:\\s*([-+]?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?)");
-        Matcher matcher = pattern.matcher(json);
-        if (matcher.find()) {
-            return matcher.group(1);
+        JsonCursor cursor = seek(json, key);
+        if (cursor == null || !cursor.isNumber()) {
+            return null;
         }
-        return null;
+        return cursor.readNumberText();
     }
 
     public static UUID readRequiredUuid(String json, String key) {
@@ -84,6 +79,21 @@ public final class JsonUtils {
             .replace("\t", "\\t");
     }
 
+    private static JsonCursor seek(String json, String key) {
+        if (json == null) {
+            return null;
+        }
+        JsonCursor cursor = JsonCursor.of(json);
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            if (cursor.fieldIs(key)) {
+                return cursor;
+            }
+            cursor.skipValue();
+        }
+        return null;
+    }
+
     private static BigDecimal parseBigDecimal(String raw, String key) {
         try {
             return new BigDecimal(raw);
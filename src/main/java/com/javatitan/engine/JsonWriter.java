@@ -0,0 +1,386 @@
+package com.javatitan.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+public final class JsonWriter {
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+        .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RELEASED = new byte[0];
+    private static final ThreadLocal<JsonWriter> LOCAL = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] buffer;
+    private PooledBuffer pooled;
+    private int size;
+    private boolean needsComma;
+
+    public JsonWriter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public JsonWriter(int capacity) {
+        this.buffer = new byte[Math.max(16, capacity)];
+    }
+
+    private JsonWriter(PooledBuffer pooled) {
+        this.pooled = pooled;
+        this.buffer = pooled.array();
+    }
+
+    // Reaproveita o buffer da thread; o conteudo anterior e descartado.
+    // Em virtual threads o ThreadLocal nao se repete entre requisicoes, entao o buffer vem do pool.
+    public static JsonWriter local() {
+        if (EngineExecutors.currentThreadVirtual()) {
+            return new JsonWriter(BufferPool.heap().acquire(INITIAL_CAPACITY));
+        }
+        return LOCAL.get().reset();
+    }
+
+    public JsonWriter reset() {
+        if (pooled == null && buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        size = 0;
+        needsComma = false;
+        return this;
+    }
+
+    public void release() {
+        if (pooled != null) {
+            pooled.close();
+            pooled = null;
+            buffer = RELEASED;
+            size = 0;
+        }
+    }
+
+    public JsonWriter beginObject() {
+        separator();
+        append('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        append('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separator();
+        append('[');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        append(']');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separator();
+        writeQuoted(name);
+        append(':');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter raw(String json) {
+        separator();
+        int length = json.length();
+        ensure(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = json.charAt(i);
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else {
+                i = writeMultiByte(json, i, c);
+            }
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            writeQuoted(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separator();
+        writeLong(value);
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separator();
+        writeAscii(value ? "true" : "false");
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(BigDecimal value) {
+        separator();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            writeDecimal(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter money(BigDecimal value) {
+        return value(value == null ? null : value.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    public JsonWriter value(UUID value) {
+        separator();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            ensure(38);
+            buffer[size++] = '"';
+            writeHex(value.getMostSignificantBits() >>> 32, 8);
+            buffer[size++] = '-';
+            writeHex(value.getMostSignificantBits() >>> 16, 4);
+            buffer[size++] = '-';
+            writeHex(value.getMostSignificantBits(), 4);
+            buffer[size++] = '-';
+            writeHex(value.getLeastSignificantBits() >>> 48, 4);
+            buffer[size++] = '-';
+            writeHex(value.getLeastSignificantBits(), 12);
+            buffer[size++] = '"';
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter base64Value(byte[] data) {
+        return base64Value(data, 0, data.length);
+    }
+
+    public JsonWriter base64Value(byte[] data, int offset, int length) {
+        separator();
+        ensure(((length + 2) / 3) * 4 + 2);
+        buffer[size++] = '"';
+        int end = offset + length;
+        int i = offset;
+        while (i + 3 <= end) {
+            int bits = (data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF);
+            buffer[size++] = BASE64[bits >>> 18];
+            buffer[size++] = BASE64[(bits >>> 12) & 0x3F];
+            buffer[size++] = BASE64[(bits >>> 6) & 0x3F];
+            buffer[size++] = BASE64[bits & 0x3F];
+            i += 3;
+        }
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (data[i] & 0xFF) << 16 | (remaining == 2 ? (data[i + 1] & 0xFF) << 8 : 0);
+            buffer[size++] = BASE64[bits >>> 18];
+            buffer[size++] = BASE64[(bits >>> 12) & 0x3F];
+            buffer[size++] = remaining == 2 ? BASE64[(bits >>> 6) & 0x3F] : (byte) '=';
+            buffer[size++] = '=';
+        }
+        buffer[size++] = '"';
+        needsComma = true;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void separator() {
+        if (needsComma) {
+            append(',');
+        }
+    }
+
+    private void append(char c) {
+        ensure(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void writeAscii(String value) {
+        int length = value.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeQuoted(String value) {
+        int length = value.length();
+        ensure(length * 6 + 2);
+        buffer[size++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buffer[size++] = (byte) c;
+            } else if (c < 0x80) {
+                writeEscape(c);
+            } else {
+                i = writeMultiByte(value, i, c);
+            }
+        }
+        buffer[size++] = '"';
+    }
+
+    private int writeMultiByte(String value, int i, char c) {
+        if (c < 0x800) {
+            buffer[size++] = (byte) (0xC0 | (c >> 6));
+            buffer[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++i));
+            buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer[size++] = '?';
+        } else {
+            buffer[size++] = (byte) (0xE0 | (c >> 12));
+            buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    private void writeEscape(char c) {
+        buffer[size++] = '\\';
+        switch (c) {
+            case '"' -> buffer[size++] = '"';
+            case '\\' -> buffer[size++] = '\\';
+            case '\n' -> buffer[size++] = 'n';
+            case '\r' -> buffer[size++] = 'r';
+            case '\t' -> buffer[size++] = 't';
+            case '\b' -> buffer[size++] = 'b';
+            case '\f' -> buffer[size++] = 'f';
+            default -> {
+                buffer[size++] = 'u';
+                buffer[size++] = '0';
+                buffer[size++] = '0';
+                buffer[size++] = HEX[c >> 4];
+                buffer[size++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = digitCount(value);
+        int position = size + digits;
+        do {
+            buffer[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        size += digits;
+    }
+
+    private void writeDecimal(BigDecimal value) {
+        int scale = value.scale();
+        if (scale < 0 || scale > 18 || value.precision() > 18) {
+            writeAscii(value.toPlainString());
+            return;
+        }
+        long unscaled = value.unscaledValue().longValue();
+        if (unscaled < 0) {
+            append('-');
+            unscaled = -unscaled;
+        }
+        if (scale == 0) {
+            writeLong(unscaled);
+            return;
+        }
+        int digits = Math.max(digitCount(unscaled), scale + 1);
+        ensure(digits + 1);
+        int position = size + digits + 1;
+        for (int i = 0; i < digits; i++) {
+            if (i == scale) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (byte) ('0' + (unscaled % 10));
+            unscaled /= 10;
+        }
+        size += digits + 1;
+    }
+
+    private void writeHex(long bits, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            buffer[size++] = HEX[(int) ((bits >>> shift) & 0xF)];
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        long limit = 10;
+        while (digits < 19 && value >= limit) {
+            digits++;
+            limit *= 10;
+        }
+        return digits;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra <= buffer.length) {
+            return;
+        }
+        int capacity = Math.max(buffer.length, 16);
+        while (capacity < size + extra) {
+            capacity = capacity << 1;
+        }
+        if (pooled == null) {
+            buffer = Arrays.copyOf(buffer, capacity);
+            return;
+        }
+        PooledBuffer grown = BufferPool.heap().acquire(capacity);
+        System.arraycopy(buffer, 0, grown.array(), 0, size);
+        pooled.close();
+        pooled = grown;
+        buffer = grown.array();
+    }
+}
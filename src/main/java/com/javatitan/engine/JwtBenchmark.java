@@ -0,0 +1,66 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+public class JwtBenchmark {
+    private static final String SECRET = "benchmark-secret-com-32-bytes-ou-mais";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = 200_000;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = BenchmarkSupport.parseInt("--iterations", arg.substring("--iterations=".length()));
+            } else if ("--help".equals(arg)) {
+                System.out.println("Uso: java -cp out com.javatitan.engine.JwtBenchmark [--iterations=N]");
+                System.exit(0);
+            }
+        }
+        JwtConfig config = new JwtConfig(SECRET, "javatitan", "javatitan-api", true, 0L);
+        JwtVerifier verifier = new JwtVerifier(config);
+        String valido = TokenGenerator.generateToken(SECRET, "PRO", 3600, "javatitan", "javatitan-api");
+        String expirado = TokenGenerator.generateToken(SECRET, "PRO", 0, "javatitan", "javatitan-api");
+        char ultimo = valido.charAt(valido.length() - 1);
+        String forjado = valido.substring(0, valido.length() - 1) + (ultimo == 'A' ? 'Q' : 'A');
+        int warmup = Math.max(10_000, iterations / 4);
+
+        System.out.println("cenario,iteracoes,nsPorOp,opsPorSeg,bytesPorOp");
+        for (String[] cenario : new String[][] {{"valido", valido}, {"expirado", expirado}, {"forjado", forjado}}) {
+            String token = cenario[1];
+            print(BenchmarkSupport.measure(cenario[0] + "-legado", warmup, iterations, () -> Legado.verify(token, config)));
+            print(BenchmarkSupport.measure(cenario[0] + "-verifier", warmup, iterations, () -> verifier.verify(token).ok()));
+        }
+    }
+
+    private static void print(BenchmarkSupport.Measurement measurement) {
+        System.out.println(measurement.csv());
+    }
+
+    // Copia do caminho anterior de ValidadorSeguranca (split, Base64 em String, Mac por token), mantida apenas para comparacao.
+    private static final class Legado {
+        static boolean verify(String token, JwtConfig config) throws Exception {
+            String[] partes = token.split("\\.");
+            if (partes.length != 3) {
+                return false;
+            }
+            byte[] header = Base64.getUrlDecoder().decode(partes[0]);
+            byte[] payload = Base64.getUrlDecoder().decode(partes[1]);
+            if (!JsonBinders.jwtHs256(JsonCursor.of(header))) {
+                return false;
+            }
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(config.secret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] raw = mac.doFinal((partes[0] + "." + partes[1]).getBytes(StandardCharsets.UTF_8));
+            String esperado = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+            if (!esperado.equals(partes[2])) {
+                return false;
+            }
+            JwtClaims claims = JsonBinders.jwtClaims(JsonCursor.of(payload), true, true);
+            return claims.exp() != null && claims.exp() + config.clockSkewSeconds() > Instant.now().getEpochSecond()
+                && config.issuer().equals(claims.issuer()) && config.audience().equals(claims.audience());
+        }
+    }
+}
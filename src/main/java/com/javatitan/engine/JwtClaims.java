@@ -0,0 +1,3 @@
+package com.javatitan.engine;
+
+public record JwtClaims(String subject, String plan, Long exp, String issuer, String audience) {}
@@ -0,0 +1,242 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Verificador HS256 criado uma vez por JwtConfig: Mac ja inicializado por thread, token lido como bytes ASCII
+// num buffer de trabalho e assinatura comparada em bytes crus, sem String intermediaria.
+public final class JwtVerifier {
+    private static final String HMAC_ALG = "HmacSHA256";
+    private static final int SIGNATURE_SIZE = 32;
+    private static final int SIGNATURE_CHARS = 43;
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    private static final byte[] BASE64URL = base64UrlTable();
+
+    private final JwtConfig config;
+    private final SecretKeySpec key;
+    private final ThreadLocal<State> local = ThreadLocal.withInitial(State::new);
+    private final ConcurrentLinkedQueue<State> pool = new ConcurrentLinkedQueue<>();
+
+    public JwtVerifier(JwtConfig config) {
+        this.config = config;
+        this.key = new SecretKeySpec(config.secret().getBytes(StandardCharsets.UTF_8), HMAC_ALG);
+        // Falha no boot se a JVM nao oferecer HmacSHA256, em vez de rejeitar todo token depois.
+        new State();
+    }
+
+    public JwtConfig config() {
+        return config;
+    }
+
+    public Result verify(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return Result.erro("formato invalido");
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return Result.erro("formato invalido");
+        }
+        State state = acquire();
+        try {
+            return verify(state, token, firstDot, secondDot);
+        } finally {
+            release(state);
+        }
+    }
+
+    private Result verify(State state, String token, int firstDot, int secondDot) {
+        int length = token.length();
+        byte[] buf = state.buffer(length);
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return Result.erro("formato invalido");
+            }
+            buf[i] = (byte) c;
+        }
+        // Layout do buffer: token ASCII | HMAC esperado (32) | assinatura decodificada (32) | JSON decodificado.
+        int macOffset = length;
+        int signatureOffset = macOffset + SIGNATURE_SIZE;
+        int jsonOffset = signatureOffset + SIGNATURE_SIZE;
+
+        int headerLength = decode(buf, 0, firstDot, buf, jsonOffset);
+        if (headerLength < 0) {
+            return Result.erro("base64 invalido");
+        }
+        try {
+            if (!JsonBinders.jwtHs256(JsonCursor.of(buf, jsonOffset, headerLength))) {
+                return Result.erro("alg nao suportado");
+            }
+        } catch (IllegalArgumentException ex) {
+            return Result.erro("header invalido");
+        }
+
+        if (length - secondDot - 1 != SIGNATURE_CHARS
+            || decode(buf, secondDot + 1, length, buf, signatureOffset) != SIGNATURE_SIZE) {
+            return Result.erro("assinatura invalida");
+        }
+        try {
+            state.mac.update(buf, 0, secondDot);
+            state.mac.doFinal(buf, macOffset);
+        } catch (GeneralSecurityException ex) {
+            state.mac.reset();
+            return Result.erro("assinatura invalida");
+        }
+        if (!constantTimeEquals(buf, macOffset, signatureOffset, SIGNATURE_SIZE)) {
+            return Result.erro("assinatura invalida");
+        }
+
+        int payloadLength = decode(buf, firstDot + 1, secondDot, buf, jsonOffset);
+        if (payloadLength < 0) {
+            return Result.erro("base64 invalido");
+        }
+        JwtClaims claims;
+        try {
+            claims = JsonBinders.jwtClaims(JsonCursor.of(buf, jsonOffset, payloadLength),
+                config.issuer() != null, config.audience() != null);
+        } catch (IllegalArgumentException ex) {
+            return Result.erro("claims invalidas");
+        }
+        if (!validarClaims(claims)) {
+            return Result.erro("claims invalidas");
+        }
+        String plan = claims.plan();
+        if (plan == null || plan.isBlank()) {
+            return Result.erro("claim plan ausente");
+        }
+        return Result.ok(claims, plan.trim());
+    }
+
+    private boolean validarClaims(JwtClaims claims) {
+        if (config.requireExp()) {
+            Long exp = claims.exp();
+            if (exp == null) {
+                return false;
+            }
+            long now = Instant.now().getEpochSecond();
+            long skew = Math.max(0, config.clockSkewSeconds());
+            if (exp + skew <= now) {
+                return false;
+            }
+        }
+        if (config.issuer() != null && !config.issuer().equals(claims.issuer())) {
+            return false;
+        }
+        return config.audience() == null || config.audience().equals(claims.audience());
+    }
+
+    // Base64 URL-safe canonico de src[from, to) para dst[offset]; aceita padding final. Retorna o tamanho ou -1.
+    private static int decode(byte[] src, int from, int to, byte[] dst, int offset) {
+        while (to > from && src[to - 1] == '=') {
+            to--;
+        }
+        int out = offset;
+        int bits = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int value = BASE64URL[src[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                dst[out++] = (byte) (bits >> 16);
+                dst[out++] = (byte) (bits >> 8);
+                dst[out++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 1) {
+            return -1;
+        }
+        // Bits de sobra no fim precisam ser zero: senao ate 4 textos diferentes decodificam para a mesma assinatura
+        // (token maleavel, uma entrada a mais no TokenCache por variante).
+        if (count == 2) {
+            if ((bits & 0xF) != 0) {
+                return -1;
+            }
+            dst[out++] = (byte) (bits >> 4);
+        } else if (count == 3) {
+            if ((bits & 0x3) != 0) {
+                return -1;
+            }
+            dst[out++] = (byte) (bits >> 10);
+            dst[out++] = (byte) (bits >> 2);
+        }
+        return out - offset;
+    }
+
+    private static boolean constantTimeEquals(byte[] buf, int a, int b, int length) {
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            result |= buf[a + i] ^ buf[b + i];
+        }
+        return result == 0;
+    }
+
+    private static byte[] base64UrlTable() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = (byte) i;
+        }
+        return table;
+    }
+
+    // Mesmo criterio do CryptoSession: ThreadLocal em threads de plataforma, pool em virtual threads.
+    private State acquire() {
+        if (!EngineExecutors.currentThreadVirtual()) {
+            return local.get();
+        }
+        State state = pool.poll();
+        return state != null ? state : new State();
+    }
+
+    private void release(State state) {
+        if (EngineExecutors.currentThreadVirtual()) {
+            pool.offer(state);
+        }
+    }
+
+    public record Result(boolean ok, JwtClaims claims, String plan, String error) {
+        static Result ok(JwtClaims claims, String plan) {
+            return new Result(true, claims, plan, null);
+        }
+
+        static Result erro(String error) {
+            return new Result(false, null, null, error);
+        }
+    }
+
+    private final class State {
+        private final Mac mac;
+        private byte[] buffer = new byte[1024];
+
+        private State() {
+            try {
+                mac = Mac.getInstance(HMAC_ALG);
+                mac.init(key);
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HmacSHA256 indisponivel: " + ex.getMessage(), ex);
+            }
+        }
+
+        // Token + 64 bytes de HMAC/assinatura + JSON decodificado (<= 3/4 do token).
+        private byte[] buffer(int tokenLength) {
+            int needed = tokenLength * 2 + 2 * SIGNATURE_SIZE;
+            if (buffer.length < needed) {
+                buffer = new byte[needed];
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.javatitan.engine;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de latencia em microssegundos, no estilo HDR: baldes lineares ate 64 us e, acima, 32 sub-baldes por
+// potencia de 2 (erro relativo <= ~3%), ate ~2,4 h. Cada registro cai numa faixa (stripe) sorteada pelo
+// ThreadLocalRandom, sem lock; ate 8 faixas de 962 longs, ~62 KB por histograma.
+// intervalSnapshot() zera cada balde com getAndSet: uma escrita concorrente cai neste intervalo ou no proximo,
+// nunca se perde. O acumulado desde o boot soma os intervalos ja lidos com o que ainda esta nas faixas.
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2;
+    private static final int MAX_EXPONENT = 33;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+    // Depois dos baldes, cada faixa guarda soma e maximo do intervalo.
+    private static final int SUM_SLOT = BUCKETS;
+    private static final int MAX_SLOT = BUCKETS + 1;
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final long[] total = new long[BUCKETS];
+    private long totalSum;
+    private long totalMax;
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    public void record(long micros) {
+        long value = micros < 0 ? 0 : Math.min(micros, MAX_VALUE);
+        AtomicLongArray stripe = stripes[ThreadLocalRandom.current().nextInt(STRIPES)];
+        stripe.getAndIncrement(index(value));
+        stripe.getAndAdd(SUM_SLOT, value);
+        long max;
+        do {
+            max = stripe.get(MAX_SLOT);
+        } while (value > max && !stripe.compareAndSet(MAX_SLOT, max, value));
+    }
+
+    // Desde o ultimo intervalSnapshot(); zera as faixas e acumula no total.
+    public synchronized Snapshot intervalSnapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (stripe.get(i) != 0) {
+                    counts[i] += stripe.getAndSet(i, 0);
+                }
+            }
+            sum += stripe.getAndSet(SUM_SLOT, 0);
+            max = Math.max(max, stripe.getAndSet(MAX_SLOT, 0));
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            total[i] += counts[i];
+        }
+        totalSum += sum;
+        totalMax = Math.max(totalMax, max);
+        return Snapshot.of(counts, sum, max);
+    }
+
+    // Desde o boot, sem zerar nada.
+    public synchronized Snapshot snapshot() {
+        long[] counts = cumulativeCounts();
+        long max = totalMax;
+        for (AtomicLongArray stripe : stripes) {
+            max = Math.max(max, stripe.get(MAX_SLOT));
+        }
+        return Snapshot.of(counts, cumulativeSum(), max);
+    }
+
+    // Acumulado desde o boot em limites fixos (le do Prometheus). Um balde entra no primeiro limite >= seu maior
+    // valor, entao a contagem de cada limite pode ficar ate ~3% atrasada, nunca adiantada.
+    public synchronized Buckets buckets(long[] upperBoundsMicros) {
+        long[] counts = cumulativeCounts();
+        long[] cumulative = new long[upperBoundsMicros.length];
+        long count = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            long highest = highestValue(i);
+            while (bound < upperBoundsMicros.length && upperBoundsMicros[bound] < highest) {
+                cumulative[bound++] = count;
+            }
+            count += counts[i];
+        }
+        while (bound < upperBoundsMicros.length) {
+            cumulative[bound++] = count;
+        }
+        return new Buckets(cumulative, count, cumulativeSum());
+    }
+
+    private long[] cumulativeCounts() {
+        long[] counts = total.clone();
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    private long cumulativeSum() {
+        long sum = totalSum;
+        for (AtomicLongArray stripe : stripes) {
+            sum += stripe.get(SUM_SLOT);
+        }
+        return sum;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int top = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_COUNT + (top - SUB_COUNT);
+    }
+
+    // Maior valor que cai no balde: o percentil nunca fica abaixo do valor real.
+    static long highestValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_COUNT + 1;
+        long top = (index - LINEAR_LIMIT) % SUB_COUNT + SUB_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+
+    // Proxima potencia de 2 >= numero de CPUs, ate 8.
+    private static int stripes() {
+        int cpus = Math.min(8, Runtime.getRuntime().availableProcessors());
+        return cpus <= 1 ? 1 : Integer.highestOneBit(cpus - 1) << 1;
+    }
+
+    // cumulative[i] = registros <= upperBoundsMicros[i]; count equivale ao +Inf.
+    public record Buckets(long[] cumulative, long count, long sumMicros) {}
+
+    public record Snapshot(long count, long sumMicros, long maxMicros, long p50Micros, long p90Micros, long p99Micros,
+                           long p999Micros) {
+        static Snapshot of(long[] counts, long sum, long max) {
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            return new Snapshot(count, sum, max, percentile(counts, count, max, 0.50), percentile(counts, count, max, 0.90),
+                percentile(counts, count, max, 0.99), percentile(counts, count, max, 0.999));
+        }
+
+        private static long percentile(long[] counts, long count, long max, double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long avgMicros() {
+            return count == 0 ? 0 : sumMicros / count;
+        }
+    }
+}
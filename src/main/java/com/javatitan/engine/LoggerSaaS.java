@@ -1,16 +1,54 @@
 package com.javatitan.engine;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
+// Com um AsyncLogAppender instalado (servidor no ar) a mensagem vai para o anel e a thread de escrita formata e
+// escreve; antes do startServer, depois do close e nas ferramentas de linha de comando escreve direto no stdout.
 public class LoggerSaaS {
+    private static volatile AsyncLogAppender appender;
+
     public static void log(String level, String message) {
+        AsyncLogAppender current = appender;
+        if (current != null && current.append(level, null, message)) {
+            return;
+        }
         String timestamp = LocalDateTime.now().toString();
         System.out.printf("[%s] [%s] %s%n", timestamp, level, message);
     }
 
     public static void log(String level, String requestId, String message) {
-        String timestamp = LocalDateTime.now().toString();
         String id = (requestId == null) ? "-" : requestId;
+        AsyncLogAppender current = appender;
+        if (current != null && current.append(level, id, message)) {
+            return;
+        }
+        String timestamp = LocalDateTime.now().toString();
         System.out.printf("[%s] [%s] [%s] %s%n", timestamp, level, id, message);
     }
+
+    // null com JAVATITAN_LOG_ASYNC=false. Um segundo servidor na mesma JVM substitui o appender do primeiro, que e
+    // fechado aqui (thread de escrita e arquivo); o uninstall do primeiro servidor vira um close repetido, sem efeito.
+    static synchronized AsyncLogAppender install(AppConfig config) throws IOException {
+        if (!config.logAsync()) {
+            return null;
+        }
+        AsyncLogAppender started = AsyncLogAppender.start(config);
+        AsyncLogAppender previous = appender;
+        appender = started;
+        if (previous != null) {
+            previous.close();
+        }
+        return started;
+    }
+
+    // Desinstala (se ainda for o atual) e escreve o que estava no anel.
+    static void uninstall(AsyncLogAppender installed) {
+        synchronized (LoggerSaaS.class) {
+            if (appender == installed) {
+                appender = null;
+            }
+        }
+        installed.close();
+    }
 }
@@ -1,10 +1,23 @@
 package com.javatitan.engine;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
+// Agregados em JSON (writeJson) e as mesmas fontes no formato texto do Prometheus (writePrometheus). Contadores
+// com rotulos sao handles de CounterFamily resolvidos no boot; gauges e totais dos componentes saem dos snapshots
+// de cada um na hora do scrape.
 public class MetricsRegistry {
+    // Limites (le) do histograma de latencia no Prometheus, em microssegundos; o timeout padrao (12 s) cai antes de 30 s.
+    private static final long[] LATENCY_BOUNDS_MICROS = {
+        500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+        1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000};
+    private static final String[] LATENCY_BOUNDS_LABELS = boundLabels(LATENCY_BOUNDS_MICROS);
     private final LongAdder totalRequests = new LongAdder();
     private final LongAdder successRequests = new LongAdder();
     private final LongAdder failureRequests = new LongAdder();
@@ -12,6 +25,94 @@ public class MetricsRegistry {
     private final AtomicLong minDurationMs = new AtomicLong(Long.MAX_VALUE);
     private final AtomicLong maxDurationMs = new AtomicLong(0);
     private final AtomicLong lastRequestAtMs = new AtomicLong(0);
+    private final List<InstrumentedExecutor> executors = new CopyOnWriteArrayList<>();
+    private final List<BufferPool> bufferPools = new CopyOnWriteArrayList<>();
+    private final Map<String, RequestPipeline<?>> pipelines = new ConcurrentHashMap<>();
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, CounterFamily> counters = new ConcurrentHashMap<>();
+    private final CounterFamily requests = counter("javatitan_requests_total",
+        "Requisicoes respondidas por endpoint, status e plano (none antes de validar o token).", "endpoint", "status", "plan");
+    private final CounterFamily rejections = counter("javatitan_rejections_total",
+        "Recusas 4xx por endpoint e motivo (etapa do pipeline que recusou).", "endpoint", "reason");
+    private volatile NioHttpServer frontend;
+    private volatile AdaptiveConcurrencyLimiter admission;
+    private volatile IdempotencyCache idempotency;
+    private volatile PlanScheduler scheduler;
+    private volatile CryptoSession crypto;
+    private volatile TokenCache tokenCache;
+    private volatile TieredRateLimiter rateLimiter;
+    private volatile ClusterGossip cluster;
+    private volatile RequestTracer tracer;
+    private volatile AsyncLogAppender logger;
+
+    public void registerExecutor(InstrumentedExecutor executor) {
+        executors.add(executor);
+    }
+
+    public void registerBufferPool(BufferPool pool) {
+        bufferPools.add(pool);
+    }
+
+    public void registerFrontend(NioHttpServer server) {
+        this.frontend = server;
+    }
+
+    public void registerAdmission(AdaptiveConcurrencyLimiter limiter) {
+        this.admission = limiter;
+    }
+
+    public void registerIdempotency(IdempotencyCache cache) {
+        this.idempotency = cache;
+    }
+
+    public void registerScheduler(PlanScheduler planScheduler) {
+        this.scheduler = planScheduler;
+    }
+
+    public void registerCrypto(CryptoSession session) {
+        this.crypto = session;
+    }
+
+    public void registerTokenCache(TokenCache cache) {
+        this.tokenCache = cache;
+    }
+
+    public void registerRateLimiter(TieredRateLimiter limiter) {
+        this.rateLimiter = limiter;
+    }
+
+    public void registerCluster(ClusterGossip gossip) {
+        this.cluster = gossip;
+    }
+
+    public void registerTracer(RequestTracer requestTracer) {
+        this.tracer = requestTracer;
+    }
+
+    public void registerLogger(AsyncLogAppender appender) {
+        this.logger = appender;
+    }
+
+    public void registerPipeline(String name, RequestPipeline<?> pipeline) {
+        pipelines.put(name, pipeline);
+    }
+
+    // Familia nova ou a ja registrada com o mesmo nome; chamar no boot.
+    public CounterFamily counter(String name, String help, String... labelNames) {
+        return counters.computeIfAbsent(name, n -> new CounterFamily(n, help, labelNames));
+    }
+
+    // Resolvido uma vez por handler, no boot.
+    public EndpointMetrics endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new EndpointMetrics(e, requests, rejections));
+    }
+
+    // plano null = requisicao respondida antes de o token ser validado.
+    public void record(EndpointMetrics endpoint, int status, Plano plano, long startedAtNanos) {
+        long nanos = Math.max(0L, System.nanoTime() - startedAtNanos);
+        record(status < 400, nanos / 1_000_000L);
+        endpoint.record(status, plano, nanos / 1_000L);
+    }
 
     public void record(boolean success, long durationMs) {
         totalRequests.increment();
@@ -27,26 +128,600 @@ public class MetricsRegistry {
     }
 
     public String toJson(boolean secureMode) {
+        return writeJson(new JsonWriter(), secureMode).toString();
+    }
+
+    public JsonWriter writeJson(JsonWriter json, boolean secureMode) {
+        return writeJson(json, secureMode, false);
+    }
+
+    // interval = true: latencias desde a ultima chamada com interval, zerando a janela.
+    public JsonWriter writeJson(JsonWriter json, boolean secureMode, boolean interval) {
         long total = totalRequests.sum();
-        long success = successRequests.sum();
-        long failure = failureRequests.sum();
         long totalDuration = totalDurationMs.sum();
-        long avg = total == 0 ? 0 : totalDuration / total;
         long min = minDurationMs.get();
-        long max = maxDurationMs.get();
         long last = lastRequestAtMs.get();
-        String lastIso = last == 0 ? "" : Instant.ofEpochMilli(last).toString();
 
-        return "{" +
-            "\"totalRequests\":" + total + "," +
-            "\"successRequests\":" + success + "," +
-            "\"failureRequests\":" + failure + "," +
-            "\"avgDurationMs\":" + avg + "," +
-            "\"minDurationMs\":" + (min == Long.MAX_VALUE ? 0 : min) + "," +
-            "\"maxDurationMs\":" + max + "," +
-            "\"secureMode\":" + secureMode + "," +
-            "\"lastRequestAt\":\"" + JsonUtils.escapeJson(lastIso) + "\"" +
-            "}";
+        json.beginObject()
+            .name("totalRequests").value(total)
+            .name("successRequests").value(successRequests.sum())
+            .name("failureRequests").value(failureRequests.sum())
+            .name("avgDurationMs").value(total == 0 ? 0 : totalDuration / total)
+            .name("minDurationMs").value(min == Long.MAX_VALUE ? 0 : min)
+            .name("maxDurationMs").value(maxDurationMs.get())
+            .name("secureMode").value(secureMode)
+            .name("lastRequestAt").value(last == 0 ? "" : Instant.ofEpochMilli(last).toString());
+        writeLatency(json, interval);
+        writeExecutors(json);
+        writeBufferPools(json);
+        writeFrontend(json);
+        writeAdmission(json);
+        writeIdempotency(json);
+        writeScheduler(json);
+        writeCrypto(json);
+        writeTokenCache(json);
+        writeRateLimiter(json);
+        writeCluster(json);
+        writeTracing(json);
+        writeLogging(json);
+        writePipelines(json);
+        return json.endObject();
+    }
+
+    public String toPrometheus(boolean secureMode) {
+        return writePrometheus(new PrometheusWriter(), secureMode).toString();
+    }
+
+    // Sempre acumulado desde o boot: o Prometheus calcula as taxas com rate().
+    public PrometheusWriter writePrometheus(PrometheusWriter out, boolean secureMode) {
+        out.single("javatitan_secure_mode", "gauge", "1 quando o modo seguro (AEAD) esta ativo.", secureMode ? 1 : 0);
+        long last = lastRequestAtMs.get();
+        out.family("javatitan_last_request_timestamp_seconds", "gauge", "Instante da ultima requisicao respondida.")
+            .sample("javatitan_last_request_timestamp_seconds", last / 1000.0);
+        for (CounterFamily family : counters.values()) {
+            family.write(out);
+        }
+        writeLatency(out);
+        writeExecutors(out);
+        writeBufferPools(out);
+        writeFrontend(out);
+        writeAdmission(out);
+        writeIdempotency(out);
+        writeScheduler(out);
+        writeCrypto(out);
+        writeTokenCache(out);
+        writeRateLimiter(out);
+        writeCluster(out);
+        writeTracing(out);
+        writeLogging(out);
+        writePipelines(out);
+        return out;
+    }
+
+    private void writeLatency(PrometheusWriter out) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        String name = "javatitan_request_duration_seconds";
+        out.family(name, "histogram", "Latencia por endpoint e classe de status.");
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            for (int i = 0; i < endpoint.classes.length; i++) {
+                LatencyHistogram histogram = endpoint.classes[i];
+                if (histogram == null) {
+                    continue;
+                }
+                LatencyHistogram.Buckets b = histogram.buckets(LATENCY_BOUNDS_MICROS);
+                String path = endpoint.path;
+                String statusClass = EndpointMetrics.CLASSES[i];
+                for (int bound = 0; bound < LATENCY_BOUNDS_LABELS.length; bound++) {
+                    out.sample(name + "_bucket", b.cumulative()[bound],
+                        "endpoint", path, "class", statusClass, "le", LATENCY_BOUNDS_LABELS[bound]);
+                }
+                out.sample(name + "_bucket", b.count(), "endpoint", path, "class", statusClass, "le", "+Inf")
+                    .sample(name + "_sum", b.sumMicros() / 1_000_000.0, "endpoint", path, "class", statusClass)
+                    .sample(name + "_count", b.count(), "endpoint", path, "class", statusClass);
+            }
+        }
+    }
+
+    private void writeExecutors(PrometheusWriter out) {
+        if (executors.isEmpty()) {
+            return;
+        }
+        List<InstrumentedExecutor.Snapshot> snapshots = executors.stream().map(InstrumentedExecutor::snapshot).toList();
+        String tasks = "javatitan_executor_tasks_total";
+        out.family(tasks, "counter", "Tarefas por executor e desfecho.");
+        for (InstrumentedExecutor.Snapshot s : snapshots) {
+            out.sample(tasks, s.submitted(), "executor", s.name(), "outcome", "submitted")
+                .sample(tasks, s.completed(), "executor", s.name(), "outcome", "completed")
+                .sample(tasks, s.failed(), "executor", s.name(), "outcome", "failed")
+                .sample(tasks, s.rejected(), "executor", s.name(), "outcome", "rejected");
+        }
+        out.family("javatitan_executor_active", "gauge", "Tarefas em execucao.");
+        for (InstrumentedExecutor.Snapshot s : snapshots) {
+            out.sample("javatitan_executor_active", s.active(), "executor", s.name());
+        }
+        out.family("javatitan_executor_queued", "gauge", "Tarefas na fila.");
+        for (InstrumentedExecutor.Snapshot s : snapshots) {
+            out.sample("javatitan_executor_queued", s.queued(), "executor", s.name());
+        }
+    }
+
+    private void writeBufferPools(PrometheusWriter out) {
+        if (bufferPools.isEmpty()) {
+            return;
+        }
+        List<BufferPool.Snapshot> snapshots = bufferPools.stream().map(BufferPool::snapshot).toList();
+        out.family("javatitan_buffer_pool_outstanding", "gauge", "Buffers emprestados e ainda nao devolvidos.");
+        for (BufferPool.Snapshot s : snapshots) {
+            out.sample("javatitan_buffer_pool_outstanding", s.outstanding(), "pool", s.name());
+        }
+        out.family("javatitan_buffer_pool_pooled_bytes", "gauge", "Bytes retidos no pool.");
+        for (BufferPool.Snapshot s : snapshots) {
+            out.sample("javatitan_buffer_pool_pooled_bytes", s.pooledBytes(), "pool", s.name());
+        }
+        String acquires = "javatitan_buffer_pool_acquires_total";
+        out.family(acquires, "counter", "Emprestimos por pool e resultado.");
+        for (BufferPool.Snapshot s : snapshots) {
+            out.sample(acquires, s.hits(), "pool", s.name(), "result", "hit")
+                .sample(acquires, s.misses(), "pool", s.name(), "result", "miss")
+                .sample(acquires, s.oversize(), "pool", s.name(), "result", "oversize");
+        }
+    }
+
+    private void writeFrontend(PrometheusWriter out) {
+        NioHttpServer server = frontend;
+        if (server == null) {
+            return;
+        }
+        NioHttpServer.Stats stats = server.stats();
+        out.single("javatitan_frontend_open_connections", "gauge", "Conexoes abertas no frontend NIO.", stats.openConnections())
+            .single("javatitan_frontend_accepted_connections_total", "counter", "Conexoes aceitas.", stats.acceptedConnections())
+            .single("javatitan_frontend_requests_total", "counter", "Requisicoes lidas pelo frontend NIO.", stats.requests());
+    }
+
+    private void writeAdmission(PrometheusWriter out) {
+        AdaptiveConcurrencyLimiter limiter = admission;
+        if (limiter == null) {
+            return;
+        }
+        AdaptiveConcurrencyLimiter.Snapshot s = limiter.snapshot();
+        String decisions = "javatitan_admission_decisions_total";
+        out.single("javatitan_admission_limit", "gauge", "Limite adaptativo de concorrencia.", s.limit())
+            .single("javatitan_admission_in_flight", "gauge", "Requisicoes admitidas em andamento.", s.inFlight())
+            .family(decisions, "counter", "Decisoes do controle de admissao.")
+            .sample(decisions, s.accepted(), "outcome", "accepted")
+            .sample(decisions, s.rejected(), "outcome", "rejected")
+            .sample(decisions, s.dropped(), "outcome", "dropped");
+    }
+
+    private void writeIdempotency(PrometheusWriter out) {
+        IdempotencyCache cache = idempotency;
+        if (cache == null) {
+            return;
+        }
+        IdempotencyCache.Snapshot s = cache.snapshot();
+        String lookups = "javatitan_idempotency_lookups_total";
+        out.single("javatitan_idempotency_entries", "gauge", "Respostas guardadas para replay.", s.size())
+            .family(lookups, "counter", "Consultas de Idempotency-Key por resultado.")
+            .sample(lookups, s.hits(), "result", "hit")
+            .sample(lookups, s.misses(), "result", "miss")
+            .sample(lookups, s.coalesced(), "result", "coalesced")
+            .sample(lookups, s.conflicts(), "result", "conflict");
+    }
+
+    private void writeScheduler(PrometheusWriter out) {
+        PlanScheduler planScheduler = scheduler;
+        if (planScheduler == null) {
+            return;
+        }
+        PlanScheduler.Snapshot s = planScheduler.snapshot();
+        out.single("javatitan_scheduler_running", "gauge", "Calculos em execucao nos slots do escalonador.", s.running());
+        out.family("javatitan_scheduler_queued", "gauge", "Calculos na fila por plano.");
+        for (PlanScheduler.PlanSnapshot plan : s.plans()) {
+            out.sample("javatitan_scheduler_queued", plan.queued(), "plan", plan.plano().name());
+        }
+        String tasks = "javatitan_scheduler_tasks_total";
+        out.family(tasks, "counter", "Calculos por plano e desfecho.");
+        for (PlanScheduler.PlanSnapshot plan : s.plans()) {
+            out.sample(tasks, plan.dispatched(), "plan", plan.plano().name(), "outcome", "dispatched")
+                .sample(tasks, plan.rejected(), "plan", plan.plano().name(), "outcome", "rejected")
+                .sample(tasks, plan.promoted(), "plan", plan.plano().name(), "outcome", "promoted");
+        }
+    }
+
+    private void writeCrypto(PrometheusWriter out) {
+        CryptoSession session = crypto;
+        if (session == null) {
+            return;
+        }
+        String operations = "javatitan_crypto_operations_total";
+        out.family(operations, "counter", "Operacoes AEAD por suite e tipo.");
+        for (CryptoSession.SuiteSnapshot suite : session.snapshot().suites()) {
+            String id = suite.suite().id();
+            out.sample(operations, suite.encrypted(), "suite", id, "operation", "encrypt")
+                .sample(operations, suite.decrypted(), "suite", id, "operation", "decrypt")
+                .sample(operations, suite.failures(), "suite", id, "operation", "failure");
+        }
+    }
+
+    private void writeTokenCache(PrometheusWriter out) {
+        TokenCache cache = tokenCache;
+        if (cache == null) {
+            return;
+        }
+        TokenCache.Snapshot s = cache.snapshot();
+        String lookups = "javatitan_token_cache_lookups_total";
+        out.single("javatitan_token_cache_entries", "gauge", "Tokens validos em cache.", s.size())
+            .family(lookups, "counter", "Consultas ao cache de tokens por resultado.")
+            .sample(lookups, s.hits(), "result", "hit")
+            .sample(lookups, s.negativeHits(), "result", "negative_hit")
+            .sample(lookups, s.misses(), "result", "miss");
+    }
+
+    private void writeRateLimiter(PrometheusWriter out) {
+        TieredRateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            return;
+        }
+        TieredRateLimiter.Snapshot s = limiter.snapshot();
+        String rejected = "javatitan_rate_limit_rejections_total";
+        out.single("javatitan_rate_limit_allowed_total", "counter", "Requisicoes aceitas por todas as camadas.", s.allowed())
+            .single("javatitan_rate_limit_tracked_keys", "gauge", "Tenants e IPs com estado no limitador.", s.trackedKeys())
+            .single("javatitan_rate_limit_ip_rejections_total", "counter", "Recusas do limite por IP, antes do token.", limiter.ipRejected())
+            .family(rejected, "counter", "Recusas de rate limit por camada e plano.");
+        for (TieredRateLimiter.Layer layer : TieredRateLimiter.Layer.values()) {
+            for (Plano plano : Plano.values()) {
+                out.sample(rejected, limiter.rejected(layer, plano), "layer", layer.id(), "plan", plano.name());
+            }
+        }
+    }
+
+    private void writeCluster(PrometheusWriter out) {
+        ClusterGossip gossip = cluster;
+        if (gossip == null) {
+            return;
+        }
+        ClusterGossip.Snapshot s = gossip.snapshot();
+        String packets = "javatitan_cluster_packets_total";
+        out.family(packets, "counter", "Pacotes de gossip por desfecho.")
+            .sample(packets, s.packetsSent(), "outcome", "sent")
+            .sample(packets, s.packetsReceived(), "outcome", "received")
+            .sample(packets, s.packetsRejected(), "outcome", "rejected")
+            .sample(packets, s.sendFailures(), "outcome", "send_failure")
+            .single("javatitan_cluster_deltas_applied_total", "counter", "Deltas de consumo recebidos e aplicados.",
+                s.deltasApplied());
+    }
+
+    private void writeTracing(PrometheusWriter out) {
+        RequestTracer requestTracer = tracer;
+        if (requestTracer == null) {
+            return;
+        }
+        RequestTracer.Snapshot s = requestTracer.snapshot();
+        out.single("javatitan_traces_sampled_total", "counter", "Requisicoes amostradas pelo tracing por etapa.", s.sampled())
+            .single("javatitan_traces_captured_total", "counter", "Traces que entraram entre os mais lentos da janela.", s.captured());
+    }
+
+    private void writeLogging(PrometheusWriter out) {
+        AsyncLogAppender appender = logger;
+        if (appender == null) {
+            return;
+        }
+        AsyncLogAppender.Snapshot s = appender.snapshot();
+        String messages = "javatitan_log_messages_total";
+        out.single("javatitan_log_pending", "gauge", "Mensagens no anel do logger ainda nao escritas.", s.pending())
+            .family(messages, "counter", "Mensagens do logger assincrono por destino final.")
+            .sample(messages, s.written(), "outcome", "written")
+            .sample(messages, s.dropped(), "outcome", "dropped")
+            .single("javatitan_log_blocked_total", "counter", "Chamadas que esperaram vaga no anel (overflow block).", s.blocked())
+            .single("javatitan_log_write_failures_total", "counter", "Lotes do logger que falharam ao escrever.", s.writeFailures());
+    }
+
+    private void writePipelines(PrometheusWriter out) {
+        if (pipelines.isEmpty()) {
+            return;
+        }
+        String stages = "javatitan_pipeline_stage_total";
+        out.family(stages, "counter", "Passagens por etapa do pipeline e desfecho.");
+        for (Map.Entry<String, RequestPipeline<?>> entry : pipelines.entrySet()) {
+            for (RequestPipeline.StageSnapshot stage : entry.getValue().snapshot()) {
+                out.sample(stages, stage.passed(), "endpoint", entry.getKey(), "stage", stage.name(), "outcome", "passed")
+                    .sample(stages, stage.stopped(), "endpoint", entry.getKey(), "stage", stage.name(), "outcome", "stopped")
+                    .sample(stages, stage.failed(), "endpoint", entry.getKey(), "stage", stage.name(), "outcome", "failed");
+            }
+        }
+    }
+
+    private static String[] boundLabels(long[] boundsMicros) {
+        String[] labels = new String[boundsMicros.length];
+        for (int i = 0; i < boundsMicros.length; i++) {
+            labels[i] = BigDecimal.valueOf(boundsMicros[i]).movePointLeft(6).stripTrailingZeros().toPlainString();
+        }
+        return labels;
+    }
+
+    private void writeLatency(JsonWriter json, boolean interval) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        json.name("latency").beginObject()
+            .name("window").value(interval ? "interval" : "total");
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            json.name(entry.getKey()).beginObject();
+            LatencyHistogram[] classes = entry.getValue().classes;
+            for (int i = 0; i < classes.length; i++) {
+                LatencyHistogram histogram = classes[i];
+                if (histogram == null) {
+                    continue;
+                }
+                LatencyHistogram.Snapshot s = interval ? histogram.intervalSnapshot() : histogram.snapshot();
+                json.name(EndpointMetrics.CLASSES[i]).beginObject()
+                    .name("count").value(s.count())
+                    .name("avgMicros").value(s.avgMicros())
+                    .name("p50Micros").value(s.p50Micros())
+                    .name("p90Micros").value(s.p90Micros())
+                    .name("p99Micros").value(s.p99Micros())
+                    .name("p999Micros").value(s.p999Micros())
+                    .name("maxMicros").value(s.maxMicros())
+                    .endObject();
+            }
+            json.endObject();
+        }
+        json.endObject();
+    }
+
+    private void writeScheduler(JsonWriter json) {
+        PlanScheduler planScheduler = scheduler;
+        if (planScheduler == null) {
+            return;
+        }
+        PlanScheduler.Snapshot s = planScheduler.snapshot();
+        json.name("scheduler").beginObject()
+            .name("slots").value(s.slots())
+            .name("running").value(s.running())
+            .name("capacity").value(s.capacity())
+            .name("plans").beginObject();
+        for (PlanScheduler.PlanSnapshot plan : s.plans()) {
+            json.name(plan.plano().name()).beginObject()
+                .name("weight").value(plan.weight())
+                .name("queued").value(plan.queued())
+                .name("dispatched").value(plan.dispatched())
+                .name("rejected").value(plan.rejected())
+                .name("promoted").value(plan.promoted())
+                .name("avgWaitMicros").value(plan.avgWaitMicros())
+                .name("maxWaitMicros").value(plan.maxWaitMicros())
+                .endObject();
+        }
+        json.endObject().endObject();
+    }
+
+    private void writeCrypto(JsonWriter json) {
+        CryptoSession session = crypto;
+        if (session == null) {
+            return;
+        }
+        CryptoSession.Snapshot s = session.snapshot();
+        json.name("crypto").beginObject()
+            .name("defaultSuite").value(s.defaultSuite().id())
+            .name("suites").beginObject();
+        for (CryptoSession.SuiteSnapshot suite : s.suites()) {
+            json.name(suite.suite().id()).beginObject()
+                .name("encrypted").value(suite.encrypted())
+                .name("decrypted").value(suite.decrypted())
+                .name("failures").value(suite.failures())
+                .name("bytes").value(suite.bytes())
+                .endObject();
+        }
+        json.endObject().endObject();
+    }
+
+    private void writeTokenCache(JsonWriter json) {
+        TokenCache cache = tokenCache;
+        if (cache == null) {
+            return;
+        }
+        TokenCache.Snapshot s = cache.snapshot();
+        json.name("tokenCache").beginObject()
+            .name("size").value(s.size())
+            .name("negativeSize").value(s.negativeSize())
+            .name("maxEntries").value(s.maxEntries())
+            .name("hits").value(s.hits())
+            .name("negativeHits").value(s.negativeHits())
+            .name("misses").value(s.misses())
+            .name("hitRatio").value(s.hitRatio())
+            .name("evictions").value(s.evictions())
+            .name("invalidations").value(s.invalidations())
+            .endObject();
+    }
+
+    private void writeRateLimiter(JsonWriter json) {
+        TieredRateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            return;
+        }
+        TieredRateLimiter.Snapshot s = limiter.snapshot();
+        json.name("rateLimiter").beginObject()
+            .name("algorithm").value(s.algorithm())
+            .name("allowed").value(s.allowed())
+            .name("trackedKeys").value(s.trackedKeys())
+            .name("evicted").value(s.evicted())
+            .name("overflow").value(s.overflow())
+            .name("layers").beginObject();
+        for (TieredRateLimiter.LayerSnapshot layer : s.layers()) {
+            json.name(layer.layer()).beginObject()
+                .name("rejected").value(layer.rejected())
+                .name("limits").beginObject();
+            for (TieredRateLimiter.LimitSnapshot limit : layer.limits()) {
+                json.name(limit.name()).beginObject()
+                    .name("perMinute").value(limit.limit())
+                    .name("rejected").value(limit.rejected())
+                    .endObject();
+            }
+            json.endObject().endObject();
+        }
+        json.endObject().endObject();
+    }
+
+    private void writeCluster(JsonWriter json) {
+        ClusterGossip gossip = cluster;
+        if (gossip == null) {
+            return;
+        }
+        ClusterGossip.Snapshot s = gossip.snapshot();
+        json.name("cluster").beginObject()
+            .name("nodeId").value(s.nodeId())
+            .name("bind").value(s.bind())
+            .name("peers").value(s.peers())
+            .name("intervalMs").value(s.intervalMs())
+            .name("packetsSent").value(s.packetsSent())
+            .name("packetsReceived").value(s.packetsReceived())
+            .name("packetsRejected").value(s.packetsRejected())
+            .name("sendFailures").value(s.sendFailures())
+            .name("deltasSent").value(s.deltasSent())
+            .name("deltasApplied").value(s.deltasApplied())
+            .endObject();
+    }
+
+    private void writeTracing(JsonWriter json) {
+        RequestTracer requestTracer = tracer;
+        if (requestTracer == null) {
+            return;
+        }
+        RequestTracer.Snapshot s = requestTracer.snapshot();
+        json.name("tracing").beginObject()
+            .name("sampleEvery").value(s.sampleEvery())
+            .name("capacity").value(s.capacity())
+            .name("slowMs").value(s.slowMs())
+            .name("windowSeconds").value(s.windowSeconds())
+            .name("sampled").value(s.sampled())
+            .name("captured").value(s.captured())
+            .endObject();
+    }
+
+    private void writeLogging(JsonWriter json) {
+        AsyncLogAppender appender = logger;
+        if (appender == null) {
+            return;
+        }
+        AsyncLogAppender.Snapshot s = appender.snapshot();
+        json.name("logging").beginObject()
+            .name("capacity").value(s.capacity())
+            .name("overflow").value(s.overflow())
+            .name("target").value(s.target())
+            .name("pending").value(s.pending())
+            .name("written").value(s.written())
+            .name("dropped").value(s.dropped())
+            .name("blocked").value(s.blocked())
+            .name("batches").value(s.batches())
+            .name("writeFailures").value(s.writeFailures())
+            .endObject();
+    }
+
+    private void writePipelines(JsonWriter json) {
+        if (pipelines.isEmpty()) {
+            return;
+        }
+        json.name("pipelines").beginObject();
+        for (Map.Entry<String, RequestPipeline<?>> entry : pipelines.entrySet()) {
+            json.name(entry.getKey()).beginObject();
+            for (RequestPipeline.StageSnapshot stage : entry.getValue().snapshot()) {
+                json.name(stage.name()).beginObject()
+                    .name("offloaded").value(stage.offloaded())
+                    .name("passed").value(stage.passed())
+                    .name("stopped").value(stage.stopped())
+                    .name("failed").value(stage.failed())
+                    .name("avgMicros").value(stage.avgMicros())
+                    .name("maxMicros").value(stage.maxMicros())
+                    .endObject();
+            }
+            json.endObject();
+        }
+        json.endObject();
+    }
+
+    private void writeIdempotency(JsonWriter json) {
+        IdempotencyCache cache = idempotency;
+        if (cache == null) {
+            return;
+        }
+        IdempotencyCache.Snapshot s = cache.snapshot();
+        json.name("idempotency").beginObject()
+            .name("size").value(s.size())
+            .name("maxEntries").value(s.maxEntries())
+            .name("hits").value(s.hits())
+            .name("misses").value(s.misses())
+            .name("coalesced").value(s.coalesced())
+            .name("conflicts").value(s.conflicts())
+            .endObject();
+    }
+
+    private void writeAdmission(JsonWriter json) {
+        AdaptiveConcurrencyLimiter limiter = admission;
+        if (limiter == null) {
+            return;
+        }
+        AdaptiveConcurrencyLimiter.Snapshot s = limiter.snapshot();
+        json.name("admission").beginObject()
+            .name("limit").value(s.limit())
+            .name("inFlight").value(s.inFlight())
+            .name("minLimit").value(s.minLimit())
+            .name("maxLimit").value(s.maxLimit())
+            .name("accepted").value(s.accepted())
+            .name("rejected").value(s.rejected())
+            .name("dropped").value(s.dropped())
+            .name("baselineRttMicros").value(s.baselineRttMicros())
+            .endObject();
+    }
+
+    private void writeFrontend(JsonWriter json) {
+        NioHttpServer server = frontend;
+        if (server == null) {
+            return;
+        }
+        NioHttpServer.Stats stats = server.stats();
+        json.name("frontend").beginObject()
+            .name("type").value("nio")
+            .name("eventLoops").value(stats.eventLoops())
+            .name("openConnections").value(stats.openConnections())
+            .name("acceptedConnections").value(stats.acceptedConnections())
+            .name("requests").value(stats.requests())
+            .endObject();
+    }
+
+    private void writeBufferPools(JsonWriter json) {
+        json.name("bufferPools").beginObject();
+        for (BufferPool pool : bufferPools) {
+            BufferPool.Snapshot s = pool.snapshot();
+            json.name(s.name()).beginObject()
+                .name("direct").value(s.direct())
+                .name("hits").value(s.hits())
+                .name("misses").value(s.misses())
+                .name("oversize").value(s.oversize())
+                .name("outstanding").value(s.outstanding())
+                .name("pooled").value(s.pooled())
+                .name("pooledBytes").value(s.pooledBytes())
+                .endObject();
+        }
+        json.endObject();
+    }
+
+    private void writeExecutors(JsonWriter json) {
+        json.name("executors").beginObject();
+        for (InstrumentedExecutor executor : executors) {
+            InstrumentedExecutor.Snapshot s = executor.snapshot();
+            json.name(s.name()).beginObject()
+                .name("mode").value(s.mode())
+                .name("submitted").value(s.submitted())
+                .name("completed").value(s.completed())
+                .name("failed").value(s.failed())
+                .name("rejected").value(s.rejected())
+                .name("active").value(s.active())
+                .name("peakActive").value(s.peakActive())
+                .name("queued").value(s.queued())
+                .endObject();
+        }
+        json.endObject();
     }
 
     private void updateMin(long value) {
@@ -68,4 +743,71 @@ public class MetricsRegistry {
             }
         } while (!maxDurationMs.compareAndSet(current, value));
     }
+
+    // Handles de um endpoint: histograma por classe de status (1xx..5xx) e contador por plano e status, ambos
+    // criados no primeiro registro da combinacao; depois disso registrar e so indexar arrays, sem alocar.
+    public static final class EndpointMetrics {
+        private static final String[] CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+        private static final int MIN_STATUS = 100;
+        private static final int MAX_STATUS = 599;
+        private static final String[] PLANS = planLabels();
+        private final String path;
+        private final CounterFamily requests;
+        private final CounterFamily rejections;
+        private final LatencyHistogram[] classes = new LatencyHistogram[CLASSES.length];
+        // [0 = sem plano, ordinal + 1][status - MIN_STATUS]
+        private final CounterFamily.Counter[][] counters = new CounterFamily.Counter[PLANS.length][MAX_STATUS - MIN_STATUS + 1];
+
+        private EndpointMetrics(String path, CounterFamily requests, CounterFamily rejections) {
+            this.path = path;
+            this.requests = requests;
+            this.rejections = rejections;
+        }
+
+        // Um handle por motivo, na mesma ordem de reasons; resolvido no boot.
+        public CounterFamily.Counter[] rejections(List<String> reasons) {
+            CounterFamily.Counter[] handles = new CounterFamily.Counter[reasons.size()];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = rejections.labels(path, reasons.get(i));
+            }
+            return handles;
+        }
+
+        void record(int status, Plano plano, long micros) {
+            int code = Math.max(MIN_STATUS, Math.min(MAX_STATUS, status));
+            int plan = plano == null ? 0 : plano.ordinal() + 1;
+            // Corrida inofensiva: labels() devolve o mesmo handle para as duas threads.
+            CounterFamily.Counter counter = counters[plan][code - MIN_STATUS];
+            if (counter == null) {
+                counter = requests.labels(path, Integer.toString(code), PLANS[plan]);
+                counters[plan][code - MIN_STATUS] = counter;
+            }
+            counter.increment();
+            int index = code / 100 - 1;
+            LatencyHistogram histogram = classes[index];
+            if (histogram == null) {
+                histogram = create(index);
+            }
+            histogram.record(micros);
+        }
+
+        private synchronized LatencyHistogram create(int index) {
+            LatencyHistogram histogram = classes[index];
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                classes[index] = histogram;
+            }
+            return histogram;
+        }
+
+        private static String[] planLabels() {
+            Plano[] planos = Plano.values();
+            String[] labels = new String[planos.length + 1];
+            labels[0] = "none";
+            for (Plano plano : planos) {
+                labels[plano.ordinal() + 1] = plano.name();
+            }
+            return labels;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.javatitan.engine;
 
+import com.javatitan.engine.RequestPipeline.Outcome;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -8,46 +9,147 @@ import com.sun.net.httpserver.HttpsServer;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-
-record PropostaRequest(UUID idCliente, BigDecimal valorBruto, Plano plano) {}
-
-record PropostaResponse(UUID idProposta, BigDecimal valorLiquido, BigDecimal taxaAplicada, String status) {}
+import java.util.function.Function;
 
 class MotorFinanceiroEspecialista {
     private final ExecutorService executor;
     private final long delayMs;
+    private final AdaptiveConcurrencyLimiter admission;
+    private final PlanScheduler scheduler;
 
     MotorFinanceiroEspecialista(ExecutorService executor, long delayMs) {
+        this(executor, delayMs, null, null);
+    }
+
+    MotorFinanceiroEspecialista(ExecutorService executor, long delayMs, AdaptiveConcurrencyLimiter admission, PlanScheduler scheduler) {
         this.executor = executor;
         this.delayMs = delayMs;
+        this.admission = admission;
+        this.scheduler = scheduler;
     }
 
-    public CompletableFuture<PropostaResponse> processarAsync(PropostaRequest request, String requestId) {
-        return CompletableFuture.supplyAsync(() -> {
-            LoggerSaaS.log("INFO", requestId, "Iniciando calculo para cliente: " + request.idCliente());
-            simularCarga();
+    ExecutorService executor() {
+        return executor;
+    }
+
+    // Worker do plano: passa pela fila e pelos pesos do PlanScheduler quando ele existe.
+    Executor executor(Plano plano) {
+        return scheduler == null ? executor : scheduler.executorFor(plano);
+    }
+
+    long retryAfterSeconds() {
+        return admission == null ? 1L : admission.retryAfterSeconds();
+    }
+
+    // Retorna null quando a proposta e recusada: limite adaptativo atingido ou fila de workers cheia.
+    CompletableFuture<PropostaResponse> processarAdmitido(PropostaRequest request, String requestId) {
+        return processarAdmitido(request, requestId, null);
+    }
+
+    // trace != null: a espera na fila dos workers vira o trecho "fila" da etapa de calculo.
+    // A vaga so volta quando a tarefa termina no worker: timeout ou cancel(false) completam o future devolvido, mas o
+    // calculo continua ocupando o pool. Esse timeout/cancelamento vira o sinal de sobrecarga (onTimeout) na hora.
+    CompletableFuture<PropostaResponse> processarAdmitido(PropostaRequest request, String requestId, RequestTracer.Trace trace) {
+        AdaptiveConcurrencyLimiter.Permit permit = admission == null ? null : admission.tryAcquire();
+        if (admission != null && permit == null) {
+            return null;
+        }
+        CompletableFuture<PropostaResponse> future = new CompletableFuture<>();
+        long enfileiradoEm = System.nanoTime();
+        try {
+            destino(request).execute(() -> executarAdmitido(request, requestId, trace, enfileiradoEm, permit, future));
+        } catch (RejectedExecutionException ex) {
+            if (permit != null) {
+                admission.onDropped(permit);
+            }
+            return null;
+        }
+        if (permit != null) {
+            future.whenComplete((response, erro) -> {
+                if (erro instanceof TimeoutException || erro instanceof CancellationException) {
+                    admission.onTimeout(permit);
+                }
+            });
+        }
+        return future;
+    }
 
-            if (request.valorBruto().signum() < 0) {
-                throw new IllegalArgumentException("valorBruto nao pode ser negativo.");
+    private void executarAdmitido(PropostaRequest request, String requestId, RequestTracer.Trace trace, long enfileiradoEm,
+                                  AdaptiveConcurrencyLimiter.Permit permit, CompletableFuture<PropostaResponse> future) {
+        // Cancelado ou expirado ainda na fila: nao calcula, como o supplyAsync.
+        if (future.isDone()) {
+            if (permit != null) {
+                admission.onIgnore(permit);
             }
+            return;
+        }
+        PropostaResponse response = null;
+        Throwable erro = null;
+        try {
+            response = calcular(request, requestId, trace, enfileiradoEm);
+        } catch (Throwable ex) {
+            erro = ex;
+        }
+        // So o resultado que completou o future vira amostra de RTT; o que chegou depois do timeout so libera a vaga.
+        boolean entregue = erro == null ? future.complete(response) : future.completeExceptionally(new CompletionException(erro));
+        if (permit != null) {
+            if (entregue && erro == null) {
+                admission.onSuccess(permit);
+            } else {
+                admission.onIgnore(permit);
+            }
+        }
+    }
 
-            BigDecimal taxa = request.plano().taxa();
-            BigDecimal valorTaxa = request.valorBruto().multiply(taxa).setScale(2, RoundingMode.HALF_UP);
-            BigDecimal valorLiquido = request.valorBruto().subtract(valorTaxa);
+    public CompletableFuture<PropostaResponse> processarAsync(PropostaRequest request, String requestId) {
+        return processarAsync(request, requestId, null);
+    }
+
+    private CompletableFuture<PropostaResponse> processarAsync(PropostaRequest request, String requestId, RequestTracer.Trace trace) {
+        long enfileiradoEm = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> calcular(request, requestId, trace, enfileiradoEm), destino(request));
+    }
 
-            return new PropostaResponse(UUID.randomUUID(), valorLiquido, valorTaxa, "PROCESSADO_ASYNC");
-        }, executor);
+    private Executor destino(PropostaRequest request) {
+        return executor(request.plano());
+    }
+
+    private PropostaResponse calcular(PropostaRequest request, String requestId, RequestTracer.Trace trace, long enfileiradoEm) {
+        if (trace != null) {
+            trace.split("fila", System.nanoTime() - enfileiradoEm);
+        }
+        LoggerSaaS.log("INFO", requestId, "Iniciando calculo para cliente: " + request.idCliente());
+        simularCarga();
+
+        if (request.valorBruto().signum() < 0) {
+            throw new IllegalArgumentException("valorBruto nao pode ser negativo.");
+        }
+
+        BigDecimal taxa = request.plano().taxa();
+        BigDecimal valorTaxa = request.valorBruto().multiply(taxa).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal valorLiquido = request.valorBruto().subtract(valorTaxa);
+
+        return new PropostaResponse(UUID.randomUUID(), valorLiquido, valorTaxa, "PROCESSADO_ASYNC");
     }
 
     private void simularCarga() {
@@ -66,6 +168,10 @@ class MotorFinanceiroEspecialista {
 public class MotorFinanceiro {
     private static final String CONTEXT_CALCULO = "/api/calcular";
     private static final String CONTEXT_CALCULO_SECURE = "/api/calcular-secure";
+    private static final String CONTEXT_CALCULO_LOTE = "/api/calcular-lote";
+    private static final String CONTEXT_CALCULO_LOTE_SECURE = "/api/calcular-lote-secure";
+    private static final String CONTEXT_CALCULO_STREAM = "/api/calcular-stream";
+    private static final String CONTEXT_CALCULO_STREAM_SECURE = "/api/calcular-stream-secure";
     private static final String CONTEXT_HEALTH = "/health";
 
     public static void main(String[] args) throws IOException {
@@ -115,34 +221,123 @@ public class MotorFinanceiro {
             return;
         }
 
-        LoggerSaaS.log("INFO", "[MOTOR FINANCEIRO] Servidor iniciado na porta " + appConfig.port() + ".");
+        LoggerSaaS.log("INFO", "[MOTOR FINANCEIRO] Servidor iniciado na porta " + appConfig.port() + " (threads: "
+            + (appConfig.virtualThreads() ? EngineExecutors.MODE_VIRTUAL : EngineExecutors.MODE_FIXED)
+            + ", frontend: " + appConfig.httpFrontend() + ").");
 
         Runtime.getRuntime().addShutdownHook(new Thread(handle::close));
     }
 
     public static ServerHandle startServer(AppConfig appConfig, JwtConfig jwtConfig, DbConfig dbConfig, CryptoConfig cryptoConfig, TlsConfig tlsConfig) throws IOException {
         OrcamentoRepository repository = criarRepositorio(dbConfig);
-        ExecutorService httpExecutor = Executors.newFixedThreadPool(appConfig.httpThreads());
-        ExecutorService workerExecutor = Executors.newFixedThreadPool(appConfig.workerThreads());
+        InstrumentedExecutor httpExecutor = EngineExecutors.http(appConfig);
+        InstrumentedExecutor workerExecutor = EngineExecutors.worker(appConfig);
 
-        MotorFinanceiroEspecialista especialista = new MotorFinanceiroEspecialista(workerExecutor, appConfig.simulatedDelayMs());
+        AdaptiveConcurrencyLimiter admission = null;
+        if (appConfig.admissionEnabled()) {
+            int initialLimit = Math.max(appConfig.admissionMinLimit(), Math.min(appConfig.admissionMaxLimit(), appConfig.workerThreads() * 2));
+            admission = new AdaptiveConcurrencyLimiter(initialLimit, appConfig.admissionMinLimit(), appConfig.admissionMaxLimit());
+        }
+        // Em virtual threads nao ha fila de workers para ordenar; o escalonador so existe no pool fixo.
+        PlanScheduler scheduler = null;
+        if (!appConfig.virtualThreads()) {
+            scheduler = new PlanScheduler(workerExecutor, appConfig.workerThreads(), appConfig.workerQueueCapacity(),
+                appConfig.planWeights(), appConfig.planMaxWaitMs());
+        }
+        MotorFinanceiroEspecialista especialista = new MotorFinanceiroEspecialista(workerExecutor, appConfig.simulatedDelayMs(), admission, scheduler);
         MetricsRegistry metricsRegistry = new MetricsRegistry();
-        RequestLimiter requestLimiter = new RequestLimiter(appConfig.rateLimitPerMinute(), 60000L);
+        if (scheduler != null) {
+            metricsRegistry.registerScheduler(scheduler);
+        }
+        if (admission != null) {
+            metricsRegistry.registerAdmission(admission);
+        }
+        metricsRegistry.registerExecutor(httpExecutor);
+        metricsRegistry.registerExecutor(workerExecutor);
+        metricsRegistry.registerBufferPool(BufferPool.heap());
+        if (appConfig.nioFrontend()) {
+            metricsRegistry.registerBufferPool(BufferPool.direct());
+        }
+        TieredRateLimiter rateLimiter = new TieredRateLimiter(appConfig);
+        if (rateLimiter.enabled()) {
+            metricsRegistry.registerRateLimiter(rateLimiter);
+        }
+        IdempotencyCache idempotency = new IdempotencyCache(appConfig.idempotencyMaxEntries(), appConfig.idempotencyTtlMs(),
+            appConfig.idempotencyPendingTtlMs());
+        if (idempotency.enabled()) {
+            metricsRegistry.registerIdempotency(idempotency);
+        }
+        TokenCache tokenCache = new TokenCache(appConfig.jwtCacheMaxEntries(), appConfig.jwtNegativeTtlMs());
+        ValidadorSeguranca.usarCache(tokenCache);
+        if (tokenCache.enabled()) {
+            metricsRegistry.registerTokenCache(tokenCache);
+        }
 
+        CryptoSession crypto = new CryptoSession(cryptoConfig);
+        if (crypto.hasKey()) {
+            metricsRegistry.registerCrypto(crypto);
+        }
         HttpServer server = createServer(appConfig, tlsConfig);
-        server.createContext(CONTEXT_CALCULO, new CalculoHandler(especialista, repository, jwtConfig, cryptoConfig, false, appConfig, requestLimiter, metricsRegistry));
-        server.createContext(CONTEXT_CALCULO_SECURE, new CalculoHandler(especialista, repository, jwtConfig, cryptoConfig, true, appConfig, requestLimiter, metricsRegistry));
+        InstrumentedExecutor cryptoExecutor = EngineExecutors.crypto(appConfig);
+        if (cryptoExecutor != null) {
+            metricsRegistry.registerExecutor(cryptoExecutor);
+        }
+        RequestTracer tracer = RequestTracer.create(appConfig);
+        if (tracer.enabled()) {
+            metricsRegistry.registerTracer(tracer);
+            server.createContext("/traces", new TracesHandler(tracer));
+        }
+        contexto(server, CONTEXT_CALCULO, new CalculoHandler(CONTEXT_CALCULO, especialista, repository, jwtConfig, crypto, false, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
+        contexto(server, CONTEXT_CALCULO_SECURE, new CalculoHandler(CONTEXT_CALCULO_SECURE, especialista, repository, jwtConfig, crypto, true, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO_SECURE), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
+        contexto(server, CONTEXT_CALCULO_LOTE, new CalculoLoteHandler(CONTEXT_CALCULO_LOTE, especialista, repository, jwtConfig, crypto, false, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO_LOTE), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
+        contexto(server, CONTEXT_CALCULO_LOTE_SECURE, new CalculoLoteHandler(CONTEXT_CALCULO_LOTE_SECURE, especialista, repository, jwtConfig, crypto, true, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO_LOTE_SECURE), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
+        contexto(server, CONTEXT_CALCULO_STREAM, new CalculoStreamHandler(CONTEXT_CALCULO_STREAM, especialista, repository, jwtConfig, crypto, false, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO_STREAM), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
+        contexto(server, CONTEXT_CALCULO_STREAM_SECURE, new CalculoStreamHandler(CONTEXT_CALCULO_STREAM_SECURE, especialista, repository, jwtConfig, crypto, true, appConfig, rateLimiter.endpoint(CONTEXT_CALCULO_STREAM_SECURE), idempotency, metricsRegistry, cryptoExecutor, tracer), metricsRegistry);
         server.createContext(CONTEXT_HEALTH, new HealthCheckHandler());
+        FlightRecorderControl flightRecorder = null;
+        if (appConfig.jfrAdminEnabled()) {
+            flightRecorder = FlightRecorderControl.create(appConfig);
+            server.createContext("/admin/jfr", new JfrHandler(flightRecorder));
+        }
         if (appConfig.metricsEnabled()) {
             server.createContext("/metrics", new MetricsHandler(metricsRegistry, cryptoConfig.secureMode()));
         }
         server.setExecutor(httpExecutor);
         server.start();
+        if (server instanceof NioHttpServer nioServer) {
+            metricsRegistry.registerFrontend(nioServer);
+        }
+        ClusterGossip cluster = null;
+        if (appConfig.clusterEnabled() && rateLimiter.enabled()) {
+            cluster = ClusterGossip.start(appConfig, rateLimiter);
+            metricsRegistry.registerCluster(cluster);
+        }
 
-        return new ServerHandle(server, httpExecutor, workerExecutor, repository);
+        // Depois de tudo no ar: falha no boot ainda loga direto, antes de a JVM sair.
+        AsyncLogAppender logAppender = LoggerSaaS.install(appConfig);
+        if (logAppender != null) {
+            metricsRegistry.registerLogger(logAppender);
+        }
+        return new ServerHandle(server, httpExecutor, workerExecutor, cryptoExecutor, repository, cluster, flightRecorder, logAppender);
+    }
+
+    private static void contexto(HttpServer server, String path, CalculoHandler handler, MetricsRegistry metricsRegistry) {
+        server.createContext(path, handler);
+        metricsRegistry.registerPipeline(path, handler.pipeline());
     }
 
     private static HttpServer createServer(AppConfig appConfig, TlsConfig tlsConfig) throws IOException {
+        if (appConfig.nioFrontend()) {
+            boolean tls = tlsConfig != null && tlsConfig.enabled();
+            return new NioHttpServer(
+                new InetSocketAddress(appConfig.port()),
+                tls ? tlsConfig.createServerContext() : null,
+                tls && tlsConfig.requireClientAuth(),
+                appConfig.eventLoops(),
+                nioMaxRequestBytes(appConfig),
+                appConfig.keepAliveTimeoutMs()
+            );
+        }
         if (tlsConfig != null && tlsConfig.enabled()) {
             SSLContext sslContext = tlsConfig.createServerContext();
             HttpsServer server = HttpsServer.create(new InetSocketAddress(appConfig.port()), 0);
@@ -158,6 +353,10 @@ public class MotorFinanceiro {
         return HttpServer.create(new InetSocketAddress(appConfig.port()), 0);
     }
 
+    private static int nioMaxRequestBytes(AppConfig appConfig) {
+        return appConfig.maxBodyBytes() <= 0 ? Integer.MAX_VALUE : appConfig.maxBodyBytes();
+    }
+
     private static OrcamentoRepository criarRepositorio(DbConfig config) {
         if (config == null || !config.isEnabled()) {
             LoggerSaaS.log("WARN", "[DB] JAVATITAN_DB_URL nao definido. Usando memoria.");
@@ -170,22 +369,44 @@ public class MotorFinanceiro {
         private final HttpServer server;
         private final ExecutorService httpExecutor;
         private final ExecutorService workerExecutor;
+        private final ExecutorService cryptoExecutor;
         private final OrcamentoRepository repository;
+        private final ClusterGossip cluster;
+        private final FlightRecorderControl flightRecorder;
+        private final AsyncLogAppender logAppender;
 
-        ServerHandle(HttpServer server, ExecutorService httpExecutor, ExecutorService workerExecutor, OrcamentoRepository repository) {
+        ServerHandle(HttpServer server, ExecutorService httpExecutor, ExecutorService workerExecutor, ExecutorService cryptoExecutor, OrcamentoRepository repository, ClusterGossip cluster,
+                     FlightRecorderControl flightRecorder, AsyncLogAppender logAppender) {
             this.server = server;
             this.httpExecutor = httpExecutor;
             this.workerExecutor = workerExecutor;
+            this.cryptoExecutor = cryptoExecutor;
             this.repository = repository;
+            this.cluster = cluster;
+            this.flightRecorder = flightRecorder;
+            this.logAppender = logAppender;
         }
 
         @Override
         public void close() {
             LoggerSaaS.log("INFO", "[MOTOR FINANCEIRO] Encerrando servidor...");
+            if (cluster != null) {
+                cluster.close();
+            }
             server.stop(1);
             httpExecutor.shutdown();
             workerExecutor.shutdown();
+            if (cryptoExecutor != null) {
+                cryptoExecutor.shutdown();
+            }
             repository.close();
+            if (flightRecorder != null) {
+                flightRecorder.close();
+            }
+            // Por ultimo: escreve o que as etapas acima ainda registraram.
+            if (logAppender != null) {
+                LoggerSaaS.uninstall(logAppender);
+            }
         }
     }
 
@@ -193,189 +414,878 @@ public class MotorFinanceiro {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                HttpResponses.sendJson(exchange, 405, HttpResponses.errorJson(405, "Metodo nao permitido", null), null);
+                HttpResponses.sendError(exchange, 405, "Metodo nao permitido", null);
                 return;
             }
             String requestId = requestId(exchange);
-            String response = "{\"status\":\"UP\",\"timestamp\":\"" + Instant.now().toString() + "\"}";
+            JsonWriter response = JsonWriter.local()
+                .beginObject()
+                .name("status").value("UP")
+                .name("timestamp").value(Instant.now().toString())
+                .endObject();
             HttpResponses.sendJson(exchange, 200, response, requestId);
         }
     }
 
     static class CalculoHandler implements HttpHandler {
-        private final MotorFinanceiroEspecialista motor;
-        private final OrcamentoRepository repository;
-        private final JwtConfig jwtConfig;
-        private final CryptoConfig cryptoConfig;
-        private final boolean secureEndpoint;
-        private final AppConfig appConfig;
-        private final RequestLimiter requestLimiter;
-        private final MetricsRegistry metricsRegistry;
+        final String path;
+        final MotorFinanceiroEspecialista motor;
+        final OrcamentoRepository repository;
+        final JwtConfig jwtConfig;
+        final CryptoSession crypto;
+        final boolean secureEndpoint;
+        final AppConfig appConfig;
+        final TieredRateLimiter.Endpoint cotas;
+        final IdempotencyCache idempotency;
+        final MetricsRegistry metricsRegistry;
+        final Executor cryptoExecutor;
+        final MetricsRegistry.EndpointMetrics metricas;
+        final RequestPipeline<Requisicao> pipeline;
+        // Contador de recusas por etapa, no indice da etapa no pipeline.
+        final CounterFamily.Counter[] recusas;
 
-        CalculoHandler(MotorFinanceiroEspecialista motor, OrcamentoRepository repository, JwtConfig jwtConfig, CryptoConfig cryptoConfig, boolean secureEndpoint, AppConfig appConfig, RequestLimiter requestLimiter, MetricsRegistry metricsRegistry) {
+        CalculoHandler(String path, MotorFinanceiroEspecialista motor, OrcamentoRepository repository, JwtConfig jwtConfig, CryptoSession crypto, boolean secureEndpoint, AppConfig appConfig, TieredRateLimiter.Endpoint cotas, IdempotencyCache idempotency, MetricsRegistry metricsRegistry, Executor cryptoExecutor, RequestTracer tracer) {
+            this.path = path;
             this.motor = motor;
             this.repository = repository;
             this.jwtConfig = jwtConfig;
-            this.cryptoConfig = cryptoConfig;
+            this.crypto = crypto;
             this.secureEndpoint = secureEndpoint;
             this.appConfig = appConfig;
-            this.requestLimiter = requestLimiter;
+            this.cotas = cotas;
+            this.idempotency = idempotency;
             this.metricsRegistry = metricsRegistry;
+            this.cryptoExecutor = cryptoExecutor;
+            this.metricas = metricsRegistry.endpoint(path);
+            RequestPipeline.Builder<Requisicao> etapas = RequestPipeline.<Requisicao>builder().endpoint(path).tracer(tracer);
+            etapasIniciais(etapas);
+            etapasCorpo(etapas);
+            this.pipeline = etapas.build(this::falha);
+            this.recusas = metricas.rejections(pipeline.stageNames());
         }
 
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            long startedAt = System.nanoTime();
-            String requestId = requestId(exchange);
+        public void handle(HttpExchange exchange) {
+            Requisicao req = new Requisicao(exchange, requestId(exchange), System.nanoTime());
+            req.evento = EngineEvents.request(path, req.requestId);
+            pipeline.start(req);
+        }
 
-            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-                HttpResponses.sendJson(exchange, 405, HttpResponses.errorJson(405, "Metodo nao permitido", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+        RequestPipeline<Requisicao> pipeline() {
+            return pipeline;
+        }
+
+        // Recusas que so olham linha de requisicao e headers, da mais barata para a mais cara:
+        // um flood sem token valido nunca chega a ler, decifrar ou parsear o body.
+        private void etapasIniciais(RequestPipeline.Builder<Requisicao> etapas) {
+            etapas.stage("metodo", this::metodo);
+            if (cotas.ipEnabled()) {
+                etapas.stage("rateLimitIp", this::rateLimitIp);
+            }
+            etapas.stage("contentType", this::contentType)
+                .stage("token", this::token);
+            if (cotas.enabled()) {
+                etapas.stage("rateLimit", this::rateLimit);
             }
+        }
 
-            if (requestLimiter.enabled() && !requestLimiter.tryAcquire(remoteKey(exchange))) {
-                HttpResponses.sendJson(exchange, 429, HttpResponses.errorJson(429, "Muitas requisicoes", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+        // Depois de leitura/decifra: a impressao digital do corpo e sempre a do conteudo em claro.
+        void etapaIdempotencia(RequestPipeline.Builder<Requisicao> etapas) {
+            if (aceitaIdempotencia() && idempotency.enabled()) {
+                etapas.stage("idempotencia", this::idempotencia);
             }
+        }
 
-            if (cryptoConfig != null && cryptoConfig.secureMode() && !secureEndpoint && !appConfig.allowPlainWhenSecure()) {
-                HttpResponses.sendJson(exchange, 403, HttpResponses.errorJson(403, "Use o endpoint seguro", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+        // Decifra e cifra rodam no executor de cripto quando JAVATITAN_CRYPTO_THREADS > 0; o calculo, nos workers.
+        void etapasCorpo(RequestPipeline.Builder<Requisicao> etapas) {
+            etapas.stage("leitura", this::leitura);
+            if (secureEndpoint) {
+                etapas.stage("decifra", cryptoExecutor, this::decifra);
+            }
+            etapaIdempotencia(etapas);
+            etapas.stage("parse", this::parse)
+                .stage("autorizacao", this::autorizacao)
+                .stage("calculo", this::calculo)
+                .stage("persistencia", this::persistencia);
+            if (secureEndpoint) {
+                etapas.stage("cifra", cryptoExecutor, this::cifra);
             }
+            etapas.stage("escrita", this::escrita);
+        }
 
-            if (secureEndpoint && (cryptoConfig == null || cryptoConfig.aesKey() == null)) {
-                HttpResponses.sendJson(exchange, 400, HttpResponses.errorJson(400, "Criptografia nao configurada", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+        String contentTypeEsperado() {
+            return "application/json";
+        }
+
+        boolean aceitaIdempotencia() {
+            return true;
+        }
+
+        // Formato binario so existe no endpoint seguro de calculo unitario.
+        boolean aceitaBinario() {
+            return secureEndpoint;
+        }
+
+        boolean binario(HttpExchange exchange) {
+            return aceitaBinario() && BinaryWire.isBinary(exchange.getRequestHeaders().getFirst("Content-Type"));
+        }
+
+        private Outcome metodo(Requisicao req) throws IOException {
+            if (!"POST".equalsIgnoreCase(req.exchange.getRequestMethod())) {
+                return recusar(req, 405, "Metodo nao permitido");
             }
+            return Outcome.NEXT;
+        }
 
+        // Antes do token: um flood de tokens forjados para aqui sem HMAC nem insercao no cache negativo.
+        private Outcome rateLimitIp(Requisicao req) throws IOException {
+            if (!cotas.tryAcquireIp(remoteKey(req.exchange))) {
+                EngineEvents.rateLimited(path, req.requestId, null, null, "ip");
+                return recusar(req, 429, "Muitas requisicoes (ip)");
+            }
+            return Outcome.NEXT;
+        }
+
+        // Depende do tenant e do plano do token; todas as camadas numa unica chamada.
+        private Outcome rateLimit(Requisicao req) throws IOException {
+            TieredRateLimiter.Layer recusa = cotas.tryAcquire(req.tenant, req.plano);
+            if (recusa != null) {
+                EngineEvents.rateLimited(path, req.requestId, req.plano, req.tenant, recusa.id());
+                return recusar(req, 429, "Muitas requisicoes (" + recusa.id() + ")");
+            }
+            return Outcome.NEXT;
+        }
+
+        // Endpoint permitido, Content-Type e suite AEAD: tudo decidido pelos headers.
+        private Outcome contentType(Requisicao req) throws IOException {
+            HttpExchange exchange = req.exchange;
+            if (crypto.secureMode() && !secureEndpoint && !appConfig.allowPlainWhenSecure()) {
+                return recusar(req, 403, "Use o endpoint seguro");
+            }
+            if (secureEndpoint && !crypto.hasKey()) {
+                return recusar(req, 400, "Criptografia nao configurada");
+            }
+            req.binario = binario(exchange);
             String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
-            if (contentType == null || !contentType.toLowerCase().contains("application/json")) {
-                HttpResponses.sendJson(exchange, 415, HttpResponses.errorJson(415, "Content-Type deve ser application/json", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+            if (!req.binario && (contentType == null || !contentType.toLowerCase().contains(contentTypeEsperado()))) {
+                return recusar(req, 415, "Content-Type deve ser " + contentTypeEsperado());
+            }
+            if (secureEndpoint) {
+                try {
+                    req.suite = crypto.negotiate(exchange.getRequestHeaders().getFirst(AeadSuite.HEADER));
+                } catch (IllegalArgumentException e) {
+                    return recusar(req, 400, e.getMessage());
+                }
+                exchange.getResponseHeaders().set(AeadSuite.HEADER, req.suite.id());
             }
+            return Outcome.NEXT;
+        }
 
-            String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
+        // Assinatura e claims sao conferidas antes do body; o plano da proposta e comparado depois, em "autorizacao".
+        private Outcome token(Requisicao req) throws IOException {
+            String authHeader = req.exchange.getRequestHeaders().getFirst("Authorization");
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                LoggerSaaS.log("WARN", requestId, "Authorization ausente ou malformado.");
-                HttpResponses.sendJson(exchange, 401, HttpResponses.errorJson(401, "Authorization Bearer obrigatorio", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+                LoggerSaaS.log("WARN", req.requestId, "Authorization ausente ou malformado.");
+                return recusar(req, 401, "Authorization Bearer obrigatorio");
             }
             String token = authHeader.substring(7).trim();
             if (token.isEmpty()) {
-                HttpResponses.sendJson(exchange, 401, HttpResponses.errorJson(401, "Token Bearer vazio", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-                return;
+                return recusar(req, 401, "Token Bearer vazio");
+            }
+            req.token = token;
+            EngineEvents.JwtVerification verificacao = EngineEvents.jwt(req.requestId);
+            ValidadorSeguranca.Acesso acesso = ValidadorSeguranca.acessoAutorizado(token, jwtConfig);
+            if (verificacao != null) {
+                verificacao.end(acesso == null ? null : acesso.plano());
             }
+            if (acesso == null) {
+                return recusar(req, 403, "Acesso negado");
+            }
+            req.plano = acesso.plano();
+            // Token sem sub nem user: a cota do tenant cai no IP de origem, como antes.
+            req.tenant = acesso.sujeito() != null ? acesso.sujeito() : remoteKey(req.exchange);
+            return Outcome.NEXT;
+        }
 
-            try {
-                String jsonPayload = HttpRequestReader.readBodyLimited(exchange, appConfig.maxBodyBytes()).trim();
-                if (jsonPayload.isEmpty()) {
-                    HttpResponses.sendJson(exchange, 400, HttpResponses.errorJson(400, "Body vazio", requestId), requestId);
-                    metricsRegistry.record(false, durationMs(startedAt));
-                    return;
+        // Segue quando esta requisicao deve calcular; duplicatas sao respondidas aqui.
+        private Outcome idempotencia(Requisicao req) throws IOException {
+            HttpExchange exchange = req.exchange;
+            String chave = exchange.getRequestHeaders().getFirst(IdempotencyCache.HEADER);
+            if (chave == null) {
+                return Outcome.NEXT;
+            }
+            chave = chave.trim();
+            if (chave.isEmpty() || chave.length() > IdempotencyCache.MAX_KEY_LENGTH) {
+                return recusar(req, 400, "Idempotency-Key invalida");
+            }
+            // SHA-256 do conteudo em claro: no endpoint seguro o envelope usa IV aleatorio e muda a cada retry, entao a
+            // impressao digital vem do decifrado. Suite e formato entram no primeiro byte, para um retry em JSON nao
+            // receber a resposta binaria (ou cifrada com outra suite).
+            PooledBuffer conteudo = req.conteudo();
+            int variante = secureEndpoint ? 1 + (req.suite.ordinal() << 1 | (req.binario ? 1 : 0)) : 0;
+            byte[] fingerprint = IdempotencyCache.fingerprint(variante, conteudo.array(), 0, conteudo.length());
+            String key = IdempotencyCache.key(exchange.getRequestURI().getPath(), req.token, chave);
+            IdempotencyCache.Lookup lookup = idempotency.reserve(key, fingerprint);
+            switch (lookup.outcome()) {
+                case OWNER -> {
+                    req.idempotente = lookup.entry();
+                    return Outcome.NEXT;
+                }
+                case CONFLICT -> {
+                    return recusar(req, 422, "Idempotency-Key reutilizada com outro corpo");
+                }
+                default -> {
+                    responderDuplicata(req, lookup.entry());
+                    return Outcome.DONE;
                 }
+            }
+        }
 
-                String effectivePayload = jsonPayload;
-                if (secureEndpoint) {
-                    CryptoUtils.EncryptedPayload encrypted = CryptoUtils.readPayload(jsonPayload);
-                    effectivePayload = CryptoUtils.decrypt(encrypted, cryptoConfig.aesKey());
+        private void responderDuplicata(Requisicao req, IdempotencyCache.Entry entry) {
+            CompletableFuture<IdempotencyCache.CachedResponse> response = entry.response();
+            if (!response.isDone() && appConfig.processingTimeoutMs() > 0) {
+                response = response.copy().orTimeout(appConfig.processingTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            response.whenComplete((cached, erro) -> {
+                try {
+                    if (erro == null) {
+                        HttpResponses.sendReplay(req.exchange, cached, req.requestId);
+                        concluir(req, cached.status());
+                    } else if (erro instanceof TimeoutException) {
+                        HttpResponses.sendError(req.exchange, 504, "Requisicao original ainda em processamento", req.requestId);
+                        concluir(req, 504);
+                    } else {
+                        // O dono terminou sem 2xx e liberou a chave: o cliente pode repetir a chamada.
+                        HttpResponses.sendError(req.exchange, 409, "Requisicao original falhou; repita a chamada", req.requestId);
+                        concluir(req, 409);
+                    }
+                } catch (IOException ex) {
+                    LoggerSaaS.log("ERROR", req.requestId, "Falha ao enviar resposta idempotente: " + ex.getMessage());
+                    concluir(req, 500);
                 }
+            });
+        }
+
+        Outcome leitura(Requisicao req) throws IOException {
+            req.body = HttpRequestReader.readBodyPooled(req.exchange, appConfig.maxBodyBytes());
+            if (!req.binario && HttpRequestReader.isBlank(req.body.array(), 0, req.body.length())) {
+                throw new RequestValidationException(400, "Body vazio");
+            }
+            return Outcome.NEXT;
+        }
+
+        Outcome decifra(Requisicao req) {
+            PooledBuffer body = req.body;
+            req.plain = req.binario
+                ? BinaryWire.open(crypto, req.suite, body.array(), 0, body.length())
+                : crypto.open(req.suite, body.array(), 0, body.length());
+            req.body = null;
+            body.close();
+            return Outcome.NEXT;
+        }
 
-                PropostaRequest request = parseRequest(effectivePayload);
+        private Outcome parse(Requisicao req) {
+            PooledBuffer conteudo = req.conteudo();
+            req.request = req.binario
+                ? BinaryWire.readRequest(conteudo.array(), 0, conteudo.length())
+                : JsonBinders.propostaRequest(JsonCursor.of(conteudo.array(), 0, conteudo.length()));
+            req.liberarCorpo();
+            return Outcome.NEXT;
+        }
+
+        private Outcome autorizacao(Requisicao req) throws IOException {
+            if (req.request.plano() != req.plano) {
+                LoggerSaaS.log("WARN", "[JAVA-AUTH] Plano insuficiente: " + req.plano);
+                return recusar(req, 403, "Acesso negado");
+            }
+            return Outcome.NEXT;
+        }
 
-                if (!ValidadorSeguranca.validarAcesso(token, request.plano(), jwtConfig)) {
-                    HttpResponses.sendJson(exchange, 403, HttpResponses.errorJson(403, "Acesso negado", requestId), requestId);
-                    metricsRegistry.record(false, durationMs(startedAt));
+        private Outcome calculo(Requisicao req) throws IOException {
+            CompletableFuture<PropostaResponse> future = motor.processarAdmitido(req.request, req.requestId, req.trace());
+            if (future == null) {
+                HttpResponses.sendUnavailable(req.exchange, motor.retryAfterSeconds(), "Servidor sobrecarregado", req.requestId);
+                concluir(req, 503);
+                return Outcome.DONE;
+            }
+            if (appConfig.processingTimeoutMs() > 0) {
+                future = future.orTimeout(appConfig.processingTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            future.whenComplete((response, erro) -> {
+                if (erro != null) {
+                    pipeline.fail(req, erro);
                     return;
                 }
+                req.response = response;
+                pipeline.resume(req);
+            });
+            return Outcome.ASYNC;
+        }
+
+        private Outcome persistencia(Requisicao req) {
+            PropostaRequest request = req.request;
+            PropostaResponse response = req.response;
+            EngineEvents.RepositoryWrite gravacao = EngineEvents.repository(req.requestId, req.plano, 1);
+            boolean gravado = false;
+            try {
+                repository.salvar(new Orcamento(response.idProposta(), request.idCliente(), request.plano(), request.valorBruto(),
+                    response.taxaAplicada(), response.valorLiquido(), response.status(), Instant.now()));
+                gravado = true;
+            } catch (RuntimeException ex) {
+                LoggerSaaS.log("ERROR", req.requestId, "Falha ao persistir: " + ex.getMessage());
+                throw new RequestValidationException(500, "Falha ao persistir");
+            } finally {
+                if (gravacao != null) {
+                    gravacao.end(gravado);
+                }
+            }
+            return Outcome.NEXT;
+        }
+
+        // Monta e cifra a resposta; o JsonWriter da thread e enviado em seguida, na mesma thread, por "escrita".
+        Outcome cifra(Requisicao req) {
+            if (req.binario) {
+                try (PooledBuffer plain = BufferPool.heap().acquire(BinaryWire.responseSize(req.response))) {
+                    int length = BinaryWire.writeResponse(req.response, plain.array(), 0);
+                    req.frame = BinaryWire.seal(crypto, req.suite, plain.array(), 0, length);
+                }
+            } else {
+                req.json = crypto.encryptTo(req.suite, resposta(req));
+            }
+            return Outcome.NEXT;
+        }
+
+        Outcome escrita(Requisicao req) throws IOException {
+            if (req.frame != null) {
+                req.guardarResposta(200, BinaryWire.CONTENT_TYPE, req.frame.array(), req.frame.length());
+                HttpResponses.sendBytes(req.exchange, 200, BinaryWire.CONTENT_TYPE, req.frame.array(), req.frame.length(), req.requestId);
+            } else {
+                JsonWriter json = req.json != null ? req.json : resposta(req);
+                req.json = null;
+                req.guardarResposta(200, HttpResponses.CONTENT_TYPE_JSON, json.buffer(), json.size());
+                HttpResponses.sendJson(req.exchange, 200, json, req.requestId);
+            }
+            concluir(req, 200);
+            return Outcome.NEXT;
+        }
+
+        JsonWriter resposta(Requisicao req) {
+            return jsonSucesso(JsonWriter.local(), req.response);
+        }
+
+        // Resposta enviada: metricas do endpoint e fim do evento JFR da requisicao.
+        void concluir(Requisicao req, int status) {
+            metricsRegistry.record(metricas, status, req.plano, req.startedAt);
+            EngineEvents.Request evento = req.evento;
+            if (evento != null) {
+                req.evento = null;
+                evento.end(status, req.plano);
+            }
+        }
+
+        Outcome recusar(Requisicao req, int status, String message) throws IOException {
+            HttpResponses.sendError(req.exchange, status, message, req.requestId);
+            recusas[req.stageIndex()].increment();
+            concluir(req, status);
+            return Outcome.DONE;
+        }
+
+        // Excecao de qualquer etapa: validacao -> status proprio, fila cheia -> 503, timeout -> 504, argumento invalido -> 400.
+        private void falha(Requisicao req, String etapa, Throwable erro) {
+            Throwable causa = (erro instanceof CompletionException && erro.getCause() != null) ? erro.getCause() : erro;
+            int status = 500;
+            try {
+                if ("escrita".equals(etapa) && causa instanceof IOException) {
+                    LoggerSaaS.log("ERROR", req.requestId, "Falha ao enviar resposta: " + causa.getMessage());
+                } else if (causa instanceof RequestValidationException e) {
+                    status = e.status();
+                    HttpResponses.sendError(req.exchange, status, e.getMessage(), req.requestId);
+                } else if (causa instanceof RejectedExecutionException) {
+                    status = 503;
+                    HttpResponses.sendUnavailable(req.exchange, motor.retryAfterSeconds(), "Servidor sobrecarregado", req.requestId);
+                } else if (causa instanceof TimeoutException) {
+                    status = 504;
+                    HttpResponses.sendError(req.exchange, status, "Tempo limite de processamento excedido", req.requestId);
+                } else if (causa instanceof IllegalArgumentException) {
+                    status = 400;
+                    HttpResponses.sendError(req.exchange, status, causa.getMessage(), req.requestId);
+                } else {
+                    LoggerSaaS.log("ERROR", req.requestId, "Falha na etapa " + etapa + ": " + causa.getMessage());
+                    HttpResponses.sendError(req.exchange, status, "Falha interna", req.requestId);
+                }
+            } catch (IOException ex) {
+                LoggerSaaS.log("ERROR", req.requestId, "Falha ao enviar erro: " + ex.getMessage());
+            } finally {
+                if (status >= 400 && status < 500) {
+                    recusas[req.stageIndex()].increment();
+                }
+                concluir(req, status);
+            }
+        }
+
+        <T> T bind(AeadSuite suite, byte[] data, int offset, int length, Function<JsonCursor, T> binder) {
+            if (!secureEndpoint) {
+                return binder.apply(JsonCursor.of(data, offset, length));
+            }
+            try (PooledBuffer plain = crypto.open(suite, data, offset, length)) {
+                return binder.apply(JsonCursor.of(plain.array(), 0, plain.length()));
+            }
+        }
+
+        static JsonWriter jsonSucesso(JsonWriter json, PropostaResponse response) {
+            return json.beginObject()
+                .name("idProposta").value(response.idProposta())
+                .name("valorLiquido").money(response.valorLiquido())
+                .name("taxaAplicada").money(response.taxaAplicada())
+                .name("status").value(response.status())
+                .endObject();
+        }
+
+        // Estado de uma requisicao ao longo das etapas; cada handler usa os campos do seu fluxo.
+        static final class Requisicao extends RequestPipeline.State {
+            final HttpExchange exchange;
+            final String requestId;
+            final long startedAt;
+            boolean binario;
+            AeadSuite suite;
+            String token;
+            Plano plano;
+            String tenant;
+            PooledBuffer body;
+            PooledBuffer plain;
+            PropostaRequest request;
+            PropostaResponse response;
+            List<ItemLote> itens;
+            List<CompletableFuture<PropostaResponse>> futures;
+            boolean[] recusados;
+            PropostaResponse[] respostas;
+            String[] erros;
+            int processados;
+            PooledBuffer frame;
+            JsonWriter json;
+            // null sem gravacao JFR ativa.
+            EngineEvents.Request evento;
+            // Chave reservada por esta requisicao (dona); null sem Idempotency-Key ou depois de concluida.
+            IdempotencyCache.Entry idempotente;
+
+            Requisicao(HttpExchange exchange, String requestId, long startedAt) {
+                this.exchange = exchange;
+                this.requestId = requestId;
+                this.startedAt = startedAt;
+            }
+
+            @Override
+            protected String requestId() {
+                return requestId;
+            }
+
+            @Override
+            protected Plano plano() {
+                return plano;
+            }
+
+            // Corpo em claro: o decifrado no endpoint seguro, o lido nos demais.
+            PooledBuffer conteudo() {
+                return plain != null ? plain : body;
+            }
+
+            // Resposta 2xx que as duplicatas vao receber; so a escrita chama, antes de enviar.
+            void guardarResposta(int status, String contentType, byte[] body, int length) {
+                if (idempotente != null) {
+                    idempotente.complete(status, contentType, body, length);
+                    idempotente = null;
+                }
+            }
+
+            void liberarCorpo() {
+                if (body != null) {
+                    body.close();
+                    body = null;
+                }
+                if (plain != null) {
+                    plain.close();
+                    plain = null;
+                }
+            }
+
+            // Fim do pipeline por qualquer caminho (recusa, falha, timeout): chave sem resposta 2xx volta a ficar livre.
+            @Override
+            protected void release() {
+                if (idempotente != null) {
+                    idempotente.abandon();
+                    idempotente = null;
+                }
+                liberarCorpo();
+                if (frame != null) {
+                    frame.close();
+                    frame = null;
+                }
+                if (json != null) {
+                    json.release();
+                    json = null;
+                }
+            }
+        }
+    }
 
-                CompletableFuture<PropostaResponse> future = motor.processarAsync(request, requestId);
-                if (appConfig.processingTimeoutMs() > 0) {
-                    future = future.orTimeout(appConfig.processingTimeoutMs(), TimeUnit.MILLISECONDS);
-                }
-
-                future.thenAccept(response -> {
-                    try {
-                        Orcamento orcamento = new Orcamento(
-                            response.idProposta(),
-                            request.idCliente(),
-                            request.plano(),
-                            request.valorBruto(),
-                            response.taxaAplicada(),
-                            response.valorLiquido(),
-                            response.status(),
-                            Instant.now()
-                        );
-                        repository.salvar(orcamento);
-
-                        String jsonResponse = jsonSucesso(response);
-                        if (secureEndpoint) {
-                            CryptoUtils.EncryptedPayload encryptedResponse = CryptoUtils.encrypt(jsonResponse, cryptoConfig.aesKey());
-                            jsonResponse = CryptoUtils.writePayload(encryptedResponse);
-                        }
-                        HttpResponses.sendJson(exchange, 200, jsonResponse, requestId);
-                        metricsRegistry.record(true, durationMs(startedAt));
-                    } catch (RuntimeException ex) {
-                        LoggerSaaS.log("ERROR", requestId, "Falha ao persistir: " + ex.getMessage());
-                        try {
-                            HttpResponses.sendJson(exchange, 500, HttpResponses.errorJson(500, "Falha ao persistir", requestId), requestId);
-                        } catch (IOException e) {
-                            LoggerSaaS.log("ERROR", requestId, "Falha ao enviar erro: " + e.getMessage());
-                        }
-                        metricsRegistry.record(false, durationMs(startedAt));
-                    } catch (IOException ex) {
-                        LoggerSaaS.log("ERROR", requestId, "Falha ao enviar resposta: " + ex.getMessage());
-                        metricsRegistry.record(false, durationMs(startedAt));
+    static class CalculoLoteHandler extends CalculoHandler {
+        CalculoLoteHandler(String path, MotorFinanceiroEspecialista motor, OrcamentoRepository repository, JwtConfig jwtConfig, CryptoSession crypto, boolean secureEndpoint, AppConfig appConfig, TieredRateLimiter.Endpoint cotas, IdempotencyCache idempotency, MetricsRegistry metricsRegistry, Executor cryptoExecutor, RequestTracer tracer) {
+            super(path, motor, repository, jwtConfig, crypto, secureEndpoint, appConfig, cotas, idempotency, metricsRegistry, cryptoExecutor, tracer);
+        }
+
+        @Override
+        boolean aceitaBinario() {
+            return false;
+        }
+
+        // Os itens so sao persistidos e respondidos depois que todos terminam (ou o lote estoura o tempo),
+        // sempre num worker: quem completa o lote pode ser a thread do timeout.
+        @Override
+        void etapasCorpo(RequestPipeline.Builder<Requisicao> etapas) {
+            etapas.stage("leitura", this::leitura);
+            if (secureEndpoint) {
+                etapas.stage("decifra", cryptoExecutor, this::decifra);
+            }
+            etapaIdempotencia(etapas);
+            etapas.stage("parse", this::parseLote)
+                .stage("calculo", this::calculoLote)
+                .routedStage("persistencia", req -> motor.executor(req.plano), this::persistenciaLote);
+            if (secureEndpoint) {
+                etapas.stage("cifra", cryptoExecutor, this::cifra);
+            }
+            etapas.stage("escrita", this::escrita);
+        }
+
+        private Outcome parseLote(Requisicao req) {
+            PooledBuffer conteudo = req.conteudo();
+            req.itens = JsonBinders.propostaLote(JsonCursor.of(conteudo.array(), 0, conteudo.length()), appConfig.maxBatchItems());
+            req.liberarCorpo();
+            return Outcome.NEXT;
+        }
+
+        private Outcome calculoLote(Requisicao req) throws IOException {
+            List<ItemLote> itens = req.itens;
+            List<CompletableFuture<PropostaResponse>> futures = new ArrayList<>(Collections.nCopies(itens.size(), null));
+            List<CompletableFuture<PropostaResponse>> pendentes = new ArrayList<>(itens.size());
+            boolean[] recusados = new boolean[itens.size()];
+            int validos = 0;
+            for (int i = 0; i < itens.size(); i++) {
+                ItemLote item = itens.get(i);
+                if (item.erro() == null && item.request().plano() == req.plano) {
+                    validos++;
+                    CompletableFuture<PropostaResponse> future = motor.processarAdmitido(item.request(), req.requestId + "#" + i);
+                    if (future == null) {
+                        recusados[i] = true;
+                    } else {
+                        futures.set(i, future);
+                        pendentes.add(future);
                     }
-                }).exceptionally(ex -> {
-                    Throwable causa = (ex instanceof CompletionException && ex.getCause() != null)
-                        ? ex.getCause()
-                        : ex;
-                    int status = 500;
-                    if (causa instanceof TimeoutException) {
-                        status = 504;
-                    } else if (causa instanceof IllegalArgumentException) {
-                        status = 400;
+                }
+            }
+            if (validos > 0 && pendentes.isEmpty()) {
+                HttpResponses.sendUnavailable(req.exchange, motor.retryAfterSeconds(), "Servidor sobrecarregado", req.requestId);
+                concluir(req, 503);
+                return Outcome.DONE;
+            }
+            req.futures = futures;
+            req.recusados = recusados;
+
+            CompletableFuture<Void> todos = CompletableFuture.allOf(pendentes.toArray(new CompletableFuture<?>[0]));
+            if (appConfig.batchTimeoutMs() > 0) {
+                todos = todos.orTimeout(appConfig.batchTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            todos.whenComplete((ignored, erro) -> {
+                for (CompletableFuture<PropostaResponse> pendente : pendentes) {
+                    pendente.cancel(false);
+                }
+                pipeline.resume(req);
+            });
+            return Outcome.ASYNC;
+        }
+
+        // Itens cancelados pelo timeout do lote sao reportados como erro e nao sao persistidos.
+        private Outcome persistenciaLote(Requisicao req) {
+            List<ItemLote> itens = req.itens;
+            List<CompletableFuture<PropostaResponse>> futures = req.futures;
+            PropostaResponse[] respostas = new PropostaResponse[itens.size()];
+            String[] erros = new String[itens.size()];
+            List<Orcamento> orcamentos = new ArrayList<>(itens.size());
+            Instant agora = Instant.now();
+            for (int i = 0; i < itens.size(); i++) {
+                ItemLote item = itens.get(i);
+                if (item.erro() != null) {
+                    erros[i] = item.erro();
+                    continue;
+                }
+                if (req.recusados[i]) {
+                    erros[i] = "Servidor sobrecarregado";
+                    continue;
+                }
+                CompletableFuture<PropostaResponse> future = futures.get(i);
+                if (future == null) {
+                    erros[i] = "Acesso negado para o plano " + item.request().plano();
+                    continue;
+                }
+                if (future.isCancelled()) {
+                    erros[i] = "Tempo limite do lote excedido";
+                    continue;
+                }
+                try {
+                    respostas[i] = future.join();
+                } catch (CompletionException ex) {
+                    erros[i] = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+                    continue;
+                }
+                PropostaRequest request = item.request();
+                orcamentos.add(new Orcamento(respostas[i].idProposta(), request.idCliente(), request.plano(), request.valorBruto(),
+                    respostas[i].taxaAplicada(), respostas[i].valorLiquido(), respostas[i].status(), agora));
+            }
+            EngineEvents.RepositoryWrite gravacao = EngineEvents.repository(req.requestId, req.plano, orcamentos.size());
+            boolean gravado = false;
+            try {
+                repository.salvarLote(orcamentos);
+                gravado = true;
+            } catch (RuntimeException ex) {
+                LoggerSaaS.log("ERROR", req.requestId, "Falha ao persistir lote: " + ex.getMessage());
+                throw new RequestValidationException(500, "Falha ao persistir");
+            } finally {
+                if (gravacao != null) {
+                    gravacao.end(gravado);
+                }
+            }
+            req.respostas = respostas;
+            req.erros = erros;
+            req.processados = orcamentos.size();
+            return Outcome.NEXT;
+        }
+
+        @Override
+        JsonWriter resposta(Requisicao req) {
+            return jsonLote(JsonWriter.local(), req.respostas, req.erros, req.processados);
+        }
+
+        static JsonWriter jsonLote(JsonWriter json, PropostaResponse[] respostas, String[] erros, int processados) {
+            json.beginObject()
+                .name("total").value(respostas.length)
+                .name("processados").value(processados)
+                .name("falhas").value(respostas.length - processados)
+                .name("resultados").beginArray();
+            for (int i = 0; i < respostas.length; i++) {
+                json.beginObject().name("indice").value(i);
+                PropostaResponse resposta = respostas[i];
+                if (resposta != null) {
+                    json.name("idProposta").value(resposta.idProposta())
+                        .name("valorLiquido").money(resposta.valorLiquido())
+                        .name("taxaAplicada").money(resposta.taxaAplicada())
+                        .name("status").value(resposta.status());
+                } else {
+                    json.name("status").value("ERRO")
+                        .name("erro").value(erros[i]);
+                }
+                json.endObject();
+            }
+            return json.endArray().endObject();
+        }
+    }
+
+    static class CalculoStreamHandler extends CalculoHandler {
+        private static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+        private static final int PERSIST_BATCH = 100;
+
+        CalculoStreamHandler(String path, MotorFinanceiroEspecialista motor, OrcamentoRepository repository, JwtConfig jwtConfig, CryptoSession crypto, boolean secureEndpoint, AppConfig appConfig, TieredRateLimiter.Endpoint cotas, IdempotencyCache idempotency, MetricsRegistry metricsRegistry, Executor cryptoExecutor, RequestTracer tracer) {
+            super(path, motor, repository, jwtConfig, crypto, secureEndpoint, appConfig, cotas, idempotency, metricsRegistry, cryptoExecutor, tracer);
+        }
+
+        @Override
+        String contentTypeEsperado() {
+            return CONTENT_TYPE_NDJSON;
+        }
+
+        @Override
+        boolean aceitaIdempotencia() {
+            return false;
+        }
+
+        @Override
+        boolean aceitaBinario() {
+            return false;
+        }
+
+        // Leitura, calculo e escrita se intercalam linha a linha, entao o stream inteiro e uma etapa so.
+        @Override
+        void etapasCorpo(RequestPipeline.Builder<Requisicao> etapas) {
+            etapas.stage("stream", this::stream);
+        }
+
+        // A thread do handler alterna leitura e escrita: so le uma nova linha quando ha vaga em voo,
+        // e a escrita bloqueante no socket de resposta freia a leitura (backpressure).
+        private Outcome stream(Requisicao req) {
+            HttpExchange exchange = req.exchange;
+            String requestId = req.requestId;
+            int maxInFlight = appConfig.streamMaxInFlight();
+            BlockingQueue<ResultadoStream> concluidos = new LinkedBlockingQueue<>();
+            List<ResultadoStream> prontos = new ArrayList<>(PERSIST_BATCH);
+            StreamState state = new StreamState(req.suite);
+            boolean ok = true;
+            try (NdjsonLineReader reader = new NdjsonLineReader(exchange.getRequestBody(), appConfig.maxBodyBytes());
+                 OutputStream out = HttpResponses.startStream(exchange, 200, CONTENT_TYPE_NDJSON, requestId)) {
+                boolean inputOpen = true;
+                while (inputOpen || state.inFlight > 0) {
+                    ResultadoStream resultado = concluidos.poll();
+                    if (resultado == null && (!inputOpen || state.inFlight >= maxInFlight)) {
+                        resultado = concluidos.take();
                     }
-                    try {
-                        HttpResponses.sendJson(exchange, status, HttpResponses.errorJson(status, causa.getMessage(), requestId), requestId);
-                    } catch (IOException e) {
-                        LoggerSaaS.log("ERROR", requestId, "Falha ao enviar erro: " + e.getMessage());
+                    if (resultado != null) {
+                        prontos.add(resultado);
+                        concluidos.drainTo(prontos, PERSIST_BATCH - 1);
+                        state.inFlight -= prontos.size();
+                        escrever(out, prontos, state, req);
+                        continue;
                     }
-                    metricsRegistry.record(false, durationMs(startedAt));
-                    return null;
-                });
-            } catch (RequestValidationException e) {
-                HttpResponses.sendJson(exchange, e.status(), HttpResponses.errorJson(e.status(), e.getMessage(), requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-            } catch (IllegalArgumentException e) {
-                HttpResponses.sendJson(exchange, 400, HttpResponses.errorJson(400, e.getMessage(), requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-            } catch (Exception e) {
-                HttpResponses.sendJson(exchange, 500, HttpResponses.errorJson(500, "Falha interna", requestId), requestId);
-                metricsRegistry.record(false, durationMs(startedAt));
-            }
-        }
-
-        private PropostaRequest parseRequest(String json) {
-            UUID id = JsonUtils.readRequiredUuid(json, "idCliente");
-            BigDecimal valor = JsonUtils.readRequiredBigDecimal(json, "valorBruto");
-            String planoRaw = JsonUtils.readRequiredString(json, "plano");
-            Plano plano = Plano.from(planoRaw);
-            return new PropostaRequest(id, valor, plano);
-        }
-
-        private String jsonSucesso(PropostaResponse response) {
-            return String.format(
-                "{\"idProposta\":\"%s\",\"valorLiquido\":%.2f,\"taxaAplicada\":%.2f,\"status\":\"%s\"}",
-                response.idProposta(), response.valorLiquido(), response.taxaAplicada(), response.status()
-            );
+                    inputOpen = lerProxima(reader, req.plano, requestId, concluidos, prontos, state);
+                    if (!prontos.isEmpty()) {
+                        escrever(out, prontos, state, req);
+                    }
+                }
+                JsonWriter resumo = JsonWriter.local()
+                    .beginObject()
+                    .name("total").value(state.total)
+                    .name("processados").value(state.processados)
+                    .name("falhas").value(state.total - state.processados)
+                    .endObject();
+                writeLine(out, resumo);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                ok = false;
+            } catch (IOException | RuntimeException ex) {
+                LoggerSaaS.log("ERROR", requestId, "Stream interrompido: " + ex.getMessage());
+                ok = false;
+            }
+            LoggerSaaS.log("INFO", requestId, "Stream encerrado: " + state.total + " itens, " + state.processados + " processados");
+            // O 200 ja foi enviado; stream interrompido no meio conta como 5xx.
+            concluir(req, ok ? 200 : 500);
+            return Outcome.NEXT;
+        }
+
+        private boolean lerProxima(NdjsonLineReader reader, Plano plano, String requestId,
+                                   BlockingQueue<ResultadoStream> concluidos, List<ResultadoStream> prontos, StreamState state)
+            throws IOException, InterruptedException {
+            if (!reader.nextLine()) {
+                return false;
+            }
+            if (HttpRequestReader.isBlank(reader.line(), 0, reader.lineLength())) {
+                return true;
+            }
+            long linha = reader.lineNumber();
+            state.total++;
+            if (reader.overflow()) {
+                prontos.add(new ResultadoStream(linha, null, null, "Linha maior que o limite permitido"));
+                return true;
+            }
+            PropostaRequest request;
+            try {
+                request = bind(state.suite, reader.line(), 0, reader.lineLength(), JsonBinders::propostaRequest);
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                prontos.add(new ResultadoStream(linha, null, null, ex.getMessage()));
+                return true;
+            }
+            if (request.plano() != plano) {
+                prontos.add(new ResultadoStream(linha, null, null, "Acesso negado para o plano " + request.plano()));
+                return true;
+            }
+            CompletableFuture<PropostaResponse> future = motor.processarAdmitido(request, requestId + "#" + linha);
+            // Recusado pela admissao: espera um resultado proprio liberar vaga antes de desistir da linha.
+            while (future == null && state.inFlight > 0) {
+                prontos.add(concluidos.take());
+                state.inFlight--;
+                future = motor.processarAdmitido(request, requestId + "#" + linha);
+            }
+            if (future == null) {
+                prontos.add(new ResultadoStream(linha, null, null, "Servidor sobrecarregado"));
+                return true;
+            }
+            if (appConfig.processingTimeoutMs() > 0) {
+                future = future.orTimeout(appConfig.processingTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            state.inFlight++;
+            future.whenComplete((response, erro) -> {
+                if (erro == null) {
+                    concluidos.add(new ResultadoStream(linha, request, response, null));
+                    return;
+                }
+                Throwable causa = (erro instanceof CompletionException && erro.getCause() != null) ? erro.getCause() : erro;
+                String mensagem = causa instanceof TimeoutException ? "Tempo limite de processamento excedido" : causa.getMessage();
+                concluidos.add(new ResultadoStream(linha, null, null, mensagem));
+            });
+            return true;
+        }
+
+        // Persiste o grupo antes de escrever, entao toda linha de sucesso enviada ja esta gravada.
+        private void escrever(OutputStream out, List<ResultadoStream> prontos, StreamState state, Requisicao req) throws IOException {
+            List<Orcamento> orcamentos = new ArrayList<>(prontos.size());
+            Instant agora = Instant.now();
+            for (ResultadoStream resultado : prontos) {
+                if (resultado.response() != null) {
+                    PropostaRequest request = resultado.request();
+                    PropostaResponse response = resultado.response();
+                    orcamentos.add(new Orcamento(response.idProposta(), request.idCliente(), request.plano(), request.valorBruto(),
+                        response.taxaAplicada(), response.valorLiquido(), response.status(), agora));
+                }
+            }
+            String falhaPersistencia = null;
+            EngineEvents.RepositoryWrite gravacao = EngineEvents.repository(req.requestId, req.plano, orcamentos.size());
+            try {
+                repository.salvarLote(orcamentos);
+            } catch (RuntimeException ex) {
+                LoggerSaaS.log("ERROR", req.requestId, "Falha ao persistir grupo do stream: " + ex.getMessage());
+                falhaPersistencia = "Falha ao persistir";
+            }
+            if (gravacao != null) {
+                gravacao.end(falhaPersistencia == null);
+            }
+            for (ResultadoStream resultado : prontos) {
+                JsonWriter json = JsonWriter.local().beginObject().name("linha").value(resultado.linha());
+                if (resultado.response() != null && falhaPersistencia == null) {
+                    PropostaResponse response = resultado.response();
+                    json.name("idProposta").value(response.idProposta())
+                        .name("valorLiquido").money(response.valorLiquido())
+                        .name("taxaAplicada").money(response.taxaAplicada())
+                        .name("status").value(response.status());
+                    state.processados++;
+                } else {
+                    json.name("status").value("ERRO")
+                        .name("erro").value(resultado.response() != null ? falhaPersistencia : resultado.erro());
+                }
+                json.endObject();
+                if (secureEndpoint) {
+                    crypto.encryptTo(state.suite, json);
+                }
+                writeLine(out, json);
+            }
+            prontos.clear();
+            out.flush();
+        }
+
+        private static void writeLine(OutputStream out, JsonWriter json) throws IOException {
+            try {
+                json.writeTo(out);
+                out.write('\n');
+            } finally {
+                json.release();
+            }
+        }
+
+        private record ResultadoStream(long linha, PropostaRequest request, PropostaResponse response, String erro) {}
+
+        private static final class StreamState {
+            private final AeadSuite suite;
+            private int inFlight;
+            private long total;
+            private long processados;
+
+            private StreamState(AeadSuite suite) {
+                this.suite = suite;
+            }
         }
     }
 
@@ -391,15 +1301,158 @@ public class MotorFinanceiro {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                HttpResponses.sendJson(exchange, 405, HttpResponses.errorJson(405, "Metodo nao permitido", null), null);
+                HttpResponses.sendError(exchange, 405, "Metodo nao permitido", null);
+                return;
+            }
+            if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                HttpResponses.sendError(exchange, 403, "Acesso local apenas", null);
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            if (prometheus(exchange, query)) {
+                byte[] body = metricsRegistry.writePrometheus(new PrometheusWriter(), secureMode).toBytes();
+                HttpResponses.sendBytes(exchange, 200, PrometheusWriter.CONTENT_TYPE, body, body.length, null);
+                return;
+            }
+            // ?window=interval: latencias desde a chamada anterior com o mesmo parametro.
+            boolean interval = query != null && query.contains("window=interval");
+            HttpResponses.sendJson(exchange, 200, metricsRegistry.writeJson(JsonWriter.local(), secureMode, interval), null);
+        }
+
+        // ?format=prometheus, ou o Accept do scraper (text/plain ou OpenMetrics) sem pedir JSON.
+        private static boolean prometheus(HttpExchange exchange, String query) {
+            if (query != null && query.contains("format=")) {
+                return query.contains("format=prometheus");
+            }
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            return accept != null && !accept.contains("application/json")
+                && (accept.contains("text/plain") || accept.contains("application/openmetrics-text"));
+        }
+    }
+
+    // Requisicoes mais lentas da janela, com o tempo de cada etapa; local, como /metrics.
+    static class TracesHandler implements HttpHandler {
+        private final RequestTracer tracer;
+
+        TracesHandler(RequestTracer tracer) {
+            this.tracer = tracer;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                HttpResponses.sendError(exchange, 405, "Metodo nao permitido", null);
                 return;
             }
             if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
-                HttpResponses.sendJson(exchange, 403, HttpResponses.errorJson(403, "Acesso local apenas", null), null);
+                HttpResponses.sendError(exchange, 403, "Acesso local apenas", null);
                 return;
             }
-            String response = metricsRegistry.toJson(secureMode);
-            HttpResponses.sendJson(exchange, 200, response, null);
+            RequestTracer.Snapshot s = tracer.snapshot();
+            JsonWriter json = JsonWriter.local().beginObject()
+                .name("sampleEvery").value(s.sampleEvery())
+                .name("capacity").value(s.capacity())
+                .name("slowMs").value(s.slowMs())
+                .name("windowSeconds").value(s.windowSeconds())
+                .name("sampled").value(s.sampled())
+                .name("captured").value(s.captured())
+                .name("slowest").beginArray();
+            for (RequestTracer.SlowRequest request : tracer.slowest()) {
+                json.beginObject()
+                    .name("requestId").value(request.requestId())
+                    .name("endpoint").value(request.endpoint())
+                    .name("startedAt").value(Instant.ofEpochMilli(request.startedAtMs()).toString())
+                    .name("totalMicros").value(request.totalMicros())
+                    .name("outcome").value(request.outcome())
+                    .name("stage").value(request.stage())
+                    .name("stages").beginObject();
+                for (RequestTracer.Span span : request.stages()) {
+                    json.name(span.name()).value(span.micros());
+                }
+                json.endObject().name("details").beginObject();
+                for (RequestTracer.Span span : request.details()) {
+                    json.name(span.name()).value(span.micros());
+                }
+                json.endObject().endObject();
+            }
+            HttpResponses.sendJson(exchange, 200, json.endArray().endObject(), null);
+        }
+    }
+
+    // Gravacao JFR sob demanda; local, como /metrics. GET devolve o estado, POST ?action=start|dump|stop.
+    static class JfrHandler implements HttpHandler {
+        private final FlightRecorderControl flightRecorder;
+
+        JfrHandler(FlightRecorderControl flightRecorder) {
+            this.flightRecorder = flightRecorder;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equalsIgnoreCase(method) && !"POST".equalsIgnoreCase(method)) {
+                HttpResponses.sendError(exchange, 405, "Metodo nao permitido", null);
+                return;
+            }
+            if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                HttpResponses.sendError(exchange, 403, "Acesso local apenas", null);
+                return;
+            }
+            exchange.getRequestBody().close();
+            if ("GET".equalsIgnoreCase(method)) {
+                sendStatus(exchange, null);
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            String action = parametro(query, "action");
+            try {
+                switch (action == null ? "" : action) {
+                    case "start" -> {
+                        String settings = parametro(query, "settings");
+                        String maxAge = parametro(query, "maxAgeSeconds");
+                        flightRecorder.start(settings == null ? "default" : settings, maxAge == null ? 0L : Long.parseLong(maxAge));
+                        sendStatus(exchange, null);
+                    }
+                    case "dump" -> sendStatus(exchange, flightRecorder.dump());
+                    case "stop" -> sendStatus(exchange, flightRecorder.stop());
+                    default -> HttpResponses.sendError(exchange, 400, "action deve ser start, dump ou stop", null);
+                }
+            } catch (IllegalStateException ex) {
+                HttpResponses.sendError(exchange, 409, ex.getMessage(), null);
+            } catch (IllegalArgumentException ex) {
+                HttpResponses.sendError(exchange, 400, ex.getMessage(), null);
+            } catch (IOException ex) {
+                LoggerSaaS.log("ERROR", "Falha no controle JFR: " + ex.getMessage());
+                HttpResponses.sendError(exchange, 500, "Falha ao gravar JFR", null);
+            }
+        }
+
+        private void sendStatus(HttpExchange exchange, Path file) throws IOException {
+            FlightRecorderControl.Status s = flightRecorder.status();
+            JsonWriter json = JsonWriter.local().beginObject()
+                .name("active").value(s.active())
+                .name("settings").value(s.settings())
+                .name("startedAt").value(s.startedAt() == null ? null : s.startedAt().toString())
+                .name("bytes").value(s.bytes())
+                .name("lastDump").value(s.lastDump());
+            if (file != null) {
+                json.name("file").value(file.toString());
+            }
+            HttpResponses.sendJson(exchange, 200, json.endObject(), null);
+        }
+
+        // Valor de um parametro da query, sem decodificar: as opcoes aceitas sao ASCII simples.
+        private static String parametro(String query, String name) {
+            if (query == null) {
+                return null;
+            }
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq == name.length() && pair.startsWith(name)) {
+                    return pair.substring(eq + 1);
+                }
+            }
+            return null;
         }
     }
 
@@ -411,10 +1464,6 @@ public class MotorFinanceiro {
         return UUID.randomUUID().toString();
     }
 
-    private static long durationMs(long startedAtNanos) {
-        return Math.max(0L, (System.nanoTime() - startedAtNanos) / 1_000_000L);
-    }
-
     private static String remoteKey(HttpExchange exchange) {
         if (exchange == null || exchange.getRemoteAddress() == null) {
             return "unknown";
@@ -0,0 +1,86 @@
+package com.javatitan.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+final class NdjsonLineReader implements AutoCloseable {
+    private static final int READ_CHUNK_BYTES = 8192;
+
+    private final InputStream in;
+    private final PooledBuffer readBuffer;
+    private final PooledBuffer lineBuffer;
+    private final byte[] read;
+    private final byte[] line;
+    private final int maxLineBytes;
+    private int readPos;
+    private int readLimit;
+    private int lineLength;
+    private boolean overflow;
+    private long lineNumber;
+
+    NdjsonLineReader(InputStream in, int maxLineBytes) {
+        this.in = in;
+        this.readBuffer = BufferPool.heap().acquire(READ_CHUNK_BYTES);
+        this.lineBuffer = BufferPool.heap().acquire(maxLineBytes);
+        this.read = readBuffer.array();
+        this.line = lineBuffer.array();
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    // Linhas maiores que o limite sao consumidas ate o '\n' e marcadas como overflow.
+    boolean nextLine() throws IOException {
+        lineLength = 0;
+        overflow = false;
+        boolean sawData = false;
+        while (true) {
+            if (readPos == readLimit) {
+                int count = in.read(read, 0, read.length);
+                readPos = 0;
+                readLimit = Math.max(0, count);
+                if (count <= 0) {
+                    if (!sawData) {
+                        return false;
+                    }
+                    lineNumber++;
+                    return true;
+                }
+            }
+            sawData = true;
+            byte b = read[readPos++];
+            if (b == '\n') {
+                lineNumber++;
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+            if (lineLength < maxLineBytes) {
+                line[lineLength++] = b;
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    byte[] line() {
+        return line;
+    }
+
+    int lineLength() {
+        return lineLength;
+    }
+
+    boolean overflow() {
+        return overflow;
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() {
+        readBuffer.close();
+        lineBuffer.close();
+    }
+}
@@ -0,0 +1,535 @@
+package com.javatitan.engine;
+
+import com.sun.net.httpserver.Headers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class NioConnection {
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int MAX_CHUNK_LINE_BYTES = 8 * 1024;
+    private static final int MAX_PIPELINED = 16;
+    private static final long HIGH_WATER_BYTES = 256 * 1024;
+    private static final long LOW_WATER_BYTES = 64 * 1024;
+    private static final byte[] CONTINUE_100 = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpServer server;
+    private final NioHttpServer.EventLoop loop;
+    private final NioTransport transport;
+    private final boolean secure;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final ArrayDeque<NioHttpExchange> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicLong outboundBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object drainLock = new Object();
+
+    private SelectionKey key;
+    private NioHttpExchange current;
+    private boolean readPaused;
+    private boolean closeAfterWrite;
+    private boolean continueSent;
+    private int headerScanOffset;
+    // Requisicao incompleta no inicio do buffer; sobrevive as leituras seguintes.
+    private PartialRequest partial;
+    private long lastActivityMs = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    NioConnection(NioHttpServer server, NioHttpServer.EventLoop loop, SocketChannel channel, NioTransport transport, boolean secure) throws IOException {
+        this.server = server;
+        this.loop = loop;
+        this.transport = transport;
+        this.secure = secure;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    InetSocketAddress remoteAddress() {
+        return remoteAddress;
+    }
+
+    InetSocketAddress localAddress() {
+        return localAddress;
+    }
+
+    boolean secure() {
+        return secure;
+    }
+
+    NioHttpServer server() {
+        return server;
+    }
+
+    long lastActivityMs() {
+        return lastActivityMs;
+    }
+
+    boolean busy() {
+        return current != null || !pending.isEmpty() || !outbound.isEmpty();
+    }
+
+    void onReady(SelectionKey readyKey) {
+        try {
+            if (readyKey.isWritable()) {
+                if (transport.onWritable()) {
+                    flushOutbound();
+                }
+            }
+            if (readyKey.isValid() && readyKey.isReadable()) {
+                int read = transport.read();
+                if (read < 0) {
+                    close();
+                    return;
+                }
+                lastActivityMs = System.currentTimeMillis();
+            }
+            if (!closed) {
+                parseRequests();
+                updateInterest();
+            }
+        } catch (IOException | RuntimeException ex) {
+            close();
+        }
+    }
+
+    private void parseRequests() {
+        ByteBuffer in = transport.appIn();
+        if (in.position() > 0 && !closeAfterWrite) {
+            in.flip();
+            try {
+                while (in.hasRemaining() && pending.size() < MAX_PIPELINED) {
+                    NioHttpExchange exchange = tryParse(in);
+                    if (exchange == null) {
+                        break;
+                    }
+                    pending.add(exchange);
+                }
+            } catch (RequestValidationException ex) {
+                in.position(in.limit());
+                partial = null;
+                rejectAndClose(ex.status(), ex.getMessage());
+            } finally {
+                in.compact();
+            }
+        }
+        readPaused = pending.size() >= MAX_PIPELINED;
+        dispatchNext();
+    }
+
+    // Cabecalhos sao lidos uma vez; o corpo chunked e decodificado chunk a chunk conforme chega. Os offsets do
+    // PartialRequest sao relativos ao inicio da requisicao, que o compact() entre leituras leva para a posicao 0.
+    private NioHttpExchange tryParse(ByteBuffer in) {
+        int start = in.position();
+        int limit = in.limit();
+        if (partial == null) {
+            int headerEnd = indexOfHeaderEnd(in, start + headerScanOffset, limit);
+            if (headerEnd < 0) {
+                if (limit - start > MAX_HEADER_BYTES) {
+                    throw new RequestValidationException(431, "Cabecalhos muito grandes");
+                }
+                headerScanOffset = Math.max(0, limit - start - 3);
+                return null;
+            }
+            if (headerEnd - start > MAX_HEADER_BYTES) {
+                throw new RequestValidationException(431, "Cabecalhos muito grandes");
+            }
+            headerScanOffset = 0;
+            partial = parseHead(in, start, headerEnd);
+        }
+
+        PartialRequest request = partial;
+        byte[] body;
+        int end;
+        if (request.chunked) {
+            if (!decodeChunks(request, in, start, limit)) {
+                maybeSendContinue(request.headers);
+                return null;
+            }
+            body = request.body();
+            end = start + request.chunkOffset;
+            request.headers.remove("Transfer-Encoding");
+            request.headers.set("Content-Length", String.valueOf(body.length));
+        } else {
+            int bodyStart = start + request.bodyOffset;
+            if (limit - bodyStart < request.contentLength) {
+                maybeSendContinue(request.headers);
+                return null;
+            }
+            body = new byte[(int) request.contentLength];
+            in.get(bodyStart, body);
+            end = bodyStart + body.length;
+        }
+
+        in.position(end);
+        partial = null;
+        continueSent = false;
+        boolean keepAlive = keepAlive(request.protocol, request.headers);
+        return new NioHttpExchange(this, request.method, request.uri, request.protocol, request.headers, body, keepAlive);
+    }
+
+    private PartialRequest parseHead(ByteBuffer in, int start, int headerEnd) {
+        String head = ascii(in, start, headerEnd - start);
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new RequestValidationException(400, "Linha de requisicao invalida");
+        }
+        Headers headers = new Headers();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) {
+                throw new RequestValidationException(400, "Cabecalho invalido");
+            }
+            headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+        }
+        URI uri;
+        try {
+            uri = new URI(requestLine[1]);
+        } catch (URISyntaxException ex) {
+            throw new RequestValidationException(400, "URI invalida");
+        }
+        String transferEncoding = headers.getFirst("Transfer-Encoding");
+        boolean chunked = transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked");
+        long length = chunked ? 0L : contentLength(headers);
+        if (length > server.maxRequestBytes()) {
+            throw new RequestValidationException(413, "Payload maior que o limite permitido");
+        }
+        return new PartialRequest(requestLine[0], uri, requestLine[2], headers, headerEnd + 4 - start, chunked, length);
+    }
+
+    // true com o corpo completo (chunk final e trailers lidos). Cada chunk e copiado uma unica vez, quando chega
+    // inteiro; um chunk incompleto so custa reler a linha de tamanho na proxima leitura.
+    private boolean decodeChunks(PartialRequest request, ByteBuffer in, int start, int limit) {
+        while (true) {
+            int pos = start + request.chunkOffset;
+            int lineEnd = indexOfCrlf(in, pos, Math.min(limit, pos + MAX_CHUNK_LINE_BYTES));
+            if (lineEnd < 0) {
+                if (limit - pos >= MAX_CHUNK_LINE_BYTES) {
+                    throw new RequestValidationException(400, "Chunk invalido");
+                }
+                return false;
+            }
+            if (request.trailers) {
+                request.trailerBytes += lineEnd + 2 - pos;
+                if (request.trailerBytes > MAX_HEADER_BYTES) {
+                    throw new RequestValidationException(431, "Cabecalhos muito grandes");
+                }
+                request.chunkOffset = lineEnd + 2 - start;
+                if (lineEnd == pos) {
+                    return true;
+                }
+                continue;
+            }
+            int size = chunkSize(ascii(in, pos, lineEnd - pos));
+            if (request.bodyLength + (long) size > server.maxRequestBytes()) {
+                throw new RequestValidationException(413, "Payload maior que o limite permitido");
+            }
+            int dataStart = lineEnd + 2;
+            if (size == 0) {
+                request.trailers = true;
+                request.chunkOffset = dataStart - start;
+                continue;
+            }
+            if (limit - dataStart < size + 2) {
+                return false;
+            }
+            if (in.get(dataStart + size) != '\r' || in.get(dataStart + size + 1) != '\n') {
+                throw new RequestValidationException(400, "Chunk invalido");
+            }
+            request.append(in, dataStart, size);
+            request.chunkOffset = dataStart + size + 2 - start;
+        }
+    }
+
+    private static int chunkSize(String sizeLine) {
+        int semicolon = sizeLine.indexOf(';');
+        String hex = (semicolon >= 0 ? sizeLine.substring(0, semicolon) : sizeLine).trim();
+        if (hex.isEmpty() || hex.length() > 8) {
+            throw new RequestValidationException(400, "Chunk invalido");
+        }
+        int size = 0;
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+            if (digit < 0) {
+                throw new RequestValidationException(400, "Chunk invalido");
+            }
+            size = (size << 4) | digit;
+        }
+        if (size < 0) {
+            throw new RequestValidationException(413, "Payload maior que o limite permitido");
+        }
+        return size;
+    }
+
+    private void maybeSendContinue(Headers headers) {
+        String expect = headers.getFirst("Expect");
+        if (!continueSent && current == null && pending.isEmpty() && expect != null && expect.equalsIgnoreCase("100-continue")) {
+            continueSent = true;
+            outbound.add(ByteBuffer.wrap(CONTINUE_100));
+            outboundBytes.addAndGet(CONTINUE_100.length);
+            flushOutbound();
+        }
+    }
+
+    private void dispatchNext() {
+        if (current != null || closeAfterWrite || closed) {
+            return;
+        }
+        NioHttpExchange next = pending.poll();
+        if (next == null) {
+            return;
+        }
+        current = next;
+        server.dispatch(next::run);
+    }
+
+    void exchangeFinished(NioHttpExchange exchange) {
+        loop.execute(() -> {
+            if (current != exchange) {
+                return;
+            }
+            current = null;
+            if (!exchange.keepAlive()) {
+                closeAfterWrite = true;
+                pending.clear();
+            }
+            if (closed) {
+                return;
+            }
+            flushOutbound();
+            if (!closed) {
+                parseRequests();
+                updateInterest();
+            }
+        });
+    }
+
+    void enqueue(ByteBuffer buffer) throws IOException {
+        if (closed) {
+            throw new IOException("Conexao encerrada");
+        }
+        outbound.add(buffer);
+        long pendingBytes = outboundBytes.addAndGet(buffer.remaining());
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flushOutbound);
+        }
+        if (pendingBytes > HIGH_WATER_BYTES && !loop.inLoop()) {
+            awaitDrain();
+        }
+    }
+
+    private void awaitDrain() throws IOException {
+        synchronized (drainLock) {
+            while (!closed && outboundBytes.get() > LOW_WATER_BYTES) {
+                try {
+                    drainLock.wait(100L);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Escrita interrompida", ex);
+                }
+            }
+        }
+        if (closed) {
+            throw new IOException("Conexao encerrada");
+        }
+    }
+
+    private void flushOutbound() {
+        flushScheduled.set(false);
+        if (closed) {
+            return;
+        }
+        try {
+            ByteBuffer head;
+            while ((head = outbound.peek()) != null) {
+                int before = head.remaining();
+                boolean done = transport.write(head);
+                int written = before - head.remaining();
+                if (written > 0) {
+                    lastActivityMs = System.currentTimeMillis();
+                    if (outboundBytes.addAndGet(-written) <= LOW_WATER_BYTES) {
+                        synchronized (drainLock) {
+                            drainLock.notifyAll();
+                        }
+                    }
+                }
+                if (!done) {
+                    break;
+                }
+                outbound.poll();
+            }
+            if (closeAfterWrite && current == null && outbound.isEmpty() && !transport.hasPendingOutput()) {
+                close();
+                return;
+            }
+        } catch (IOException ex) {
+            close();
+            return;
+        }
+        updateInterest();
+    }
+
+    private void updateInterest() {
+        if (closed || key == null || !key.isValid()) {
+            return;
+        }
+        int ops = readPaused || closeAfterWrite ? 0 : SelectionKey.OP_READ;
+        if (!outbound.isEmpty() || transport.hasPendingOutput()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+
+    private void rejectAndClose(int status, String message) {
+        closeAfterWrite = true;
+        byte[] body = HttpResponses.writeError(new JsonWriter(256), status, message, null).toByteArray();
+        String head = "HTTP/1.1 " + status + " " + NioHttpExchange.reason(status) + "\r\n" +
+            "Content-Type: application/json; charset=UTF-8\r\n" +
+            "Content-Length: " + body.length + "\r\n" +
+            "Connection: close\r\n\r\n";
+        byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+        if (current == null) {
+            outbound.add(ByteBuffer.wrap(headBytes));
+            outbound.add(ByteBuffer.wrap(body));
+            outboundBytes.addAndGet(headBytes.length + body.length);
+            flushOutbound();
+        }
+    }
+
+    void close() {
+        if (!loop.inLoop()) {
+            loop.execute(this::close);
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        transport.close();
+        loop.forget(this);
+        server.connectionClosed();
+        pending.clear();
+        outbound.clear();
+        synchronized (drainLock) {
+            drainLock.notifyAll();
+        }
+    }
+
+    boolean closed() {
+        return closed;
+    }
+
+    private static boolean keepAlive(String protocol, Headers headers) {
+        String connection = headers.getFirst("Connection");
+        if (connection != null) {
+            String normalized = connection.toLowerCase(Locale.ROOT);
+            if (normalized.contains("close")) {
+                return false;
+            }
+            if (normalized.contains("keep-alive")) {
+                return true;
+            }
+        }
+        return "HTTP/1.1".equals(protocol);
+    }
+
+    private static long contentLength(Headers headers) {
+        String raw = headers.getFirst("Content-Length");
+        if (raw == null || raw.isBlank()) {
+            return 0L;
+        }
+        try {
+            long length = Long.parseLong(raw.trim());
+            if (length < 0) {
+                throw new RequestValidationException(400, "Content-Length invalido");
+            }
+            return length;
+        } catch (NumberFormatException ex) {
+            throw new RequestValidationException(400, "Content-Length invalido");
+        }
+    }
+
+    private static int indexOfHeaderEnd(ByteBuffer in, int from, int limit) {
+        for (int i = from; i + 3 < limit; i++) {
+            if (in.get(i) == '\r' && in.get(i + 1) == '\n' && in.get(i + 2) == '\r' && in.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfCrlf(ByteBuffer in, int from, int limit) {
+        for (int i = from; i + 1 < limit; i++) {
+            if (in.get(i) == '\r' && in.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String ascii(ByteBuffer in, int offset, int length) {
+        byte[] bytes = new byte[length];
+        in.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class PartialRequest {
+        final String method;
+        final URI uri;
+        final String protocol;
+        final Headers headers;
+        final int bodyOffset;
+        final boolean chunked;
+        final long contentLength;
+        // Estado do corpo chunked: proxima linha de tamanho (ou de trailer) e o que ja foi decodificado.
+        int chunkOffset;
+        boolean trailers;
+        int trailerBytes;
+        private byte[] data = new byte[0];
+        int bodyLength;
+
+        PartialRequest(String method, URI uri, String protocol, Headers headers, int bodyOffset, boolean chunked, long contentLength) {
+            this.method = method;
+            this.uri = uri;
+            this.protocol = protocol;
+            this.headers = headers;
+            this.bodyOffset = bodyOffset;
+            this.chunked = chunked;
+            this.contentLength = contentLength;
+            this.chunkOffset = bodyOffset;
+        }
+
+        void append(ByteBuffer in, int offset, int length) {
+            if (data.length - bodyLength < length) {
+                data = Arrays.copyOf(data, Math.max(bodyLength + length, data.length * 2));
+            }
+            in.get(offset, data, bodyLength, length);
+            bodyLength += length;
+        }
+
+        byte[] body() {
+            return data.length == bodyLength ? data : Arrays.copyOf(data, bodyLength);
+        }
+    }
+}
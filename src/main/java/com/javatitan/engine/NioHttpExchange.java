@@ -0,0 +1,387 @@
+package com.javatitan.engine;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class NioHttpExchange extends HttpExchange {
+    private static final int CHUNK_SIZE = 8192;
+    private static volatile CachedDate cachedDate = new CachedDate(0L, "");
+
+    private final NioConnection connection;
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final ResponseStream responseStream = new ResponseStream();
+    private InputStream requestBody;
+    private OutputStream responseBody = responseStream;
+    private NioHttpServer.NioContext context;
+    private volatile int responseCode = -1;
+    private volatile boolean keepAlive;
+
+    NioHttpExchange(NioConnection connection, String method, URI uri, String protocol, Headers requestHeaders, byte[] body, boolean keepAlive) {
+        this.connection = connection;
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = new ByteArrayInputStream(body);
+        this.keepAlive = keepAlive;
+    }
+
+    void run() {
+        String path = uri.getPath() == null ? "/" : uri.getPath();
+        context = connection.server().findContext(path);
+        try {
+            if (context == null || context.getHandler() == null) {
+                HttpResponses.sendError(this, 404, "Recurso nao encontrado", null);
+                return;
+            }
+            new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(this);
+        } catch (IOException | RuntimeException ex) {
+            LoggerSaaS.log("ERROR", "[NIO] Falha no handler: " + ex.getMessage());
+            if (responseCode == -1) {
+                keepAlive = false;
+                try {
+                    HttpResponses.sendError(this, 500, "Falha interna", null);
+                    return;
+                } catch (IOException ignored) {
+                }
+            }
+            connection.close();
+        }
+    }
+
+    boolean keepAlive() {
+        return keepAlive;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        try {
+            requestBody.close();
+        } catch (IOException ignored) {
+        }
+        if (responseCode == -1) {
+            keepAlive = false;
+            connection.close();
+            connection.exchangeFinished(this);
+            return;
+        }
+        try {
+            responseBody.close();
+        } catch (IOException ex) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int code, long length) throws IOException {
+        if (responseCode != -1) {
+            throw new IOException("Cabecalhos ja enviados");
+        }
+        responseCode = code;
+        boolean noBody = length < 0 || code == 204 || code == 304 || code < 200 || "HEAD".equalsIgnoreCase(method);
+        String connectionHeader = responseHeaders.getFirst("Connection");
+        if (connectionHeader != null && connectionHeader.equalsIgnoreCase("close")) {
+            keepAlive = false;
+        }
+
+        StringBuilder head = new StringBuilder(256);
+        head.append("HTTP/1.1 ").append(code).append(' ').append(reason(code)).append("\r\n");
+        responseHeaders.remove("Content-Length");
+        responseHeaders.remove("Transfer-Encoding");
+        for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
+            for (String value : entry.getValue()) {
+                head.append(entry.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        if (!responseHeaders.containsKey("Date")) {
+            head.append("Date: ").append(httpDate()).append("\r\n");
+        }
+        if (noBody) {
+            if (code >= 200 && code != 204 && code != 304) {
+                head.append("Content-Length: ").append(length > 0 ? length : 0).append("\r\n");
+            }
+        } else if (length > 0) {
+            head.append("Content-Length: ").append(length).append("\r\n");
+        } else {
+            head.append("Transfer-Encoding: chunked\r\n");
+        }
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        }
+        head.append("\r\n");
+        responseStream.start(head.toString().getBytes(StandardCharsets.ISO_8859_1), noBody, noBody ? 0 : length);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.remoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.localAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream input, OutputStream output) {
+        if (input != null) {
+            requestBody = input;
+        }
+        if (output != null) {
+            responseBody = output;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    static String reason(int code) {
+        return switch (code) {
+            case 100 -> "Continue";
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 403 -> "Forbidden";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 409 -> "Conflict";
+            case 413 -> "Payload Too Large";
+            case 415 -> "Unsupported Media Type";
+            case 422 -> "Unprocessable Entity";
+            case 429 -> "Too Many Requests";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 503 -> "Service Unavailable";
+            case 504 -> "Gateway Timeout";
+            default -> "Status";
+        };
+    }
+
+    private static String httpDate() {
+        long second = System.currentTimeMillis() / 1000L;
+        CachedDate current = cachedDate;
+        if (current.second() != second) {
+            String formatted = DateTimeFormatter.RFC_1123_DATE_TIME.withLocale(Locale.ROOT)
+                .format(ZonedDateTime.now(ZoneOffset.UTC));
+            current = new CachedDate(second, formatted);
+            cachedDate = current;
+        }
+        return current.value();
+    }
+
+    private record CachedDate(long second, String value) {}
+
+    private final class ResponseStream extends OutputStream {
+        private byte[] buffer;
+        private int count;
+        private boolean started;
+        private boolean noBody;
+        private boolean chunked;
+        private long expected;
+        private long written;
+        private boolean closed;
+        private int headLengthInBuffer;
+
+        void start(byte[] head, boolean noBody, long length) throws IOException {
+            this.started = true;
+            this.noBody = noBody;
+            this.chunked = !noBody && length == 0;
+            this.expected = length;
+            int capacity = noBody ? head.length : (int) Math.min(head.length + Math.max(length, 0L), head.length + (long) CHUNK_SIZE);
+            this.buffer = new byte[Math.max(capacity, head.length)];
+            System.arraycopy(head, 0, buffer, 0, head.length);
+            this.count = head.length;
+            this.headLengthInBuffer = chunked ? head.length : 0;
+            if (noBody) {
+                finish();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            if (!started) {
+                throw new IOException("sendResponseHeaders nao foi chamado");
+            }
+            if (closed) {
+                throw new IOException("Stream de resposta encerrado");
+            }
+            if (noBody || length == 0) {
+                return;
+            }
+            if (!chunked && written + length > expected) {
+                throw new IOException("Resposta excede Content-Length");
+            }
+            written += length;
+            int remaining = length;
+            int position = offset;
+            while (remaining > 0) {
+                if (count == buffer.length) {
+                    emit();
+                }
+                int copy = Math.min(remaining, buffer.length - count);
+                System.arraycopy(data, position, buffer, count, copy);
+                count += copy;
+                position += copy;
+                remaining -= copy;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (started && !closed && count > 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (!started) {
+                throw new IOException("sendResponseHeaders nao foi chamado");
+            }
+            if (!chunked && !noBody && written < expected) {
+                closed = true;
+                keepAlive = false;
+                connection.close();
+                connection.exchangeFinished(NioHttpExchange.this);
+                throw new IOException("Resposta menor que Content-Length");
+            }
+            finish();
+        }
+
+        private void finish() throws IOException {
+            closed = true;
+            try {
+                if (count > 0) {
+                    emit();
+                }
+                if (chunked) {
+                    connection.enqueue(ByteBuffer.wrap("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII)));
+                }
+            } finally {
+                connection.exchangeFinished(NioHttpExchange.this);
+            }
+        }
+
+        private void emit() throws IOException {
+            if (chunked) {
+                emitChunk();
+            } else {
+                connection.enqueue(ByteBuffer.wrap(buffer, 0, count));
+            }
+            buffer = new byte[CHUNK_SIZE];
+            count = 0;
+        }
+
+        // O primeiro bloco carrega os cabecalhos; so o restante vira chunk.
+        private void emitChunk() throws IOException {
+            int headLength = headLengthInBuffer;
+            if (headLength > 0) {
+                connection.enqueue(ByteBuffer.wrap(buffer, 0, headLength));
+                headLengthInBuffer = 0;
+            }
+            int size = count - headLength;
+            if (size <= 0) {
+                return;
+            }
+            byte[] prefix = (Integer.toHexString(size) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer chunk = ByteBuffer.allocate(prefix.length + size + 2);
+            chunk.put(prefix).put(buffer, headLength, size).put((byte) '\r').put((byte) '\n').flip();
+            connection.enqueue(chunk);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.javatitan.engine;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class NioHttpServer extends HttpServer {
+    private final SSLContext sslContext;
+    private final boolean needClientAuth;
+    private final int eventLoopCount;
+    private final int maxRequestBytes;
+    private final long idleTimeoutMs;
+    private final List<NioContext> contexts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final LongAdder acceptedConnections = new LongAdder();
+    private final LongAdder handledRequests = new LongAdder();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private InetSocketAddress address;
+    private int backlog;
+    private volatile Executor executor = Runnable::run;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] loops;
+    private volatile boolean running;
+
+    public NioHttpServer(InetSocketAddress address, SSLContext sslContext, boolean needClientAuth, int eventLoops, int maxRequestBytes, long idleTimeoutMs) {
+        this.address = address;
+        this.sslContext = sslContext;
+        this.needClientAuth = needClientAuth;
+        this.eventLoopCount = Math.max(1, eventLoops);
+        this.maxRequestBytes = maxRequestBytes;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @Override
+    public void bind(InetSocketAddress addr, int backlog) {
+        if (running) {
+            throw new IllegalStateException("Servidor ja iniciado");
+        }
+        this.address = addr;
+        this.backlog = backlog;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Servidor ja iniciado");
+        }
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(address, backlog);
+            serverChannel.configureBlocking(false);
+            loops = new EventLoop[eventLoopCount];
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop(i);
+            }
+            running = true;
+            loops[0].execute(() -> loops[0].registerAcceptor(serverChannel));
+            for (EventLoop loop : loops) {
+                loop.thread.start();
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Falha ao iniciar servidor NIO: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        this.executor = executor == null ? Runnable::run : executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop(int delaySeconds) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        long deadline = System.currentTimeMillis() + Math.max(0, delaySeconds) * 1000L;
+        for (EventLoop loop : loops) {
+            loop.shutdown(deadline);
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join(Math.max(1L, deadline - System.currentTimeMillis() + 1000L));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        NioContext context = (NioContext) createContext(path);
+        context.setHandler(handler);
+        return context;
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Contexto invalido: " + path);
+        }
+        for (NioContext context : contexts) {
+            if (context.getPath().equals(path)) {
+                throw new IllegalArgumentException("Contexto ja registrado: " + path);
+            }
+        }
+        NioContext context = new NioContext(path, this);
+        contexts.add(context);
+        return context;
+    }
+
+    @Override
+    public void removeContext(String path) {
+        if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+            throw new IllegalArgumentException("Contexto nao encontrado: " + path);
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        if (!contexts.remove(context)) {
+            throw new IllegalArgumentException("Contexto nao encontrado: " + context.getPath());
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        if (serverChannel != null && serverChannel.isOpen()) {
+            try {
+                return (InetSocketAddress) serverChannel.getLocalAddress();
+            } catch (IOException ignored) {
+            }
+        }
+        return address;
+    }
+
+    public Stats stats() {
+        return new Stats(eventLoopCount, openConnections.get(), acceptedConnections.sum(), handledRequests.sum());
+    }
+
+    NioContext findContext(String path) {
+        NioContext best = null;
+        for (NioContext context : contexts) {
+            if (path.startsWith(context.getPath()) && (best == null || context.getPath().length() > best.getPath().length())) {
+                best = context;
+            }
+        }
+        return best;
+    }
+
+    int maxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    void dispatch(Runnable task) {
+        handledRequests.increment();
+        executor.execute(task);
+    }
+
+    void connectionClosed() {
+        openConnections.decrementAndGet();
+    }
+
+    private SSLEngine createEngine(SocketChannel channel) throws IOException {
+        InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+        SSLEngine engine = sslContext.createSSLEngine(remote.getHostString(), remote.getPort());
+        engine.setUseClientMode(false);
+        SSLParameters parameters = sslContext.getDefaultSSLParameters();
+        parameters.setNeedClientAuth(needClientAuth);
+        engine.setSSLParameters(parameters);
+        engine.beginHandshake();
+        return engine;
+    }
+
+    final class EventLoop implements Executor {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Set<NioConnection> connections = new HashSet<>();
+        private volatile long shutdownDeadline;
+        private long lastIdleSweep = System.currentTimeMillis();
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this::run, "javatitan-nio-loop-" + index);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        void shutdown(long deadline) {
+            shutdownDeadline = deadline;
+            selector.wakeup();
+        }
+
+        void registerAcceptor(ServerSocketChannel channel) {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException ex) {
+                LoggerSaaS.log("ERROR", "[NIO] Falha ao registrar acceptor: " + ex.getMessage());
+            }
+        }
+
+        private void run() {
+            while (running || !connections.isEmpty()) {
+                if (!running && (System.currentTimeMillis() >= shutdownDeadline || allIdle())) {
+                    break;
+                }
+                try {
+                    selector.select(1000L);
+                } catch (IOException ex) {
+                    LoggerSaaS.log("ERROR", "[NIO] Falha no selector: " + ex.getMessage());
+                    break;
+                }
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                        continue;
+                    }
+                    NioConnection connection = (NioConnection) key.attachment();
+                    connection.onReady(key);
+                }
+                sweepIdle();
+            }
+            for (NioConnection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+            runTasks();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private boolean allIdle() {
+            for (NioConnection connection : connections) {
+                if (connection.busy()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    LoggerSaaS.log("ERROR", "[NIO] Falha em tarefa do event loop: " + ex.getMessage());
+                }
+            }
+        }
+
+        private void accept(ServerSocketChannel server) {
+            SocketChannel channel;
+            while (true) {
+                try {
+                    channel = server.accept();
+                } catch (IOException ex) {
+                    LoggerSaaS.log("WARN", "[NIO] Falha ao aceitar conexao: " + ex.getMessage());
+                    return;
+                }
+                if (channel == null) {
+                    return;
+                }
+                acceptedConnections.increment();
+                openConnections.incrementAndGet();
+                EventLoop target = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+                SocketChannel accepted = channel;
+                if (target == this) {
+                    target.register(accepted);
+                } else {
+                    target.execute(() -> target.register(accepted));
+                }
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                NioTransport transport = sslContext == null
+                    ? NioTransport.plain(channel)
+                    : NioTransport.tls(channel, createEngine(channel));
+                NioConnection connection = new NioConnection(NioHttpServer.this, this, channel, transport, sslContext != null);
+                connection.attach(channel.register(selector, SelectionKey.OP_READ, connection));
+                connections.add(connection);
+            } catch (IOException | RuntimeException ex) {
+                LoggerSaaS.log("WARN", "[NIO] Falha ao registrar conexao: " + ex.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                connectionClosed();
+            }
+        }
+
+        void forget(NioConnection connection) {
+            connections.remove(connection);
+        }
+
+        private void sweepIdle() {
+            long now = System.currentTimeMillis();
+            if (idleTimeoutMs <= 0 || now - lastIdleSweep < 1000L) {
+                return;
+            }
+            lastIdleSweep = now;
+            for (NioConnection connection : new ArrayList<>(connections)) {
+                if (!connection.busy() && now - connection.lastActivityMs() > idleTimeoutMs) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    static final class NioContext extends HttpContext {
+        private final String path;
+        private final NioHttpServer server;
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final List<Filter> filters = new CopyOnWriteArrayList<>();
+        private volatile HttpHandler handler;
+        private volatile Authenticator authenticator;
+
+        NioContext(String path, NioHttpServer server) {
+            this.path = path;
+            this.server = server;
+        }
+
+        @Override
+        public HttpHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public void setHandler(HttpHandler handler) {
+            if (handler == null) {
+                throw new NullPointerException("handler");
+            }
+            this.handler = handler;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public HttpServer getServer() {
+            return server;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        public Authenticator setAuthenticator(Authenticator auth) {
+            Authenticator previous = authenticator;
+            authenticator = auth;
+            return previous;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+    }
+
+    public record Stats(int eventLoops, int openConnections, long acceptedConnections, long requests) {}
+}
@@ -0,0 +1,309 @@
+package com.javatitan.engine;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+abstract class NioTransport {
+    protected final SocketChannel channel;
+    protected ByteBuffer appIn;
+    private PooledBuffer appInBuffer;
+
+    NioTransport(SocketChannel channel, int initialAppBuffer) {
+        this.channel = channel;
+        this.appInBuffer = BufferPool.direct().acquire(initialAppBuffer);
+        this.appIn = appInBuffer.buffer();
+    }
+
+    static NioTransport plain(SocketChannel channel) {
+        return new Plain(channel);
+    }
+
+    static NioTransport tls(SocketChannel channel, SSLEngine engine) {
+        return new Tls(channel, engine);
+    }
+
+    ByteBuffer appIn() {
+        return appIn;
+    }
+
+    void ensureAppInCapacity(int required) {
+        if (appIn.capacity() >= required) {
+            return;
+        }
+        int capacity = appIn.capacity();
+        while (capacity < required) {
+            capacity = capacity << 1;
+        }
+        PooledBuffer grown = BufferPool.direct().acquire(capacity);
+        appIn.flip();
+        grown.buffer().put(appIn);
+        appInBuffer.close();
+        appInBuffer = grown;
+        appIn = grown.buffer();
+    }
+
+    void releaseBuffers() {
+        appInBuffer.close();
+    }
+
+    abstract int read() throws IOException;
+
+    abstract boolean write(ByteBuffer src) throws IOException;
+
+    abstract boolean flush() throws IOException;
+
+    abstract boolean onWritable() throws IOException;
+
+    abstract boolean hasPendingOutput();
+
+    abstract void close();
+
+    private static final class Plain extends NioTransport {
+        Plain(SocketChannel channel) {
+            super(channel, 8192);
+        }
+
+        @Override
+        int read() throws IOException {
+            if (!appIn.hasRemaining()) {
+                ensureAppInCapacity(appIn.capacity() + 1);
+            }
+            return channel.read(appIn);
+        }
+
+        @Override
+        boolean write(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                if (channel.write(src) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean flush() {
+            return true;
+        }
+
+        @Override
+        boolean onWritable() {
+            return true;
+        }
+
+        @Override
+        boolean hasPendingOutput() {
+            return false;
+        }
+
+        @Override
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            releaseBuffers();
+        }
+    }
+
+    private static final class Tls extends NioTransport {
+        private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+        private final SSLEngine engine;
+        private PooledBuffer netInBuffer;
+        private PooledBuffer netOutBuffer;
+        private ByteBuffer netIn;
+        private ByteBuffer netOut;
+
+        Tls(SocketChannel channel, SSLEngine engine) {
+            super(channel, engine.getSession().getApplicationBufferSize());
+            this.engine = engine;
+            int packetSize = engine.getSession().getPacketBufferSize();
+            this.netInBuffer = BufferPool.direct().acquire(packetSize);
+            this.netOutBuffer = BufferPool.direct().acquire(packetSize);
+            this.netIn = netInBuffer.buffer();
+            this.netOut = netOutBuffer.buffer();
+            this.netOut.flip();
+        }
+
+        @Override
+        int read() throws IOException {
+            if (!netIn.hasRemaining()) {
+                growNetIn(netIn.capacity() << 1);
+            }
+            int read = channel.read(netIn);
+            if (read < 0) {
+                return -1;
+            }
+            int before = appIn.position();
+            if (!pump()) {
+                return -1;
+            }
+            return appIn.position() - before;
+        }
+
+        @Override
+        boolean write(ByteBuffer src) throws IOException {
+            if (!pump()) {
+                throw new IOException("Conexao TLS encerrada");
+            }
+            while (true) {
+                if (!flush()) {
+                    return false;
+                }
+                if (!src.hasRemaining()) {
+                    return true;
+                }
+                netOut.clear();
+                SSLEngineResult result = engine.wrap(src, netOut);
+                netOut.flip();
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                    replaceNetOut(engine.getSession().getPacketBufferSize() + netOut.capacity());
+                    continue;
+                }
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                    throw new IOException("Conexao TLS encerrada");
+                }
+                runDelegatedTasks(result);
+            }
+        }
+
+        @Override
+        boolean flush() throws IOException {
+            while (netOut.hasRemaining()) {
+                if (channel.write(netOut) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean onWritable() throws IOException {
+            if (!flush()) {
+                return false;
+            }
+            if (!pump()) {
+                throw new IOException("Conexao TLS encerrada");
+            }
+            return !netOut.hasRemaining();
+        }
+
+        @Override
+        boolean hasPendingOutput() {
+            return netOut.hasRemaining() || engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP;
+        }
+
+        // Avanca handshake e unwrap ate faltar dado de rede ou ficar bloqueado em escrita.
+        private boolean pump() throws IOException {
+            boolean progressed = true;
+            while (progressed) {
+                progressed = false;
+                SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+                if (status == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                    runDelegatedTasks();
+                    progressed = true;
+                    continue;
+                }
+                if (status == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                    if (!flush()) {
+                        return true;
+                    }
+                    netOut.clear();
+                    SSLEngineResult result = engine.wrap(EMPTY, netOut);
+                    netOut.flip();
+                    if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                        replaceNetOut(netOut.capacity() << 1);
+                    } else if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                        flush();
+                        return false;
+                    }
+                    progressed = true;
+                    continue;
+                }
+                netIn.flip();
+                if (!netIn.hasRemaining()) {
+                    netIn.compact();
+                    break;
+                }
+                SSLEngineResult result;
+                try {
+                    result = engine.unwrap(netIn, appIn);
+                } finally {
+                    netIn.compact();
+                }
+                switch (result.getStatus()) {
+                    case BUFFER_OVERFLOW -> {
+                        ensureAppInCapacity(appIn.position() + engine.getSession().getApplicationBufferSize());
+                        progressed = true;
+                    }
+                    case BUFFER_UNDERFLOW -> {
+                        int packetSize = engine.getSession().getPacketBufferSize();
+                        if (netIn.capacity() < packetSize) {
+                            growNetIn(packetSize);
+                        }
+                    }
+                    case CLOSED -> {
+                        return false;
+                    }
+                    case OK -> progressed = result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+                }
+            }
+            flush();
+            return true;
+        }
+
+        private void runDelegatedTasks(SSLEngineResult result) {
+            if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+            }
+        }
+
+        private void runDelegatedTasks() {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        }
+
+        private void growNetIn(int capacity) {
+            PooledBuffer grown = BufferPool.direct().acquire(Math.max(capacity, netIn.capacity()));
+            netIn.flip();
+            grown.buffer().put(netIn);
+            netInBuffer.close();
+            netInBuffer = grown;
+            netIn = grown.buffer();
+        }
+
+        // So e chamado com netOut ja drenado, entao nao ha bytes a copiar.
+        private void replaceNetOut(int capacity) {
+            PooledBuffer replacement = BufferPool.direct().acquire(capacity);
+            netOutBuffer.close();
+            netOutBuffer = replacement;
+            netOut = replacement.buffer();
+            netOut.flip();
+        }
+
+        @Override
+        void close() {
+            try {
+                engine.closeOutbound();
+                netOut.clear();
+                engine.wrap(EMPTY, netOut);
+                netOut.flip();
+                flush();
+            } catch (IOException ignored) {
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            netInBuffer.close();
+            netOutBuffer.close();
+            releaseBuffers();
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.javatitan.engine;
 
+import java.util.List;
+
 public interface OrcamentoRepository extends AutoCloseable {
     void salvar(Orcamento orcamento);
 
+    default void salvarLote(List<Orcamento> orcamentos) {
+        for (Orcamento orcamento : orcamentos) {
+            salvar(orcamento);
+        }
+    }
+
     @Override
     default void close() {
     }
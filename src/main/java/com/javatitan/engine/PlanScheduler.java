@@ -0,0 +1,202 @@
+package com.javatitan.engine;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PlanScheduler {
+    private static final Plano[] PLANOS = Plano.values();
+
+    private final Executor executor;
+    private final int slots;
+    private final int capacity;
+    private final long maxWaitNanos;
+    private final int[] weights;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PlanQueue[] queues = new PlanQueue[PLANOS.length];
+    // Uma instancia por plano: a mesma a cada chamada, entao o RequestPipeline reconhece que ja esta nela.
+    private final Executor[] executors = new Executor[PLANOS.length];
+    private double virtualTime;
+    private int running;
+    private int queued;
+
+    public PlanScheduler(Executor executor, int slots, int capacity, Map<Plano, Integer> weights, long maxWaitMs) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("PlanScheduler exige ao menos 1 slot");
+        }
+        this.executor = executor;
+        this.slots = slots;
+        this.capacity = capacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.weights = new int[PLANOS.length];
+        for (Plano plano : PLANOS) {
+            this.weights[plano.ordinal()] = Math.max(1, weights.getOrDefault(plano, 1));
+            this.queues[plano.ordinal()] = new PlanQueue();
+            this.executors[plano.ordinal()] = task -> submit(plano, task);
+        }
+    }
+
+    public Executor executorFor(Plano plano) {
+        return executors[plano.ordinal()];
+    }
+
+    public void submit(Plano plano, Runnable task) {
+        Task item = new Task(plano, task, System.nanoTime());
+        lock.lock();
+        try {
+            if (running >= slots) {
+                if (queued >= capacity) {
+                    queues[plano.ordinal()].rejected.increment();
+                    throw new RejectedExecutionException("Fila do plano " + plano + " cheia");
+                }
+                PlanQueue queue = queues[plano.ordinal()];
+                // Plano que volta do ocioso entra no tempo virtual atual, sem credito acumulado.
+                if (queue.tasks.isEmpty()) {
+                    queue.pass = Math.max(queue.pass, virtualTime);
+                }
+                queue.tasks.addLast(item);
+                queued++;
+                return;
+            }
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        dispatch(item);
+    }
+
+    private void dispatch(Task item) {
+        PlanQueue queue = queues[item.plano.ordinal()];
+        long waited = System.nanoTime() - item.enqueuedAt;
+        queue.dispatched.increment();
+        queue.waitNanos.add(waited);
+        queue.updateMaxWait(waited);
+        try {
+            executor.execute(() -> {
+                try {
+                    item.task.run();
+                } finally {
+                    finished();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            finished();
+            throw ex;
+        }
+    }
+
+    private void finished() {
+        Task next;
+        lock.lock();
+        try {
+            next = pickNext();
+            if (next == null) {
+                running--;
+                return;
+            }
+            queued--;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatch(next);
+        } catch (RejectedExecutionException ex) {
+            LoggerSaaS.log("WARN", "[SCHEDULER] Tarefa descartada no encerramento: " + ex.getMessage());
+        }
+    }
+
+    // Stride scheduling: menor "pass" vence e avanca 1/peso. Quem passou de maxWait e promovido (anti-starvation).
+    private Task pickNext() {
+        long now = System.nanoTime();
+        PlanQueue chosen = null;
+        PlanQueue oldest = null;
+        for (PlanQueue queue : queues) {
+            Task head = queue.tasks.peekFirst();
+            if (head == null) {
+                continue;
+            }
+            if (chosen == null || queue.pass < chosen.pass) {
+                chosen = queue;
+            }
+            if (maxWaitNanos > 0 && now - head.enqueuedAt >= maxWaitNanos
+                && (oldest == null || head.enqueuedAt < oldest.tasks.peekFirst().enqueuedAt)) {
+                oldest = queue;
+            }
+        }
+        if (chosen == null) {
+            return null;
+        }
+        if (oldest != null && oldest != chosen) {
+            oldest.promoted.increment();
+            chosen = oldest;
+        }
+        Task next = chosen.tasks.pollFirst();
+        virtualTime = chosen.pass;
+        chosen.pass += 1.0 / weights[next.plano.ordinal()];
+        return next;
+    }
+
+    public Snapshot snapshot() {
+        int[] depths = new int[PLANOS.length];
+        int runningNow;
+        lock.lock();
+        try {
+            for (int i = 0; i < queues.length; i++) {
+                depths[i] = queues[i].tasks.size();
+            }
+            runningNow = running;
+        } finally {
+            lock.unlock();
+        }
+        PlanSnapshot[] plans = new PlanSnapshot[PLANOS.length];
+        for (int i = 0; i < queues.length; i++) {
+            PlanQueue queue = queues[i];
+            long dispatched = queue.dispatched.sum();
+            long waitMicros = TimeUnit.NANOSECONDS.toMicros(queue.waitNanos.sum());
+            plans[i] = new PlanSnapshot(PLANOS[i], weights[i], depths[i], dispatched, queue.rejected.sum(), queue.promoted.sum(),
+                dispatched == 0 ? 0 : waitMicros / dispatched, TimeUnit.NANOSECONDS.toMicros(queue.maxWaitNanos));
+        }
+        return new Snapshot(slots, runningNow, capacity, plans);
+    }
+
+    private static final class Task {
+        private final Plano plano;
+        private final Runnable task;
+        private final long enqueuedAt;
+
+        private Task(Plano plano, Runnable task, long enqueuedAt) {
+            this.plano = plano;
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class PlanQueue {
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder promoted = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private volatile long maxWaitNanos;
+        private double pass;
+
+        private void updateMaxWait(long waited) {
+            if (waited > maxWaitNanos) {
+                synchronized (this) {
+                    if (waited > maxWaitNanos) {
+                        maxWaitNanos = waited;
+                    }
+                }
+            }
+        }
+    }
+
+    public record PlanSnapshot(Plano plano, int weight, int queued, long dispatched, long rejected, long promoted,
+                               long avgWaitMicros, long maxWaitMicros) {}
+
+    public record Snapshot(int slots, int running, int capacity, PlanSnapshot[] plans) {}
+}
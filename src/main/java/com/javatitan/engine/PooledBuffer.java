@@ -0,0 +1,64 @@
+package com.javatitan.engine;
+
+import java.nio.ByteBuffer;
+
+// Posse de um buffer do pool por um acquire. Cada acquire cria um handle novo: o close de um handle antigo (depois
+// que o mesmo buffer ja voltou ao pool e foi entregue a outra requisicao) e ignorado, e o acesso por ele falha em vez
+// de ler o conteudo do dono atual.
+public final class PooledBuffer implements AutoCloseable {
+    private final BufferPool pool;
+    private final int sizeClass;
+    private ByteBuffer buffer;
+    private int length;
+
+    PooledBuffer(BufferPool pool, ByteBuffer buffer, int sizeClass) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.sizeClass = sizeClass;
+    }
+
+    public byte[] array() {
+        ByteBuffer owned = owned();
+        if (!owned.hasArray()) {
+            throw new IllegalStateException("Buffer direto nao expoe array");
+        }
+        return owned.array();
+    }
+
+    public ByteBuffer buffer() {
+        return owned();
+    }
+
+    public int capacity() {
+        return owned().capacity();
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void length(int length) {
+        if (length < 0 || length > owned().capacity()) {
+            throw new IllegalArgumentException("Tamanho invalido para o buffer: " + length);
+        }
+        this.length = length;
+    }
+
+    private ByteBuffer owned() {
+        ByteBuffer owned = buffer;
+        if (owned == null) {
+            throw new IllegalStateException("Buffer ja devolvido ao pool");
+        }
+        return owned;
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer owned = buffer;
+        if (owned == null) {
+            return;
+        }
+        buffer = null;
+        pool.release(owned, sizeClass);
+    }
+}
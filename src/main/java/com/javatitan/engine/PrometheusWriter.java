@@ -0,0 +1,84 @@
+package com.javatitan.engine;
+
+import java.nio.charset.StandardCharsets;
+
+// Formato texto de exposicao do Prometheus (0.0.4): HELP e TYPE uma vez por familia, depois uma linha por serie.
+// Rotulos em pares nome/valor; so roda no scrape, entao alocar aqui nao pesa no caminho quente.
+public final class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    public PrometheusWriter family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ');
+        escape(help, false);
+        out.append('\n').append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, long value, String... labels) {
+        labels(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        labels(name, labels);
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+        return this;
+    }
+
+    // Familia com uma unica serie sem rotulos.
+    public PrometheusWriter single(String name, String type, String help, long value) {
+        return family(name, type, help).sample(name, value);
+    }
+
+    private void labels(String name, String[] labels) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"");
+                escape(labels[i + 1], true);
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+
+    // HELP escapa \ e quebra de linha; valor de rotulo tambem escapa aspas.
+    private void escape(String value, boolean quote) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                out.append("\\\\");
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '"' && quote) {
+                out.append("\\\"");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    public byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+record PropostaRequest(UUID idCliente, BigDecimal valorBruto, Plano plano) {}
@@ -0,0 +1,99 @@
+package com.javatitan.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Contencao dos limitadores: N threads chamando tryAcquire ao mesmo tempo, numa chave quente ou espalhadas.
+public class RateLimiterBenchmark {
+    private static final int MANY_KEYS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = 64;
+        int iterations = 200_000;
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = BenchmarkSupport.parseInt("--threads", arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = BenchmarkSupport.parseInt("--iterations", arg.substring("--iterations=".length()));
+            } else if ("--help".equals(arg)) {
+                System.out.println("Uso: java -cp out com.javatitan.engine.RateLimiterBenchmark [--threads=64] [--iterations=N]");
+                System.exit(0);
+            }
+        }
+        String[] keys = new String[MANY_KEYS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "tenant-" + i;
+        }
+        System.out.println("cenario,threads,opsTotais,nsPorOp,opsPorSeg,permitidas");
+        // "permite": limite alto, quase tudo passa; "recusa": 120/min, quase tudo e recusado depois da rajada.
+        for (int limit : new int[] {Integer.MAX_VALUE, 120}) {
+            String modo = limit == 120 ? "recusa" : "permite";
+            Supplier<RequestLimiter> fixed = () -> new FixedWindowLimiter(limit, 60000L);
+            Supplier<RequestLimiter> gcra = () -> new GcraLimiter(limit, Math.min(limit, 100_000), 60000L, 100_000);
+            for (int keyCount : new int[] {1, MANY_KEYS}) {
+                String chaves = keyCount == 1 ? "chave-quente" : keyCount + "-chaves";
+                run("fixed-" + modo + "-" + chaves, fixed, keys, keyCount, threads, iterations);
+                run("gcra-" + modo + "-" + chaves, gcra, keys, keyCount, threads, iterations);
+            }
+        }
+    }
+
+    private static void run(String name, Supplier<RequestLimiter> factory, String[] keys, int keyCount, int threads,
+                            int iterations) throws Exception {
+        // Aquecimento numa instancia descartavel, medicao numa nova.
+        contend(factory.get(), keys, keyCount, threads, Math.max(10_000, iterations / 4));
+        RequestLimiter limiter = factory.get();
+        LongAdder allowed = new LongAdder();
+        long durationNanos = contend(limiter, keys, keyCount, threads, iterations, allowed);
+        long total = (long) threads * iterations;
+        System.out.println(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.0f,%d",
+            name, threads, total, (double) durationNanos / total, total / (durationNanos / 1_000_000_000.0), allowed.sum()));
+    }
+
+    private static long contend(RequestLimiter limiter, String[] keys, int keyCount, int threads, int iterations) throws Exception {
+        return contend(limiter, keys, keyCount, threads, iterations, new LongAdder());
+    }
+
+    private static long contend(RequestLimiter limiter, String[] keys, int keyCount, int threads, int iterations,
+                                LongAdder allowed) throws Exception {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            Thread worker = new Thread(() -> {
+                int local = 0;
+                ready.countDown();
+                try {
+                    go.await();
+                    for (int i = 0; i < iterations; i++) {
+                        if (limiter.tryAcquire(keys[(offset + i) % keyCount])) {
+                            local++;
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    allowed.add(local);
+                    done.countDown();
+                }
+            }, "rate-bench-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        done.await();
+        long durationNanos = System.nanoTime() - start;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return durationNanos;
+    }
+}
@@ -1,51 +1,25 @@
 package com.javatitan.engine;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+public interface RequestLimiter {
+    boolean enabled();
 
-public class RequestLimiter {
-    private final int maxPerWindow;
-    private final long windowMs;
-    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    boolean tryAcquire(String key);
 
-    public RequestLimiter(int maxPerWindow, long windowMs) {
-        this.maxPerWindow = maxPerWindow;
-        this.windowMs = windowMs;
-    }
-
-    public boolean enabled() {
-        return maxPerWindow > 0;
-    }
+    // Devolve uma aquisicao aceita que acabou recusada por outra camada (ver TieredRateLimiter).
+    void refund(String key);
 
-    public boolean tryAcquire(String key) {
-        if (!enabled()) {
-            return true;
-        }
-        long now = System.currentTimeMillis();
-        Window window = windows.computeIfAbsent(key, k -> new Window(now));
-        boolean allowed;
-        synchronized (window) {
-            if (now - window.windowStart >= windowMs) {
-                window.windowStart = now;
-                window.count = 0;
-            }
-            allowed = window.count < maxPerWindow;
-            if (allowed) {
-                window.count++;
-            }
-        }
-        if (!allowed && now - window.windowStart > windowMs * 2) {
-            windows.remove(key, window);
-        }
-        return allowed;
-    }
+    // Consumo aceito por outro no do cluster (ver ClusterGossip); nunca recusa.
+    void absorb(String key, long count);
 
-    private static class Window {
-        private long windowStart;
-        private int count;
+    Snapshot snapshot();
 
-        Window(long windowStart) {
-            this.windowStart = windowStart;
+    // Janela fixa (padrao historico) ou GCRA, conforme JAVATITAN_RATE_LIMIT_ALGORITHM.
+    static RequestLimiter create(AppConfig config, int perMinute, int burst) {
+        if (config.gcraRateLimit()) {
+            return new GcraLimiter(perMinute, burst, 60000L, config.rateLimitMaxKeys());
         }
+        return new FixedWindowLimiter(perMinute, 60000L);
     }
+
+    record Snapshot(String algorithm, int trackedKeys, int maxKeys, long allowed, long rejected, long evicted, long overflow) {}
 }
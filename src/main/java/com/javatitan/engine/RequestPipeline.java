@@ -0,0 +1,287 @@
+package com.javatitan.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Sequencia de etapas de uma requisicao, na ordem em que foram adicionadas (as recusas mais baratas primeiro).
+// Etapa com executor proprio roda nele; as demais seguem na thread em que a etapa anterior terminou.
+public final class RequestPipeline<S extends RequestPipeline.State> {
+    public enum Outcome {
+        // Segue para a proxima etapa.
+        NEXT,
+        // A etapa ja respondeu (recusa, replay); nenhuma outra roda.
+        DONE,
+        // A etapa chama resume() ou fail() quando o trabalho assincrono terminar.
+        ASYNC
+    }
+
+    @FunctionalInterface
+    public interface Step<S> {
+        Outcome run(S state) throws Exception;
+    }
+
+    // Responde o erro da etapa; nao deve lancar.
+    @FunctionalInterface
+    public interface Failure<S> {
+        void handle(S state, String stage, Throwable error);
+    }
+
+    // Imutavel, acessada pelo indice state.stage.
+    private final List<Stage<S>> stages;
+    private final Failure<S> failure;
+    // null quando o tracing esta desligado.
+    private final RequestTracer tracer;
+    private final String endpoint;
+    private final List<String> stageNames;
+
+    private RequestPipeline(List<Stage<S>> stages, Failure<S> failure, RequestTracer tracer, String endpoint) {
+        this.stages = List.copyOf(stages);
+        this.failure = failure;
+        this.tracer = tracer;
+        this.endpoint = endpoint;
+        List<String> names = new ArrayList<>(this.stages.size());
+        for (Stage<S> stage : this.stages) {
+            names.add(stage.name);
+        }
+        this.stageNames = List.copyOf(names);
+    }
+
+    public static <S extends State> Builder<S> builder() {
+        return new Builder<>();
+    }
+
+    public void start(S state) {
+        state.stage = 0;
+        state.timing = false;
+        state.executor = null;
+        state.trace = tracer == null ? null : tracer.begin(endpoint, state.requestId(), stageNames);
+        advance(state);
+    }
+
+    // Conclusao de uma etapa ASYNC. A thread de quem completa e desconhecida, entao a proxima etapa com executor sempre troca.
+    public void resume(S state) {
+        Stage<S> stage = stages.get(state.stage);
+        long nanos = System.nanoTime() - state.stageStartedAt;
+        stage.stats.passed(nanos);
+        span(state, nanos, "passed");
+        state.stage++;
+        state.timing = false;
+        state.executor = null;
+        advance(state);
+    }
+
+    public void fail(S state, Throwable error) {
+        Stage<S> stage = stages.get(state.stage);
+        long nanos = System.nanoTime() - state.stageStartedAt;
+        stage.stats.failed(nanos);
+        span(state, nanos, "failed");
+        try {
+            failure.handle(state, stage.name, error);
+        } finally {
+            finish(state, "failed");
+            state.release();
+        }
+    }
+
+    private void advance(S state) {
+        while (state.stage < stages.size()) {
+            Stage<S> stage = stages.get(state.stage);
+            // O tempo da etapa inclui a espera na fila do executor dela.
+            if (!state.timing) {
+                state.stageStartedAt = System.nanoTime();
+                state.stageEvent = EngineEvents.stage(stage.name);
+                state.timing = true;
+            }
+            Executor target = stage.executor == null ? null : stage.executor.apply(state);
+            if (target != null && target != state.executor) {
+                state.executor = target;
+                try {
+                    target.execute(() -> advance(state));
+                } catch (RejectedExecutionException ex) {
+                    fail(state, ex);
+                }
+                return;
+            }
+            Outcome outcome;
+            try {
+                outcome = stage.step.run(state);
+            } catch (Exception ex) {
+                fail(state, ex);
+                return;
+            }
+            if (outcome == Outcome.ASYNC) {
+                return;
+            }
+            long nanos = System.nanoTime() - state.stageStartedAt;
+            if (outcome == Outcome.DONE) {
+                span(state, nanos, "stopped");
+                stage.stats.stopped(nanos);
+                finish(state, "stopped");
+                state.release();
+                return;
+            }
+            stage.stats.passed(nanos);
+            span(state, nanos, "passed");
+            state.stage++;
+            state.timing = false;
+        }
+        finish(state, "ok");
+        state.release();
+    }
+
+    // Fim da etapa corrente: trace amostrado e evento JFR, quando existem.
+    private void span(S state, long nanos, String outcome) {
+        if (state.trace != null) {
+            state.trace.stage(state.stage, nanos);
+        }
+        if (state.stageEvent != null) {
+            state.stageEvent.end(endpoint, state.requestId(), EngineEvents.plan(state.plano()), outcome);
+            state.stageEvent = null;
+        }
+    }
+
+    private void finish(S state, String outcome) {
+        if (state.trace != null) {
+            tracer.finish(state.trace, outcome);
+            state.trace = null;
+        }
+    }
+
+    public List<String> stageNames() {
+        return stageNames;
+    }
+
+    public List<StageSnapshot> snapshot() {
+        List<StageSnapshot> snapshots = new ArrayList<>(stages.size());
+        for (Stage<S> stage : stages) {
+            snapshots.add(stage.stats.snapshot(stage.name, stage.executor != null));
+        }
+        return snapshots;
+    }
+
+    // Estado por requisicao. As etapas guardam nele o que produzem; release() devolve buffers ao fim.
+    public abstract static class State {
+        int stage;
+        boolean timing;
+        long stageStartedAt;
+        Executor executor;
+        RequestTracer.Trace trace;
+        EngineEvents.Stage stageEvent;
+
+        // Posicao em stageNames() da etapa corrente.
+        int stageIndex() {
+            return stage;
+        }
+
+        // null quando a requisicao nao foi amostrada.
+        RequestTracer.Trace trace() {
+            return trace;
+        }
+
+        // Identificador e plano que aparecem no trace e nos eventos JFR.
+        protected String requestId() {
+            return null;
+        }
+
+        protected Plano plano() {
+            return null;
+        }
+
+        protected void release() {}
+    }
+
+    public static final class Builder<S extends State> {
+        private final List<Stage<S>> stages = new ArrayList<>();
+        private RequestTracer tracer;
+        private String endpoint;
+
+        private Builder() {}
+
+        public Builder<S> stage(String name, Step<S> step) {
+            return stage(name, null, step);
+        }
+
+        // executor null = roda na thread corrente.
+        public Builder<S> stage(String name, Executor executor, Step<S> step) {
+            stages.add(new Stage<>(name, executor == null ? null : state -> executor, step));
+            return this;
+        }
+
+        // Executor escolhido por requisicao (ex.: fila do plano); o router deve devolver a mesma instancia para o mesmo
+        // estado, senao a etapa troca de thread de novo a cada volta.
+        public Builder<S> routedStage(String name, Function<S, Executor> router, Step<S> step) {
+            stages.add(new Stage<>(name, router, step));
+            return this;
+        }
+
+        // Nome do pipeline nos traces e eventos JFR.
+        public Builder<S> endpoint(String name) {
+            this.endpoint = name;
+            return this;
+        }
+
+        // Tracer desligado nao entra no pipeline: start() nem chega a sortear.
+        public Builder<S> tracer(RequestTracer requestTracer) {
+            this.tracer = requestTracer != null && requestTracer.enabled() ? requestTracer : null;
+            return this;
+        }
+
+        public RequestPipeline<S> build(Failure<S> failure) {
+            return new RequestPipeline<>(stages, failure, tracer, endpoint);
+        }
+    }
+
+    private record Stage<S>(String name, Function<S, Executor> executor, Step<S> step, StageStats stats) {
+        Stage(String name, Function<S, Executor> executor, Step<S> step) {
+            this(name, executor, step, new StageStats());
+        }
+    }
+
+    private static final class StageStats {
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder stopped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void passed(long nanos) {
+            passed.increment();
+            time(nanos);
+        }
+
+        void stopped(long nanos) {
+            stopped.increment();
+            time(nanos);
+        }
+
+        void failed(long nanos) {
+            failed.increment();
+            time(nanos);
+        }
+
+        private void time(long nanos) {
+            totalNanos.add(nanos);
+            long max;
+            do {
+                max = maxNanos.get();
+            } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+        }
+
+        StageSnapshot snapshot(String name, boolean offloaded) {
+            long passedCount = passed.sum();
+            long stoppedCount = stopped.sum();
+            long failedCount = failed.sum();
+            long total = passedCount + stoppedCount + failedCount;
+            long avgMicros = total == 0 ? 0 : totalNanos.sum() / total / 1_000L;
+            return new StageSnapshot(name, offloaded, passedCount, stoppedCount, failedCount, avgMicros, maxNanos.get() / 1_000L);
+        }
+    }
+
+    public record StageSnapshot(String name, boolean offloaded, long passed, long stopped, long failed,
+                                long avgMicros, long maxMicros) {}
+}
@@ -0,0 +1,167 @@
+package com.javatitan.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tracing por etapa: 1 a cada JAVATITAN_TRACE_SAMPLE_EVERY requisicoes ganha um Trace, e o RequestPipeline anota nele
+// o tempo de cada etapa (o mesmo System.nanoTime das estatisticas). Requisicao fora da amostra fica com trace null:
+// o custo e um if por etapa. Ao terminar, o trace disputa uma das JAVATITAN_TRACE_SLOW_CAPACITY vagas das mais
+// lentas da janela: substitui por CAS a vaga vazia, vencida ou mais rapida, sem lock.
+public final class RequestTracer {
+    private final int sampleEvery;
+    private final long slowNanos;
+    private final long windowNanos;
+    private final AtomicReferenceArray<SlowRequest> slowest;
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder captured = new LongAdder();
+
+    public RequestTracer(int sampleEvery, int capacity, long slowMs, long windowMs) {
+        this.sampleEvery = Math.max(0, sampleEvery);
+        this.slowNanos = slowMs * 1_000_000L;
+        this.windowNanos = windowMs * 1_000_000L;
+        this.slowest = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public static RequestTracer create(AppConfig config) {
+        return new RequestTracer(config.traceSampleEvery(), config.traceSlowCapacity(), config.traceSlowMs(), config.traceWindowMs());
+    }
+
+    public boolean enabled() {
+        return sampleEvery > 0;
+    }
+
+    // null = fora da amostra.
+    Trace begin(String endpoint, String requestId, List<String> stages) {
+        if (sampleEvery == 0 || (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0)) {
+            return null;
+        }
+        sampled.increment();
+        return new Trace(endpoint, requestId, stages);
+    }
+
+    void finish(Trace trace, String outcome) {
+        long now = System.nanoTime();
+        long total = now - trace.startedAtNanos;
+        if (total < slowNanos) {
+            return;
+        }
+        SlowRequest slow = null;
+        // Poucas tentativas: perder a vaga para outra requisicao lenta ao mesmo tempo e aceitavel.
+        for (int attempt = 0; attempt < 4; attempt++) {
+            int victim = -1;
+            SlowRequest victimValue = null;
+            long victimNanos = Long.MAX_VALUE;
+            for (int i = 0; i < slowest.length(); i++) {
+                SlowRequest current = slowest.get(i);
+                long nanos = current == null || expired(current, now) ? -1L : current.totalNanos();
+                if (nanos < victimNanos) {
+                    victim = i;
+                    victimValue = current;
+                    victimNanos = nanos;
+                    if (nanos < 0) {
+                        break;
+                    }
+                }
+            }
+            if (total <= victimNanos) {
+                return;
+            }
+            if (slow == null) {
+                slow = trace.toSlowRequest(outcome, total, now);
+            }
+            if (slowest.compareAndSet(victim, victimValue, slow)) {
+                captured.increment();
+                return;
+            }
+        }
+    }
+
+    private boolean expired(SlowRequest request, long now) {
+        return now - request.capturedAtNanos() > windowNanos;
+    }
+
+    // Mais lenta primeiro, so as que ainda estao na janela.
+    public List<SlowRequest> slowest() {
+        long now = System.nanoTime();
+        List<SlowRequest> requests = new ArrayList<>(slowest.length());
+        for (int i = 0; i < slowest.length(); i++) {
+            SlowRequest current = slowest.get(i);
+            if (current != null && !expired(current, now)) {
+                requests.add(current);
+            }
+        }
+        requests.sort(Comparator.comparingLong(SlowRequest::totalNanos).reversed());
+        return requests;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(sampleEvery, slowest.length(), slowNanos / 1_000_000L, windowNanos / 1_000_000_000L,
+            sampled.sum(), captured.sum());
+    }
+
+    // Estado de uma requisicao amostrada. As etapas rodam uma de cada vez e a troca de thread entre elas passa por
+    // executor ou CompletableFuture, que ja publicam as escritas anteriores: nada aqui precisa ser volatile.
+    public static final class Trace {
+        private static final int MAX_SPLITS = 4;
+        private final String endpoint;
+        private final String requestId;
+        private final long startedAtMs = System.currentTimeMillis();
+        private final long startedAtNanos = System.nanoTime();
+        private final List<String> stages;
+        private final long[] stageNanos;
+        private int lastStage = -1;
+        private final String[] splitNames = new String[MAX_SPLITS];
+        private final long[] splitNanos = new long[MAX_SPLITS];
+        private int splits;
+
+        private Trace(String endpoint, String requestId, List<String> stages) {
+            this.endpoint = endpoint;
+            this.requestId = requestId;
+            this.stages = stages;
+            this.stageNanos = new long[stages.size()];
+        }
+
+        void stage(int index, long nanos) {
+            stageNanos[index] = nanos;
+            lastStage = index;
+        }
+
+        // Trecho dentro de uma etapa (ex.: espera na fila dos workers dentro de "calculo").
+        public void split(String name, long nanos) {
+            if (splits < MAX_SPLITS) {
+                splitNames[splits] = name;
+                splitNanos[splits] = nanos;
+                splits++;
+            }
+        }
+
+        private SlowRequest toSlowRequest(String outcome, long totalNanos, long now) {
+            List<Span> spans = new ArrayList<>(lastStage + 1);
+            for (int i = 0; i <= lastStage; i++) {
+                spans.add(new Span(stages.get(i), stageNanos[i] / 1_000L));
+            }
+            List<Span> details = new ArrayList<>(splits);
+            for (int i = 0; i < splits; i++) {
+                details.add(new Span(splitNames[i], splitNanos[i] / 1_000L));
+            }
+            String stage = lastStage < 0 ? "" : stages.get(lastStage);
+            return new SlowRequest(requestId, endpoint, startedAtMs, totalNanos, outcome, stage, spans, details, now);
+        }
+    }
+
+    public record Span(String name, long micros) {}
+
+    // outcome: ok, stopped (uma etapa respondeu antes do fim) ou failed; stage e a ultima etapa executada.
+    public record SlowRequest(String requestId, String endpoint, long startedAtMs, long totalNanos, String outcome,
+                              String stage, List<Span> stages, List<Span> details, long capturedAtNanos) {
+        public long totalMicros() {
+            return totalNanos / 1_000L;
+        }
+    }
+
+    public record Snapshot(int sampleEvery, int capacity, long slowMs, long windowSeconds, long sampled, long captured) {}
+}
@@ -1,15 +1,31 @@
 package com.javatitan.engine;
 
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class TccSmokeTest {
+    private static final String PAYLOAD = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
+
     public static void main(String[] args) throws Exception {
         String baseUrl = envOrDefault("JAVATITAN_BASE_URL", "http://localhost:8080");
         String token = System.getenv("JAVATITAN_JWT_TOKEN");
@@ -47,6 +63,15 @@ public class TccSmokeTest {
         try {
             validarHealth(client, baseUrl, report);
             validarCalculo(client, baseUrl, token, cryptoConfig, report);
+            if (cryptoConfig != null && cryptoConfig.secureMode()) {
+                validarCalculoBinario(client, baseUrl, token, cryptoConfig, report);
+            }
+            if (envBool("JAVATITAN_SMOKE_CHECK_IDEMPOTENCY", true) && !"0".equals(envOrDefault("JAVATITAN_IDEMPOTENCY_MAX_ENTRIES", "10000"))) {
+                validarIdempotencia(client, baseUrl, token, cryptoConfig, report);
+            }
+            if (envBool("JAVATITAN_SMOKE_CHECK_HTTP", false)) {
+                validarProtocoloHttp(baseUrl, token, cryptoConfig, tlsConfig, report);
+            }
             if (envBool("JAVATITAN_SMOKE_CHECK_METRICS", false) && envBool("JAVATITAN_METRICS_ENABLED", true)) {
                 validarMetrics(client, baseUrl, report);
             }
@@ -81,17 +106,8 @@ public class TccSmokeTest {
     }
 
     private static void validarCalculo(HttpClient client, String baseUrl, String token, CryptoConfig cryptoConfig, SmokeReport report) throws Exception {
-        String payload = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
-            "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
-
-        String path = "/api/calcular";
-        String body = payload;
-
-        if (cryptoConfig != null && cryptoConfig.secureMode()) {
-            path = "/api/calcular-secure";
-            CryptoUtils.EncryptedPayload encrypted = CryptoUtils.encrypt(payload, cryptoConfig.aesKey());
-            body = CryptoUtils.writePayload(encrypted);
-        }
+        String path = caminhoCalculo(cryptoConfig);
+        String body = corpoCalculo(PAYLOAD, cryptoConfig);
 
         HttpRequest request = HttpRequest.newBuilder()
             .uri(URI.create(baseUrl + path))
@@ -103,8 +119,79 @@ public class TccSmokeTest {
 
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertStatus(response.statusCode(), 200, "calcular status", report);
+        validarRespostaCalculo(response.body(), cryptoConfig);
+        report.addCheck("calculo", "ok");
+    }
+
+    // Duplicatas simultaneas calculam uma vez so, o retry recebe a mesma resposta e outro corpo na mesma chave da 422.
+    // No modo seguro cada envio e cifrado de novo (IV novo), entao o servidor tem que comparar o conteudo decifrado.
+    private static void validarIdempotencia(HttpClient client, String baseUrl, String token, CryptoConfig cryptoConfig,
+                                            SmokeReport report) throws Exception {
+        String chave = "smoke-" + UUID.randomUUID();
+        List<CompletableFuture<HttpResponse<String>>> simultaneas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            simultaneas.add(client.sendAsync(requisicaoIdempotente(baseUrl, token, chave, PAYLOAD, cryptoConfig),
+                HttpResponse.BodyHandlers.ofString()));
+        }
+        String idProposta = null;
+        int calculadas = 0;
+        for (CompletableFuture<HttpResponse<String>> simultanea : simultaneas) {
+            HttpResponse<String> response = simultanea.get(15, TimeUnit.SECONDS);
+            assertStatus(response.statusCode(), 200, "idempotencia simultanea status", report);
+            String id = validarRespostaCalculo(response.body(), cryptoConfig);
+            if (idProposta != null && !idProposta.equals(id)) {
+                throw new IllegalStateException("idempotencia: duplicatas simultaneas com idProposta diferente");
+            }
+            idProposta = id;
+            if (response.headers().firstValue("Idempotent-Replayed").isEmpty()) {
+                calculadas++;
+            }
+        }
+        if (calculadas != 1) {
+            throw new IllegalStateException("idempotencia: " + calculadas + " duplicatas calculadas, esperado 1");
+        }
+        report.addCheck("idempotencia-concorrente", "ok");
+
+        HttpResponse<String> replay = client.send(requisicaoIdempotente(baseUrl, token, chave, PAYLOAD, cryptoConfig),
+            HttpResponse.BodyHandlers.ofString());
+        assertStatus(replay.statusCode(), 200, "idempotencia replay status", report);
+        if (!"true".equals(replay.headers().firstValue("Idempotent-Replayed").orElse(null))
+            || !idProposta.equals(validarRespostaCalculo(replay.body(), cryptoConfig))) {
+            throw new IllegalStateException("idempotencia: retry nao devolveu a resposta guardada");
+        }
+        report.addCheck("idempotencia-replay", "ok");
+
+        HttpResponse<String> conflito = client.send(requisicaoIdempotente(baseUrl, token, chave,
+            PAYLOAD.replace("1000.00", "10.00"), cryptoConfig), HttpResponse.BodyHandlers.ofString());
+        assertStatus(conflito.statusCode(), 422, "idempotencia outro corpo status", report);
+        report.addCheck("idempotencia-conflito", "ok");
+    }
 
-        String bodyResponse = response.body();
+    private static HttpRequest requisicaoIdempotente(String baseUrl, String token, String chave, String payload,
+                                                     CryptoConfig cryptoConfig) throws Exception {
+        return HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + caminhoCalculo(cryptoConfig)))
+            .timeout(Duration.ofSeconds(10))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + token)
+            .header(IdempotencyCache.HEADER, chave)
+            .POST(HttpRequest.BodyPublishers.ofString(corpoCalculo(payload, cryptoConfig)))
+            .build();
+    }
+
+    private static String caminhoCalculo(CryptoConfig cryptoConfig) {
+        return cryptoConfig != null && cryptoConfig.secureMode() ? "/api/calcular-secure" : "/api/calcular";
+    }
+
+    private static String corpoCalculo(String payload, CryptoConfig cryptoConfig) throws Exception {
+        if (cryptoConfig != null && cryptoConfig.secureMode()) {
+            return CryptoUtils.writePayload(CryptoUtils.encrypt(payload, cryptoConfig.aesKey()));
+        }
+        return payload;
+    }
+
+    // Devolve o idProposta da resposta ja validada.
+    private static String validarRespostaCalculo(String bodyResponse, CryptoConfig cryptoConfig) throws Exception {
         if (cryptoConfig != null && cryptoConfig.secureMode()) {
             CryptoUtils.EncryptedPayload encrypted = CryptoUtils.readPayload(bodyResponse);
             bodyResponse = CryptoUtils.decrypt(encrypted, cryptoConfig.aesKey());
@@ -116,7 +203,177 @@ public class TccSmokeTest {
         BigDecimal valorLiquido = JsonUtils.readRequiredBigDecimal(bodyResponse, "valorLiquido");
         BigDecimal taxaAplicada = JsonUtils.readRequiredBigDecimal(bodyResponse, "taxaAplicada");
         String status = JsonUtils.readRequiredString(bodyResponse, "status");
+        validarValores(valorLiquido, taxaAplicada, status);
+        return idProposta;
+    }
 
+    // HTTP/1.1 direto no socket, o que o HttpClient nao deixa controlar: pipelining, chunked, 100-continue e os
+    // limites 413/431. Pensado para o frontend nio (JAVATITAN_HTTP_FRONTEND=nio), que tem parser proprio.
+    private static void validarProtocoloHttp(String baseUrl, String token, CryptoConfig cryptoConfig, ClientTlsConfig tlsConfig,
+                                             SmokeReport report) throws Exception {
+        URI uri = URI.create(baseUrl);
+        String host = "Host: " + uri.getHost() + "\r\n";
+
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            String health = "GET /health HTTP/1.1\r\n" + host + "\r\n";
+            escrever(socket, health + health);
+            InputStream in = socket.getInputStream();
+            for (int i = 1; i <= 2; i++) {
+                RespostaBruta resposta = lerResposta(in);
+                assertStatus(resposta.status(), 200, "pipelining status " + i, report);
+                if (!"UP".equalsIgnoreCase(JsonUtils.readString(resposta.texto(), "status"))) {
+                    throw new IllegalStateException("pipelining resposta " + i + " invalida");
+                }
+            }
+        }
+        report.addCheck("http-pipelining", "ok");
+
+        String path = caminhoCalculo(cryptoConfig);
+        byte[] corpo = corpoCalculo(PAYLOAD, cryptoConfig).getBytes(StandardCharsets.UTF_8);
+        String cabecalhos = "POST " + path + " HTTP/1.1\r\n" + host + "Content-Type: application/json\r\n"
+            + "Authorization: Bearer " + token + "\r\n";
+        int metade = corpo.length / 2;
+        String primeiro = Integer.toHexString(metade) + "\r\n" + new String(corpo, 0, metade, StandardCharsets.UTF_8) + "\r\n";
+        String segundo = Integer.toHexString(corpo.length - metade) + "\r\n"
+            + new String(corpo, metade, corpo.length - metade, StandardCharsets.UTF_8);
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            // O segundo chunk chega depois, numa escrita separada: o servidor precisa guardar o primeiro.
+            escrever(socket, cabecalhos + "Transfer-Encoding: chunked\r\n\r\n" + primeiro);
+            Thread.sleep(50);
+            escrever(socket, segundo + "\r\n0\r\n\r\n");
+            RespostaBruta resposta = lerResposta(socket.getInputStream());
+            assertStatus(resposta.status(), 200, "chunked status", report);
+            validarRespostaCalculo(resposta.texto(), cryptoConfig);
+        }
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            escrever(socket, cabecalhos + "Transfer-Encoding: chunked\r\n\r\n" + primeiro + segundo + "XX0\r\n\r\n");
+            assertStatus(lerResposta(socket.getInputStream()).status(), 400, "chunked sem CRLF status", report);
+        }
+        report.addCheck("http-chunked", "ok");
+
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            escrever(socket, cabecalhos + "Content-Length: " + corpo.length + "\r\nExpect: 100-continue\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            assertStatus(lerResposta(in).status(), 100, "expect continue status", report);
+            socket.getOutputStream().write(corpo);
+            socket.getOutputStream().flush();
+            RespostaBruta resposta = lerResposta(in);
+            assertStatus(resposta.status(), 200, "expect calculo status", report);
+            validarRespostaCalculo(resposta.texto(), cryptoConfig);
+        }
+        report.addCheck("http-100-continue", "ok");
+
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            escrever(socket, cabecalhos + "Content-Length: 1073741824\r\n\r\n");
+            assertStatus(lerResposta(socket.getInputStream()).status(), 413, "payload grande status", report);
+        }
+        try (Socket socket = abrirSocket(uri, tlsConfig)) {
+            escrever(socket, "GET /health HTTP/1.1\r\n" + host + "X-Pad: " + "a".repeat(20 * 1024) + "\r\n\r\n");
+            assertStatus(lerResposta(socket.getInputStream()).status(), 431, "cabecalho grande status", report);
+        }
+        report.addCheck("http-limites", "ok");
+    }
+
+    private static Socket abrirSocket(URI uri, ClientTlsConfig tlsConfig) throws Exception {
+        boolean https = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : https ? 443 : 80;
+        Socket socket;
+        if (https) {
+            SSLContext context = tlsConfig != null && tlsConfig.enabled() ? tlsConfig.createClientContext() : SSLContext.getDefault();
+            socket = context.getSocketFactory().createSocket(uri.getHost(), port);
+        } else {
+            socket = new Socket(uri.getHost(), port);
+        }
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    private static void escrever(Socket socket, String data) throws IOException {
+        socket.getOutputStream().write(data.getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().flush();
+    }
+
+    // Status, cabecalhos e corpo (Content-Length ou chunked); 1xx volta sem corpo.
+    private static RespostaBruta lerResposta(InputStream in) throws IOException {
+        String statusLine = lerLinha(in);
+        String[] partes = statusLine.split(" ");
+        if (partes.length < 2 || !partes[0].startsWith("HTTP/1.")) {
+            throw new IOException("Linha de status invalida: " + statusLine);
+        }
+        int status = Integer.parseInt(partes[1]);
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = lerLinha(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        if (status < 200) {
+            return new RespostaBruta(status, new byte[0]);
+        }
+        String encoding = headers.get("transfer-encoding");
+        if (encoding != null && encoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int size;
+            while ((size = Integer.parseInt(lerLinha(in).split(";")[0].trim(), 16)) > 0) {
+                body.write(in.readNBytes(size));
+                lerLinha(in);
+            }
+            String trailer;
+            do {
+                trailer = lerLinha(in);
+            } while (!trailer.isEmpty());
+            return new RespostaBruta(status, body.toByteArray());
+        }
+        String length = headers.get("content-length");
+        return new RespostaBruta(status, length == null ? new byte[0] : in.readNBytes(Integer.parseInt(length)));
+    }
+
+    private static String lerLinha(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Conexao encerrada antes da resposta");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private record RespostaBruta(int status, byte[] body) {
+        String texto() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void validarCalculoBinario(HttpClient client, String baseUrl, String token, CryptoConfig cryptoConfig, SmokeReport report) throws Exception {
+        PropostaRequest proposta = new PropostaRequest(UUID.fromString("e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1"),
+            new BigDecimal("1000.00"), Plano.PRO);
+        byte[] plain = new byte[BinaryWire.REQUEST_SIZE];
+        BinaryWire.writeRequest(proposta, plain, 0);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/api/calcular-secure"))
+            .timeout(Duration.ofSeconds(10))
+            .header("Content-Type", BinaryWire.CONTENT_TYPE)
+            .header("Authorization", "Bearer " + token)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(CryptoUtils.encryptFrame(plain, cryptoConfig.aesKey())))
+            .build();
+
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertStatus(response.statusCode(), 200, "calcular binario status", report);
+
+        byte[] decrypted = CryptoUtils.decryptFrame(response.body(), cryptoConfig.aesKey());
+        PropostaResponse resposta = BinaryWire.readResponse(decrypted, 0, decrypted.length);
+        validarValores(resposta.valorLiquido(), resposta.taxaAplicada(), resposta.status());
+        report.addCheck("calculo-binario", "ok");
+    }
+
+    private static void validarValores(BigDecimal valorLiquido, BigDecimal taxaAplicada, String status) {
         if (!"PROCESSADO_ASYNC".equalsIgnoreCase(status)) {
             throw new IllegalStateException("status inesperado: " + status);
         }
@@ -129,7 +386,6 @@ public class TccSmokeTest {
         if (valorLiquido.compareTo(esperadoLiquido) != 0) {
             throw new IllegalStateException("valorLiquido inesperado: " + valorLiquido);
         }
-        report.addCheck("calculo", "ok");
     }
 
     private static void validarMetrics(HttpClient client, String baseUrl, SmokeReport report) throws Exception {
@@ -1,10 +1,13 @@
 package com.javatitan.engine;
 
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.UUID;
 
 public class TestClient {
     public static void main(String[] args) throws Exception {
@@ -26,6 +29,9 @@ public class TestClient {
 
         callHealth(client, baseUrl);
         callCalcular(client, baseUrl, token, cryptoConfig);
+        if (cryptoConfig != null && cryptoConfig.secureMode()) {
+            callCalcularBinario(client, baseUrl, token, cryptoConfig);
+        }
     }
 
     private static void callHealth(HttpClient client, String baseUrl) throws Exception {
@@ -47,20 +53,25 @@ public class TestClient {
 
         String path = "/api/calcular";
         String body = payload;
+        AeadSuite suite = null;
 
         if (cryptoConfig != null && cryptoConfig.secureMode()) {
             path = "/api/calcular-secure";
-            CryptoUtils.EncryptedPayload encrypted = CryptoUtils.encrypt(payload, cryptoConfig.aesKey());
+            suite = payloadSuite(cryptoConfig);
+            CryptoUtils.EncryptedPayload encrypted = CryptoUtils.encrypt(payload, cryptoConfig.aesKey(), suite);
             body = CryptoUtils.writePayload(encrypted);
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
             .uri(URI.create(baseUrl + path))
             .timeout(Duration.ofSeconds(10))
             .header("Content-Type", "application/json")
             .header("Authorization", "Bearer " + token)
-            .POST(HttpRequest.BodyPublishers.ofString(body))
-            .build();
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (suite != null) {
+            builder.header(AeadSuite.HEADER, suite.id());
+        }
+        HttpRequest request = builder.build();
 
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         System.out.println("---- " + path + " ----");
@@ -68,13 +79,52 @@ public class TestClient {
 
         if (cryptoConfig != null && cryptoConfig.secureMode() && response.statusCode() == 200) {
             CryptoUtils.EncryptedPayload encrypted = CryptoUtils.readPayload(response.body());
-            String decrypted = CryptoUtils.decrypt(encrypted, cryptoConfig.aesKey());
+            String decrypted = CryptoUtils.decrypt(encrypted, cryptoConfig.aesKey(), suite);
             System.out.println(decrypted);
         } else {
             System.out.println(response.body());
         }
     }
 
+    private static void callCalcularBinario(HttpClient client, String baseUrl, String token, CryptoConfig cryptoConfig) throws Exception {
+        PropostaRequest proposta = new PropostaRequest(UUID.fromString("e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1"),
+            new BigDecimal("1000.00"), Plano.PRO);
+        byte[] plain = new byte[BinaryWire.REQUEST_SIZE];
+        BinaryWire.writeRequest(proposta, plain, 0);
+        AeadSuite suite = payloadSuite(cryptoConfig);
+        byte[] frame = CryptoUtils.encryptFrame(plain, cryptoConfig.aesKey(), suite);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/api/calcular-secure"))
+            .timeout(Duration.ofSeconds(10))
+            .header("Content-Type", BinaryWire.CONTENT_TYPE)
+            .header("Authorization", "Bearer " + token)
+            .header(AeadSuite.HEADER, suite.id())
+            .POST(HttpRequest.BodyPublishers.ofByteArray(frame))
+            .build();
+
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        System.out.println("---- /api/calcular-secure (" + BinaryWire.CONTENT_TYPE + ") ----");
+        System.out.println("HTTP " + response.statusCode() + " (" + frame.length + " bytes enviados, "
+            + response.body().length + " recebidos)");
+
+        if (response.statusCode() == 200) {
+            byte[] decrypted = CryptoUtils.decryptFrame(response.body(), cryptoConfig.aesKey(), suite);
+            System.out.println(BinaryWire.readResponse(decrypted, 0, decrypted.length));
+        } else {
+            System.out.println(new String(response.body(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // JAVATITAN_PAYLOAD_CIPHER escolhe a suite (ex.: chacha20-poly1305); ausente = AES-GCM com a chave configurada.
+    private static AeadSuite payloadSuite(CryptoConfig cryptoConfig) {
+        String value = System.getenv("JAVATITAN_PAYLOAD_CIPHER");
+        if (value == null || value.isBlank()) {
+            return AeadSuite.forAesKey(cryptoConfig.aesKey().length);
+        }
+        return AeadSuite.from(value);
+    }
+
     private static String envOrDefault(String name, String defaultValue) {
         String value = System.getenv(name);
         if (value == null || value.isBlank()) {
@@ -0,0 +1,136 @@
+package com.javatitan.engine;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThroughputBenchmark {
+    private static final String PAYLOAD = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        AppConfig base = AppConfig.fromEnv();
+        JwtConfig jwtConfig = new JwtConfig("benchmark-secret", null, null, true, 30L);
+        CryptoConfig cryptoConfig = new CryptoConfig(false, null);
+        TlsConfig tlsConfig = new TlsConfig(false, null, null, null, null, null, null, null, false);
+        DbConfig dbConfig = DbConfig.fromEnv();
+        String token = TokenGenerator.generateToken(jwtConfig.secret(), "PRO", 3600L, null, null);
+
+        System.out.println("modo,requests,concorrencia,delayMs,durMs,reqPorSeg,ok,falhas,p50Ms,p99Ms");
+        for (String mode : options.modes()) {
+            boolean virtual = EngineExecutors.MODE_VIRTUAL.equals(mode);
+            AppConfig appConfig = base.withVirtualThreads(virtual);
+            MotorFinanceiro.ServerHandle handle = MotorFinanceiro.startServer(appConfig, jwtConfig, dbConfig, cryptoConfig, tlsConfig);
+            try {
+                String url = "http://localhost:" + appConfig.port() + "/api/calcular";
+                run(url, token, options.concurrency(), Math.max(1, options.requests() / 10));
+                Result result = run(url, token, options.concurrency(), options.requests());
+                System.out.printf("%s,%d,%d,%d,%d,%.1f,%d,%d,%.1f,%.1f%n",
+                    mode, options.requests(), options.concurrency(), appConfig.simulatedDelayMs(), result.durationMs(),
+                    result.requestsPerSecond(), result.ok(), result.failures(), result.percentileMs(0.50), result.percentileMs(0.99));
+            } finally {
+                handle.close();
+            }
+        }
+    }
+
+    private static Result run(String url, String token, int concurrency, int requests) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.min(concurrency, 64));
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(3))
+            .executor(clientExecutor)
+            .build();
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + token)
+            .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+            .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger ok = new AtomicInteger();
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sentAt;
+                if (error == null && response.statusCode() == 200) {
+                    ok.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        long durationNanos = System.nanoTime() - start;
+        clientExecutor.shutdown();
+        Arrays.sort(latencies);
+        return new Result(requests, ok.get(), durationNanos, latencies);
+    }
+
+    private record Result(int requests, int ok, long durationNanos, long[] sortedLatencies) {
+        long durationMs() {
+            return durationNanos / 1_000_000L;
+        }
+
+        int failures() {
+            return requests - ok;
+        }
+
+        double requestsPerSecond() {
+            return requests / (durationNanos / 1_000_000_000.0);
+        }
+
+        double percentileMs(double p) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private record Options(String[] modes, int requests, int concurrency) {
+        static Options parse(String[] args) {
+            String[] modes = {EngineExecutors.MODE_FIXED, EngineExecutors.MODE_VIRTUAL};
+            int requests = 5000;
+            int concurrency = 200;
+            for (String arg : args) {
+                if (arg.startsWith("--mode=")) {
+                    modes = new String[] {arg.substring("--mode=".length())};
+                } else if (arg.startsWith("--requests=")) {
+                    requests = parseInt("--requests", arg.substring("--requests=".length()));
+                } else if (arg.startsWith("--concurrency=")) {
+                    concurrency = parseInt("--concurrency", arg.substring("--concurrency=".length()));
+                } else if ("--help".equals(arg)) {
+                    System.out.println("Uso: java -cp out com.javatitan.engine.ThroughputBenchmark [opcoes]");
+                    System.out.println("  --mode=fixed|virtual   Executa apenas um modo (default: ambos)");
+                    System.out.println("  --requests=N           Total de requisicoes (default 5000)");
+                    System.out.println("  --concurrency=N        Requisicoes simultaneas (default 200)");
+                    System.exit(0);
+                }
+            }
+            return new Options(modes, requests, concurrency);
+        }
+
+        private static int parseInt(String name, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(name + " invalido: " + value);
+            }
+        }
+    }
+}
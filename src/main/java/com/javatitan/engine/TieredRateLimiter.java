@@ -0,0 +1,365 @@
+package com.javatitan.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cotas em camadas: tenant (sub do JWT, limite conforme o plano), plano, endpoint e teto global. Antes delas, ja na
+// etapa anterior ao token, um limite barato por IP de origem segura floods de tokens forjados (cada um custaria um HMAC).
+// Plano, endpoint e global sao uma celula GCRA cada, resolvida antes da requisicao (ordinal do plano e handle do
+// endpoint): o unico lookup em mapa no caminho quente e o do tenant. Quem recusa devolve o que as camadas
+// anteriores ja tinham consumido, entao uma recusa nao gasta cota de ninguem.
+public final class TieredRateLimiter {
+    private static final long PERIOD_MS = 60000L;
+
+    public enum Layer {
+        TENANT, PLAN, ENDPOINT, GLOBAL;
+
+        public String id() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String algorithm;
+    // null com JAVATITAN_RATE_LIMIT_IP_PER_MIN=0. Local a cada no: nao entra no gossip do cluster.
+    private final RequestLimiter ip;
+    private final int ipLimit;
+    private final RequestLimiter[] tenants;
+    private final int[] tenantLimits;
+    private final Cell[] plans;
+    private final Cell global;
+    private final Map<String, Integer> endpointLimits;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    // Recusas por camada e plano.
+    private final LongAdder[][] rejected = new LongAdder[Layer.values().length][Plano.values().length];
+    // Modo cluster: consumo local por tenant ainda nao enviado aos peers, por plano.
+    private final List<Map<String, LongAdder>> pending;
+    private volatile boolean clustered;
+
+    public TieredRateLimiter(AppConfig config) {
+        this.algorithm = config.rateLimitAlgorithm();
+        Plano[] planos = Plano.values();
+        this.tenants = new RequestLimiter[planos.length];
+        this.tenantLimits = new int[planos.length];
+        this.plans = new Cell[planos.length];
+        List<Map<String, LongAdder>> pendingByPlan = new ArrayList<>(planos.length);
+        for (Plano plano : planos) {
+            int limit = config.tenantRateLimit(plano);
+            tenantLimits[plano.ordinal()] = limit;
+            if (limit > 0) {
+                // A rajada mantem a proporcao de JAVATITAN_RATE_LIMIT_BURST sobre JAVATITAN_RATE_LIMIT_PER_MIN.
+                tenants[plano.ordinal()] = RequestLimiter.create(config, limit, burst(config, limit));
+            }
+            plans[plano.ordinal()] = Cell.of(plano.name(), config.rateLimitPlans().getOrDefault(plano, 0));
+            pendingByPlan.add(new ConcurrentHashMap<>());
+        }
+        this.pending = List.copyOf(pendingByPlan);
+        this.ipLimit = config.rateLimitIpPerMinute();
+        this.ip = ipLimit > 0 ? RequestLimiter.create(config, ipLimit, burst(config, ipLimit)) : null;
+        this.global = Cell.of("global", config.rateLimitGlobal());
+        this.endpointLimits = config.rateLimitEndpoints();
+        for (LongAdder[] porPlano : rejected) {
+            for (int i = 0; i < porPlano.length; i++) {
+                porPlano[i] = new LongAdder();
+            }
+        }
+    }
+
+    // A rajada mantem a proporcao de JAVATITAN_RATE_LIMIT_BURST sobre JAVATITAN_RATE_LIMIT_PER_MIN.
+    private static int burst(AppConfig config, int limit) {
+        long burst = (long) limit * config.rateLimitBurst() / Math.max(1, config.rateLimitPerMinute());
+        return (int) Math.max(1L, Math.min(burst, Integer.MAX_VALUE));
+    }
+
+    public boolean enabled() {
+        return ip != null || layersEnabled();
+    }
+
+    // Camadas que dependem do token (tenant, plano, endpoint, global).
+    private boolean layersEnabled() {
+        for (int i = 0; i < tenants.length; i++) {
+            if (tenants[i] != null || plans[i] != null) {
+                return true;
+            }
+        }
+        return global != null || !endpointLimits.isEmpty();
+    }
+
+    // Chamado uma vez por handler, no boot.
+    public Endpoint endpoint(String path) {
+        return endpoints.computeIfAbsent(path, p -> new Endpoint(Cell.of(p, endpointLimits.getOrDefault(p, 0))));
+    }
+
+    public final class Endpoint {
+        private final Cell cell;
+
+        private Endpoint(Cell cell) {
+            this.cell = cell;
+        }
+
+        public boolean enabled() {
+            return layersEnabled();
+        }
+
+        public boolean ipEnabled() {
+            return ip != null;
+        }
+
+        // Camada por IP, antes de Content-Type e token: sem devolucao, cada tentativa conta.
+        public boolean tryAcquireIp(String address) {
+            return ip == null || ip.tryAcquire(address);
+        }
+
+        // null = aceita; senao, a camada que recusou.
+        public Layer tryAcquire(String tenant, Plano plano) {
+            RequestLimiter tenantLimiter = tenants[plano.ordinal()];
+            if (tenantLimiter != null && !tenantLimiter.tryAcquire(tenant)) {
+                return reject(Layer.TENANT, plano);
+            }
+            long now = System.nanoTime();
+            Cell planCell = plans[plano.ordinal()];
+            if (planCell != null && !planCell.tryAcquire(now)) {
+                refund(tenantLimiter, tenant, null, null);
+                return reject(Layer.PLAN, plano);
+            }
+            if (cell != null && !cell.tryAcquire(now)) {
+                refund(tenantLimiter, tenant, planCell, null);
+                return reject(Layer.ENDPOINT, plano);
+            }
+            if (global != null && !global.tryAcquire(now)) {
+                refund(tenantLimiter, tenant, planCell, cell);
+                return reject(Layer.GLOBAL, plano);
+            }
+            allowed.increment();
+            if (clustered) {
+                pendente(tenantLimiter != null ? tenant : null, plano, planCell, cell);
+            }
+            return null;
+        }
+    }
+
+    private void pendente(String tenant, Plano plano, Cell planCell, Cell endpointCell) {
+        if (tenant != null) {
+            Map<String, LongAdder> porTenant = pending.get(plano.ordinal());
+            LongAdder adder = porTenant.get(tenant);
+            if (adder == null) {
+                LongAdder created = new LongAdder();
+                adder = porTenant.putIfAbsent(tenant, created);
+                if (adder == null) {
+                    adder = created;
+                }
+            }
+            adder.increment();
+        }
+        if (planCell != null) {
+            planCell.pending.increment();
+        }
+        if (endpointCell != null) {
+            endpointCell.pending.increment();
+        }
+        if (global != null) {
+            global.pending.increment();
+        }
+    }
+
+    // A partir daqui o consumo aceito localmente fica pendente ate drainDeltas.
+    void enableCluster() {
+        clustered = true;
+    }
+
+    @FunctionalInterface
+    interface DeltaSink {
+        void delta(Layer layer, int plan, String key, long count);
+    }
+
+    // Entrega e zera o consumo pendente. Tenant sem consumo desde a ultima rodada sai do mapa; um incremento que
+    // corra com essa remocao se perde, dentro do erro ja aceito pelo modo cluster.
+    void drainDeltas(DeltaSink sink) {
+        for (int plan = 0; plan < pending.size(); plan++) {
+            Map<String, LongAdder> porTenant = pending.get(plan);
+            for (Map.Entry<String, LongAdder> entry : porTenant.entrySet()) {
+                long count = entry.getValue().sumThenReset();
+                if (count == 0) {
+                    porTenant.remove(entry.getKey(), entry.getValue());
+                } else {
+                    sink.delta(Layer.TENANT, plan, entry.getKey(), count);
+                }
+            }
+            drain(plans[plan], Layer.PLAN, plan, "", sink);
+        }
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            drain(entry.getValue().cell, Layer.ENDPOINT, -1, entry.getKey(), sink);
+        }
+        drain(global, Layer.GLOBAL, -1, "", sink);
+    }
+
+    private static void drain(Cell cell, Layer layer, int plan, String key, DeltaSink sink) {
+        if (cell == null) {
+            return;
+        }
+        long count = cell.pending.sumThenReset();
+        if (count > 0) {
+            sink.delta(layer, plan, key, count);
+        }
+    }
+
+    // Consumo informado por um peer. Devolve false quando a camada ou a chave nao existem neste no.
+    boolean absorb(Layer layer, int plan, String key, long count) {
+        if (layer == Layer.TENANT || layer == Layer.PLAN) {
+            if (plan < 0 || plan >= plans.length) {
+                return false;
+            }
+            if (layer == Layer.TENANT) {
+                RequestLimiter tenantLimiter = tenants[plan];
+                if (tenantLimiter == null) {
+                    return false;
+                }
+                tenantLimiter.absorb(key, count);
+                return true;
+            }
+            return absorb(plans[plan], count);
+        }
+        if (layer == Layer.ENDPOINT) {
+            Endpoint endpoint = endpoints.get(key);
+            return endpoint != null && absorb(endpoint.cell, count);
+        }
+        return absorb(global, count);
+    }
+
+    private static boolean absorb(Cell cell, long count) {
+        if (cell == null) {
+            return false;
+        }
+        GcraLimiter.consume(cell.tat, System.nanoTime(), cell.emissionNanos * count, cell.ceilingNanos);
+        return true;
+    }
+
+    private Layer reject(Layer layer, Plano plano) {
+        rejected[layer.ordinal()][plano.ordinal()].increment();
+        return layer;
+    }
+
+    public long rejected(Layer layer, Plano plano) {
+        return rejected[layer.ordinal()][plano.ordinal()].sum();
+    }
+
+    public long ipRejected() {
+        return ip == null ? 0L : ip.snapshot().rejected();
+    }
+
+    private long rejected(Layer layer) {
+        long total = 0;
+        for (LongAdder adder : rejected[layer.ordinal()]) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    private static void refund(RequestLimiter tenantLimiter, String tenant, Cell planCell, Cell endpointCell) {
+        if (tenantLimiter != null) {
+            tenantLimiter.refund(tenant);
+        }
+        if (planCell != null) {
+            planCell.refund();
+        }
+        if (endpointCell != null) {
+            endpointCell.refund();
+        }
+    }
+
+    public Snapshot snapshot() {
+        int trackedKeys = 0;
+        long evicted = 0;
+        long overflow = 0;
+        List<LimitSnapshot> tenantSnapshots = new ArrayList<>();
+        List<LimitSnapshot> planSnapshots = new ArrayList<>();
+        for (Plano plano : Plano.values()) {
+            RequestLimiter tenantLimiter = tenants[plano.ordinal()];
+            if (tenantLimiter != null) {
+                RequestLimiter.Snapshot s = tenantLimiter.snapshot();
+                trackedKeys += s.trackedKeys();
+                evicted += s.evicted();
+                overflow += s.overflow();
+                tenantSnapshots.add(new LimitSnapshot(plano.name(), tenantLimits[plano.ordinal()], s.rejected()));
+            }
+            Cell planCell = plans[plano.ordinal()];
+            if (planCell != null) {
+                planSnapshots.add(planCell.snapshot());
+            }
+        }
+        List<LimitSnapshot> endpointSnapshots = new ArrayList<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            if (endpoint.cell != null) {
+                endpointSnapshots.add(endpoint.cell.snapshot());
+            }
+        }
+        List<LimitSnapshot> ipSnapshots = List.of();
+        if (ip != null) {
+            RequestLimiter.Snapshot s = ip.snapshot();
+            trackedKeys += s.trackedKeys();
+            evicted += s.evicted();
+            overflow += s.overflow();
+            ipSnapshots = List.of(new LimitSnapshot("ip", ipLimit, s.rejected()));
+        }
+        List<LayerSnapshot> layers = List.of(
+            new LayerSnapshot("ip", ipRejected(), ipSnapshots),
+            new LayerSnapshot(Layer.TENANT.id(), rejected(Layer.TENANT), tenantSnapshots),
+            new LayerSnapshot(Layer.PLAN.id(), rejected(Layer.PLAN), planSnapshots),
+            new LayerSnapshot(Layer.ENDPOINT.id(), rejected(Layer.ENDPOINT), endpointSnapshots),
+            new LayerSnapshot(Layer.GLOBAL.id(), rejected(Layer.GLOBAL),
+                global == null ? List.of() : List.of(global.snapshot())));
+        return new Snapshot(algorithm, allowed.sum(), trackedKeys, evicted, overflow, layers);
+    }
+
+    // Uma celula GCRA sem chave: o TAT da camada inteira num unico long.
+    private static final class Cell {
+        private final String name;
+        private final int limit;
+        private final long emissionNanos;
+        private final long toleranceNanos;
+        private final long ceilingNanos;
+        private final AtomicLong tat = new AtomicLong(System.nanoTime());
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+
+        private Cell(String name, int limit) {
+            this.name = name;
+            this.limit = limit;
+            this.emissionNanos = GcraLimiter.emissionNanos(limit, PERIOD_MS);
+            // Camadas compartilhadas aceitam rajada de ate um periodo inteiro.
+            this.toleranceNanos = GcraLimiter.toleranceNanos(emissionNanos, limit);
+            this.ceilingNanos = GcraLimiter.ceilingNanos(toleranceNanos, PERIOD_MS);
+        }
+
+        static Cell of(String name, int limit) {
+            return limit > 0 ? new Cell(name, limit) : null;
+        }
+
+        boolean tryAcquire(long now) {
+            if (GcraLimiter.acquire(tat, now, emissionNanos, toleranceNanos)) {
+                return true;
+            }
+            rejected.increment();
+            return false;
+        }
+
+        void refund() {
+            tat.addAndGet(-emissionNanos);
+        }
+
+        LimitSnapshot snapshot() {
+            return new LimitSnapshot(name, limit, rejected.sum());
+        }
+    }
+
+    public record LimitSnapshot(String name, int limit, long rejected) {}
+
+    public record LayerSnapshot(String layer, long rejected, List<LimitSnapshot> limits) {}
+
+    public record Snapshot(String algorithm, long allowed, int trackedKeys, long evicted, long overflow, List<LayerSnapshot> layers) {}
+}
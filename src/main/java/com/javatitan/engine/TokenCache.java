@@ -0,0 +1,159 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache de tokens ja verificados. Chave = token completo, entao a assinatura faz parte da chave:
+// alterar um unico byte do header, payload ou assinatura gera outra entrada.
+public final class TokenCache {
+    public static final int MAX_TOKEN_LENGTH = 4096;
+    private static final long MAX_TTL_MS = 3_600_000L;
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final int maxEntries;
+    private final long negativeTtlMs;
+    private final ConcurrentHashMap<String, Verdict> accepted = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Verdict> rejected = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile JwtConfig config;
+
+    public TokenCache(int maxEntries, long negativeTtlMs) {
+        this.maxEntries = maxEntries;
+        this.negativeTtlMs = negativeTtlMs;
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    // Retorna o veredito guardado para o token, ou null se ele precisa ser verificado.
+    public Verdict lookup(String token, JwtConfig jwtConfig) {
+        if (!enabled() || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        bind(jwtConfig);
+        long now = System.currentTimeMillis();
+        Verdict verdict = accepted.get(token);
+        if (verdict != null && now < verdict.expiresAtMs()) {
+            hits.increment();
+            return verdict;
+        }
+        if (verdict == null) {
+            verdict = rejected.get(token);
+            if (verdict != null && now < verdict.expiresAtMs()) {
+                negativeHits.increment();
+                return verdict;
+            }
+        }
+        if (verdict != null) {
+            (verdict.ok() ? accepted : rejected).remove(token, verdict);
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Guarda o token aceito ate exp - skew (no maximo 1h), para que ele seja reverificado antes de vencer.
+    public void accept(String token, JwtConfig jwtConfig, JwtClaims claims, String plan) {
+        if (!enabled() || token.length() > MAX_TOKEN_LENGTH || !bound(jwtConfig)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + MAX_TTL_MS;
+        if (claims.exp() != null) {
+            long skew = Math.max(0, jwtConfig.clockSkewSeconds());
+            expiresAt = Math.min(expiresAt, (claims.exp() - skew) * 1000L);
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        put(accepted, token, new Verdict(claims, plan, null, expiresAt));
+    }
+
+    public void reject(String token, JwtConfig jwtConfig, String error) {
+        if (!enabled() || negativeTtlMs <= 0 || token.length() > MAX_TOKEN_LENGTH || !bound(jwtConfig)) {
+            return;
+        }
+        put(rejected, token, new Verdict(null, null, error, System.currentTimeMillis() + negativeTtlMs));
+    }
+
+    // Uma configuracao nova (outro segredo, iss, aud ou skew) invalida todos os vereditos anteriores.
+    private void bind(JwtConfig jwtConfig) {
+        JwtConfig current = config;
+        if (current == jwtConfig) {
+            return;
+        }
+        synchronized (this) {
+            if (config != jwtConfig && (config == null || !config.equals(jwtConfig))) {
+                if (config != null) {
+                    invalidations.increment();
+                }
+                accepted.clear();
+                rejected.clear();
+            }
+            config = jwtConfig;
+        }
+    }
+
+    private boolean bound(JwtConfig jwtConfig) {
+        JwtConfig current = config;
+        return current == jwtConfig || jwtConfig.equals(current);
+    }
+
+    private void put(ConcurrentHashMap<String, Verdict> map, String token, Verdict verdict) {
+        if (map.size() >= maxEntries && !map.containsKey(token)) {
+            evict(map, System.currentTimeMillis());
+        }
+        map.put(token, verdict);
+    }
+
+    // Remove uma amostra pequena: expirados primeiro, senao o que vence mais cedo.
+    private void evict(ConcurrentHashMap<String, Verdict> map, long now) {
+        Iterator<Map.Entry<String, Verdict>> it = map.entrySet().iterator();
+        Map.Entry<String, Verdict> soonest = null;
+        boolean removed = false;
+        for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+            Map.Entry<String, Verdict> entry = it.next();
+            if (now >= entry.getValue().expiresAtMs()) {
+                removed |= map.remove(entry.getKey(), entry.getValue());
+            } else if (soonest == null || entry.getValue().expiresAtMs() < soonest.getValue().expiresAtMs()) {
+                soonest = entry;
+            }
+        }
+        if (!removed && soonest != null) {
+            removed = map.remove(soonest.getKey(), soonest.getValue());
+        }
+        if (removed) {
+            evictions.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(accepted.size(), rejected.size(), maxEntries, hits.sum(), negativeHits.sum(),
+            misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    public record Verdict(JwtClaims claims, String plan, String error, long expiresAtMs) {
+        public boolean ok() {
+            return error == null;
+        }
+    }
+
+    public record Snapshot(int size, int negativeSize, int maxEntries, long hits, long negativeHits, long misses,
+                           long evictions, long invalidations) {
+        public BigDecimal hitRatio() {
+            long lookups = hits + negativeHits + misses;
+            if (lookups == 0) {
+                return BigDecimal.ZERO;
+            }
+            return BigDecimal.valueOf(hits + negativeHits).divide(BigDecimal.valueOf(lookups), 4, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.javatitan.engine;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.UUID;
+
+public class WireFormatBenchmark {
+    private static final String PROPOSTA = "{\"idCliente\":\"e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1\"," +
+        "\"valorBruto\":1000.00,\"plano\":\"PRO\"}";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = 200_000;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = BenchmarkSupport.parseInt("--iterations", arg.substring("--iterations=".length()));
+            } else if ("--help".equals(arg)) {
+                System.out.println("Uso: java -cp out com.javatitan.engine.WireFormatBenchmark [--iterations=N]");
+                System.exit(0);
+            }
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        CryptoSession session = new CryptoSession(new CryptoConfig(true, key));
+        AeadSuite suite = session.defaultSuite();
+        PropostaResponse resposta = new PropostaResponse(UUID.fromString("e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1"),
+            new BigDecimal("850.00"), new BigDecimal("150.00"), "PROCESSADO_ASYNC");
+
+        byte[] envelope = CryptoUtils.writePayload(CryptoUtils.encrypt(PROPOSTA, key)).getBytes(StandardCharsets.UTF_8);
+        byte[] plain = new byte[BinaryWire.REQUEST_SIZE];
+        BinaryWire.writeRequest(new PropostaRequest(UUID.fromString("e7f6b1c6-9cb0-4c1a-9c76-2a9bf3b2a1c1"),
+            new BigDecimal("1000.00"), Plano.PRO), plain, 0);
+        byte[] frame = CryptoUtils.encryptFrame(plain, key);
+        int warmup = Math.max(10_000, iterations / 4);
+
+        // Lado do servidor por requisicao: abrir a proposta cifrada + montar e cifrar a resposta.
+        System.out.println("cenario,iteracoes,nsPorOp,opsPorSeg,bytesPorOp");
+        print(BenchmarkSupport.measure("json-envelope", warmup, iterations, () -> {
+            PropostaRequest request;
+            try (PooledBuffer buffer = session.open(suite, envelope, 0, envelope.length)) {
+                request = JsonBinders.propostaRequest(JsonCursor.of(buffer.array(), 0, buffer.length()));
+            }
+            JsonWriter json = session.encryptTo(suite, MotorFinanceiro.CalculoHandler.jsonSucesso(JsonWriter.local(), resposta));
+            int size = json.size();
+            json.release();
+            return request.plano().ordinal() + size;
+        }));
+        print(BenchmarkSupport.measure("binario", warmup, iterations, () -> {
+            PropostaRequest request;
+            try (PooledBuffer buffer = BinaryWire.open(session, suite, frame, 0, frame.length)) {
+                request = BinaryWire.readRequest(buffer.array(), 0, buffer.length());
+            }
+            try (PooledBuffer out = BufferPool.heap().acquire(BinaryWire.responseSize(resposta))) {
+                int length = BinaryWire.writeResponse(resposta, out.array(), 0);
+                try (PooledBuffer sealed = BinaryWire.seal(session, suite, out.array(), 0, length)) {
+                    return request.plano().ordinal() + sealed.length();
+                }
+            }
+        }));
+
+        JsonWriter json = session.encryptTo(suite, MotorFinanceiro.CalculoHandler.jsonSucesso(JsonWriter.local(), resposta));
+        int jsonResponse = json.size();
+        json.release();
+        int binaryResponse = BinaryWire.frameSize(BinaryWire.responseSize(resposta));
+        System.out.println();
+        System.out.println("formato,bytesRequisicao,bytesResposta");
+        System.out.println(String.format(Locale.ROOT, "json-envelope,%d,%d", envelope.length, jsonResponse));
+        System.out.println(String.format(Locale.ROOT, "binario,%d,%d", frame.length, binaryResponse));
+    }
+
+    private static void print(BenchmarkSupport.Measurement measurement) {
+        System.out.println(measurement.csv());
+    }
+}